@@ -19,3 +19,14 @@
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
 #-renamesourcefileattribute SourceFile
+
+# Logs de debug/verbose somem do release quando o minify estiver ativo
+# (chamada e montagem dos argumentos; sem minify o BudgetLog já não emite nada)
+-assumenosideeffects class com.budgetsystem.app.utils.BudgetLog {
+    public static void v(...);
+    public static void d(...);
+}
+-assumenosideeffects class android.util.Log {
+    public static int v(...);
+    public static int d(...);
+}
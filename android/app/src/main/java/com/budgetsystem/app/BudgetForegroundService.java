@@ -10,6 +10,7 @@ import android.os.Build;
 import android.os.IBinder;
 import android.util.Log;
 import androidx.core.app.NotificationCompat;
+import com.budgetsystem.app.utils.PreferencesManager;
 
 /**
  * Foreground Service para manter o app ativo em segundo plano.
@@ -49,6 +50,9 @@ public class BudgetForegroundService extends Service {
     public void onDestroy() {
         super.onDestroy();
         Log.d(TAG, "💀 BudgetForegroundService DESTRUÍDO!");
+        
+        // Grava as preferências ainda na janela do write-behind antes de o processo morrer
+        PreferencesManager.flush(this);
     }
 
     private void createNotificationChannel() {
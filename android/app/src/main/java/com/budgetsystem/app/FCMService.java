@@ -12,6 +12,8 @@ import android.util.Log;
 import androidx.core.app.NotificationCompat;
 import com.google.firebase.messaging.FirebaseMessagingService;
 import com.google.firebase.messaging.RemoteMessage;
+import com.budgetsystem.app.utils.Constants;
+import com.budgetsystem.app.utils.PreferencesManager;
 
 public class FCMService extends FirebaseMessagingService {
     private static final String TAG = "FCMService";
@@ -68,8 +70,7 @@ public class FCMService extends FirebaseMessagingService {
     
     private void saveTokenToPreferences(String token) {
         try {
-            android.content.SharedPreferences prefs = getSharedPreferences("CapacitorStorage", MODE_PRIVATE);
-            prefs.edit().putString("fcmToken", token).apply();
+            PreferencesManager.setString(this, Constants.PREFS_CAPACITOR, Constants.KEY_FCM_TOKEN, token);
             Log.d(TAG, "✅ FCM token salvo no SharedPreferences");
         } catch (Exception e) {
             Log.e(TAG, "❌ Erro ao salvar token no SharedPreferences: " + e.getMessage());
@@ -79,8 +80,7 @@ public class FCMService extends FirebaseMessagingService {
     private void sendTokenToFirestore(String token) {
         try {
             // Obtém o userId salvo pelo app
-            android.content.SharedPreferences prefs = getSharedPreferences("CapacitorStorage", MODE_PRIVATE);
-            String userId = prefs.getString("userId", null);
+            String userId = PreferencesManager.getString(this, Constants.PREFS_CAPACITOR, Constants.KEY_USER_ID, null);
             
             if (userId == null || userId.isEmpty()) {
                 Log.w(TAG, "⚠️ UserId não encontrado, token será salvo quando usuário logar");
@@ -1,6 +1,5 @@
 package com.budgetsystem.app;
 
-import android.content.SharedPreferences;
 import android.util.Log;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.Plugin;
@@ -10,6 +9,8 @@ import com.getcapacitor.annotation.CapacitorPlugin;
 import com.google.firebase.messaging.FirebaseMessaging;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.SetOptions;
+import com.budgetsystem.app.utils.Constants;
+import com.budgetsystem.app.utils.PreferencesManager;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -116,8 +117,7 @@ public class FCMTokenPlugin extends Plugin {
 
     private void saveTokenToPreferences(String token) {
         try {
-            SharedPreferences prefs = getContext().getSharedPreferences("CapacitorStorage", getContext().MODE_PRIVATE);
-            prefs.edit().putString("fcmToken", token).apply();
+            PreferencesManager.setString(getContext(), Constants.PREFS_CAPACITOR, Constants.KEY_FCM_TOKEN, token);
             Log.d(TAG, "✅ Token salvo no SharedPreferences");
         } catch (Exception e) {
             Log.e(TAG, "❌ Erro ao salvar no SharedPreferences: " + e.getMessage());
@@ -3,6 +3,8 @@ package com.budgetsystem.app;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import com.budgetsystem.app.parsing.CategoryClassifier;
+import com.budgetsystem.app.utils.PreferencesManager;
 import com.getcapacitor.BridgeActivity;
 
 public class MainActivity extends BridgeActivity {
@@ -18,6 +20,14 @@ public class MainActivity extends BridgeActivity {
         handleDeepLink(getIntent());
     }
 
+    @Override
+    public void onDestroy() {
+        // Grava as preferências ainda na janela do write-behind
+        PreferencesManager.flush(this);
+        CategoryClassifier.flushInstance();
+        super.onDestroy();
+    }
+
     @Override
     protected void onNewIntent(Intent intent) {
         super.onNewIntent(intent);
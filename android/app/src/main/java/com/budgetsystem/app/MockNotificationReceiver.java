@@ -3,11 +3,11 @@ package com.budgetsystem.app;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.util.Log;
 import com.budgetsystem.app.NotificationPlugin;
-import org.json.JSONObject;
-import org.json.JSONArray;
+import com.budgetsystem.app.parsing.BrlAmountParser;
+import com.budgetsystem.app.storage.PendingExpenseStore;
+import com.budgetsystem.app.utils.ExpenseIdGenerator;
 
 public class MockNotificationReceiver extends BroadcastReceiver {
     private static final String TAG = "MockNotificationRcv";
@@ -37,49 +37,31 @@ public class MockNotificationReceiver extends BroadcastReceiver {
         Log.d(TAG, "🏷️ Categoria: " + category);
         Log.d(TAG, "💵 Valor: R$ " + amountStr);
 
-        try {
-            double amount = Double.parseDouble(amountStr);
-
-            // Tenta enviar para o plugin primeiro
-            NotificationPlugin plugin = NotificationPlugin.getInstance();
-            if (plugin != null) {
-                Log.d(TAG, "✅ Enviando para NotificationPlugin");
-                plugin.notifyBankExpense(bank, amount, description, category);
-            } else {
-                // App fechado - salva em SharedPreferences
-                Log.w(TAG, "⚠️ NotificationPlugin não disponível - salvando para depois");
-                savePendingExpense(context, bank, amount, description, category);
-            }
+        long amountCents = BrlAmountParser.parsePlainCents(amountStr);
+        if (amountCents == BrlAmountParser.NOT_FOUND) {
+            Log.e(TAG, "❌ Erro ao converter valor: " + amountStr);
+            return;
+        }
 
-        } catch (NumberFormatException e) {
-            Log.e(TAG, "❌ Erro ao converter valor: " + amountStr, e);
+        long expenseId = ExpenseIdGenerator.next();
+        
+        // Tenta enviar para o plugin primeiro
+        NotificationPlugin plugin = NotificationPlugin.getInstance();
+        if (plugin != null) {
+            Log.d(TAG, "✅ Enviando para NotificationPlugin");
+            plugin.notifyBankExpense(expenseId, bank, amountCents, description, category);
+        } else {
+            // App fechado - salva nas despesas pendentes
+            Log.w(TAG, "⚠️ NotificationPlugin não disponível - salvando para depois");
+            savePendingExpense(context, expenseId, bank, amountCents, description, category);
         }
     }
     
-    private void savePendingExpense(Context context, String bank, double amount, 
+    private void savePendingExpense(Context context, long expenseId, String bank, long amountCents, 
                                     String description, String category) {
-        try {
-            SharedPreferences prefs = context.getSharedPreferences("budget_pending_expenses", Context.MODE_PRIVATE);
-            String existingJson = prefs.getString("expenses", "[]");
-            
-            JSONArray expenses = new JSONArray(existingJson);
-            
-            JSONObject expense = new JSONObject();
-            expense.put("bank", bank);
-            expense.put("amount", amount);
-            expense.put("description", description);
-            expense.put("category", category);
-            expense.put("timestamp", System.currentTimeMillis());
-            
-            expenses.put(expense);
-            
-            // Salvar
-            prefs.edit().putString("expenses", expenses.toString()).apply();
-            
-            Log.d(TAG, "💾 Despesa salva em SharedPreferences! Total pendentes: " + expenses.length());
-            
-        } catch (Exception e) {
-            Log.e(TAG, "❌ Erro ao salvar despesa pendente: " + e.getMessage(), e);
-        }
+        PendingExpenseStore.getInstance(context).append(expenseId, System.currentTimeMillis(), bank,
+            amountCents, description, category, null, 0, 0);
+        
+        Log.d(TAG, "💾 Despesa enviada para as pendentes!");
     }
 }
@@ -1,11 +1,12 @@
 package com.budgetsystem.app;
 
-import android.util.Log;
+import android.util.Base64;
 import android.content.Intent;
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.net.Uri;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.PowerManager;
 import android.provider.Settings;
 import com.getcapacitor.JSObject;
@@ -14,19 +15,41 @@ import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
 import com.getcapacitor.annotation.CapacitorPlugin;
+import com.budgetsystem.app.parsing.BrlAmountParser;
+import com.budgetsystem.app.parsing.CategoryClassifier;
+import com.budgetsystem.app.parsing.ParsingRulesLoader;
+import com.budgetsystem.app.pipeline.NotificationPipeline;
+import com.budgetsystem.app.storage.PendingExpenseStore;
+import com.budgetsystem.app.utils.BudgetLog;
+import com.budgetsystem.app.utils.Constants;
+import com.budgetsystem.app.utils.ExpenseIdGenerator;
+import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONArray;
 
 @CapacitorPlugin(name = "NotificationPlugin")
 public class NotificationPlugin extends Plugin {
     private static final String TAG = "NotificationPlugin";
     private static NotificationPlugin instance;
 
+    // Lote de despesas aguardando o envio (evento "bankExpenses"), protegido por batchLock
+    private final Object batchLock = new Object();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private JSArray pendingBatch = new JSArray();
+    private boolean flushScheduled;
+    private long batchSeq;
+
+    private final Runnable flushBatchTask = new Runnable() {
+        @Override
+        public void run() {
+            flushExpenseBatch();
+        }
+    };
+
     @Override
     public void load() {
         super.load();
         instance = this;
-        Log.d(TAG, "🔌 NotificationPlugin carregado!");
+        BudgetLog.d(TAG, "🔌 NotificationPlugin carregado!");
     }
 
     public static NotificationPlugin getInstance() {
@@ -44,7 +67,7 @@ public class NotificationPlugin extends Plugin {
         boolean hasPermission = enabledListeners != null && 
             enabledListeners.contains(getContext().getPackageName());
         
-        Log.d(TAG, "🔐 Permissão de notificação: " + (hasPermission ? "HABILITADA ✅" : "DESABILITADA ❌"));
+        BudgetLog.d(TAG, "🔐 Permissão de notificação: {}", hasPermission ? "HABILITADA ✅" : "DESABILITADA ❌");
         
         JSObject ret = new JSObject();
         ret.put("hasPermission", hasPermission);
@@ -54,28 +77,25 @@ public class NotificationPlugin extends Plugin {
     // Abre configurações de permissão de notificação
     @PluginMethod
     public void requestPermission(PluginCall call) {
-        Log.d(TAG, "📱 Abrindo configurações de permissão...");
+        BudgetLog.d(TAG, "📱 Abrindo configurações de permissão...");
         Intent intent = new Intent(Settings.ACTION_NOTIFICATION_LISTENER_SETTINGS);
         getActivity().startActivity(intent);
         call.resolve();
     }
 
     // Chamado pelo NotificationListenerService quando detecta despesa
-    public void notifyBankExpense(String bank, double amount, String description, String category, 
+    // expenseId: id gerado na detecção (o mesmo das pendentes e da Cloud Function)
+    public void notifyBankExpense(long expenseId, String bank, long amountCents, String description, String category, 
                                    String merchantName, int installmentNumber, int installmentTotal) {
-        Log.d(TAG, "💰 notifyBankExpense chamado:");
-        Log.d(TAG, "  - Bank: " + bank);
-        Log.d(TAG, "  - Amount: R$ " + amount);
-        Log.d(TAG, "  - Description: " + description);
-        Log.d(TAG, "  - Category: " + category);
-        Log.d(TAG, "  - Merchant: " + merchantName);
-        if (installmentTotal > 0) {
-            Log.d(TAG, "  - Installments: " + installmentNumber + "/" + installmentTotal);
-        }
+        String formattedId = ExpenseIdGenerator.format(expenseId);
+        BudgetLog.d(TAG, "💰 notifyBankExpense {} ({}): {} centavos", formattedId, bank, amountCents);
+        BudgetLog.d(TAG, "  - {} | {} | {}", description, category, merchantName);
 
         JSObject ret = new JSObject();
+        ret.put("expenseId", formattedId);
         ret.put("bank", bank);
-        ret.put("amount", amount);
+        ret.put("amount", BrlAmountParser.toReais(amountCents));
+        ret.put("amountCents", amountCents);
         ret.put("description", description);
         ret.put("category", category);
         ret.put("timestamp", System.currentTimeMillis());
@@ -89,33 +109,72 @@ public class NotificationPlugin extends Plugin {
             ret.put("installmentTotal", installmentTotal);
         }
 
-        Log.d(TAG, "📤 Enviando evento 'bankExpense' para o JavaScript");
-        notifyListeners("bankExpense", ret);
+        enqueueExpenseEvent(ret);
+    }
+
+    /**
+     * Junta a despesa ao lote atual. A primeira do lote agenda o envio para o fim da janela;
+     * lote cheio é enviado imediatamente. Uma varredura ao desbloquear vira um único evento.
+     */
+    private void enqueueExpenseEvent(JSObject expense) {
+        boolean flushNow;
+        synchronized (batchLock) {
+            pendingBatch.put(expense);
+            flushNow = pendingBatch.length() >= Constants.EXPENSE_EVENT_BATCH_MAX;
+            if (!flushNow && !flushScheduled) {
+                flushScheduled = true;
+                mainHandler.postDelayed(flushBatchTask, Constants.EXPENSE_EVENT_BATCH_WINDOW_MS);
+            }
+        }
+        if (flushNow) {
+            mainHandler.removeCallbacks(flushBatchTask);
+            mainHandler.post(flushBatchTask);
+        }
+    }
+
+    private void flushExpenseBatch() {
+        JSArray batch;
+        long seq;
+        synchronized (batchLock) {
+            flushScheduled = false;
+            if (pendingBatch.length() == 0) {
+                return;
+            }
+            batch = pendingBatch;
+            pendingBatch = new JSArray();
+            seq = ++batchSeq;
+        }
+
+        JSObject ret = new JSObject();
+        ret.put("seq", seq);
+        ret.put("count", batch.length());
+        ret.put("expenses", batch);
+
+        BudgetLog.d(TAG, "📤 Enviando evento 'bankExpenses' para o JavaScript (lote #{}, {} despesas)", seq, batch.length());
+        notifyListeners("bankExpenses", ret);
     }
     
     // Versão legacy para compatibilidade (caso chamado sem novos parâmetros)
-    public void notifyBankExpense(String bank, double amount, String description, String category) {
-        notifyBankExpense(bank, amount, description, category, null, 0, 0);
+    public void notifyBankExpense(long expenseId, String bank, long amountCents, String description, String category) {
+        notifyBankExpense(expenseId, bank, amountCents, description, category, null, 0, 0);
     }
     
     // Chamado quando detecta notificação de verificação de email
     public void notifyEmailVerification(String title, String text) {
-        Log.d(TAG, "📧 notifyEmailVerification chamado:");
-        Log.d(TAG, "  - Title: " + title);
-        Log.d(TAG, "  - Text: " + text);
+        BudgetLog.d(TAG, "📧 notifyEmailVerification: {} | {}", title, text);
 
         JSObject ret = new JSObject();
         ret.put("title", title != null ? title : "");
         ret.put("text", text != null ? text : "");
 
-        Log.d(TAG, "📤 Enviando evento 'emailVerification' para o JavaScript");
+        BudgetLog.d(TAG, "📤 Enviando evento 'emailVerification' para o JavaScript");
         notifyListeners("emailVerification", ret);
     }
 
     @PluginMethod
     public void echo(PluginCall call) {
         String value = call.getString("value");
-        Log.d(TAG, "✅ Echo recebido: " + value);
+        BudgetLog.d(TAG, "✅ Echo recebido: {}", value);
 
         JSObject ret = new JSObject();
         ret.put("value", value);
@@ -134,7 +193,7 @@ public class NotificationPlugin extends Plugin {
             isIgnoring = true; // Antes do Android M não tinha essa restrição
         }
         
-        Log.d(TAG, "🔋 Ignorando otimização de bateria: " + (isIgnoring ? "SIM ✅" : "NÃO ❌"));
+        BudgetLog.d(TAG, "🔋 Ignorando otimização de bateria: {}", isIgnoring ? "SIM ✅" : "NÃO ❌");
         
         JSObject ret = new JSObject();
         ret.put("isIgnoring", isIgnoring);
@@ -144,7 +203,7 @@ public class NotificationPlugin extends Plugin {
     // Solicita para ignorar otimizações de bateria
     @PluginMethod
     public void requestIgnoreBatteryOptimization(PluginCall call) {
-        Log.d(TAG, "🔋 Solicitando para ignorar otimização de bateria...");
+        BudgetLog.d(TAG, "🔋 Solicitando para ignorar otimização de bateria...");
         
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
             PowerManager pm = (PowerManager) getContext().getSystemService(Context.POWER_SERVICE);
@@ -154,7 +213,7 @@ public class NotificationPlugin extends Plugin {
                 intent.setData(Uri.parse("package:" + getContext().getPackageName()));
                 getActivity().startActivity(intent);
             } else {
-                Log.d(TAG, "✅ Já está ignorando otimização de bateria");
+                BudgetLog.d(TAG, "✅ Já está ignorando otimização de bateria");
             }
         }
         
@@ -164,7 +223,7 @@ public class NotificationPlugin extends Plugin {
     // Abre configurações de bateria do app
     @PluginMethod
     public void openBatterySettings(PluginCall call) {
-        Log.d(TAG, "⚙️ Abrindo configurações de bateria...");
+        BudgetLog.d(TAG, "⚙️ Abrindo configurações de bateria...");
         
         try {
             // Tenta abrir configurações específicas do app
@@ -183,7 +242,7 @@ public class NotificationPlugin extends Plugin {
     // Abre configurações de notificação do app
     @PluginMethod
     public void openNotificationSettings(PluginCall call) {
-        Log.d(TAG, "🔔 Abrindo configurações de notificação do app...");
+        BudgetLog.d(TAG, "🔔 Abrindo configurações de notificação do app...");
         
         try {
             Intent intent = new Intent();
@@ -199,7 +258,7 @@ public class NotificationPlugin extends Plugin {
             getActivity().startActivity(intent);
             call.resolve();
         } catch (Exception e) {
-            Log.e(TAG, "❌ Erro ao abrir configurações de notificação: " + e.getMessage());
+            BudgetLog.e(TAG, "❌ Erro ao abrir configurações de notificação: {}", e.getMessage());
             // Fallback para configurações gerais do app
             try {
                 Intent intent = new Intent(Settings.ACTION_APPLICATION_DETAILS_SETTINGS);
@@ -212,66 +271,174 @@ public class NotificationPlugin extends Plugin {
         }
     }
 
-    // Carrega despesas pendentes que foram salvas enquanto o app estava fechado
+    // Carrega despesas pendentes que foram salvas enquanto o app estava fechado.
+    // Paginado: { after: id da última despesa recebida (cursor), limit }. Cada despesa traz "id"
+    // para ser confirmada com ackPendingExpenses depois de salva no app.
     @PluginMethod
-    public void loadPendingExpenses(PluginCall call) {
-        Log.d(TAG, "📂 Carregando despesas pendentes...");
+    public void loadPendingExpenses(final PluginCall call) {
+        final long after = call.getData().optLong("after", -1L);
+        final int limit = Math.max(1, call.getInt("limit", Constants.PENDING_PAGE_SIZE));
+        BudgetLog.d(TAG, "📂 Carregando despesas pendentes (após #{}, até {})...", after, limit);
         
-        try {
-            SharedPreferences prefs = getContext().getSharedPreferences("budget_pending_expenses", Context.MODE_PRIVATE);
-            String expensesJson = prefs.getString("expenses", "[]");
+        // Lido na thread do store, depois das despesas ainda na fila de gravação
+        PendingExpenseStore.getInstance(getContext()).drain(after, limit, new PendingExpenseStore.PageCallback() {
+            @Override
+            public void onPage(PendingExpenseStore.Page page) {
+                BudgetLog.d(TAG, "📂 Encontradas {} despesas pendentes nesta página", page.expenses.length());
+                
+                JSObject ret = new JSObject();
+                ret.put("expenses", page.expenses);
+                ret.put("count", page.expenses.length());
+                ret.put("nextCursor", page.nextCursor);
+                ret.put("hasMore", page.hasMore);
+                call.resolve(ret);
+            }
             
-            JSONArray expenses = new JSONArray(expensesJson);
-            Log.d(TAG, "📂 Encontradas " + expenses.length() + " despesas pendentes");
+            @Override
+            public void onError(Exception e) {
+                BudgetLog.e(TAG, "❌ Erro ao carregar despesas pendentes", e);
+                JSObject ret = new JSObject();
+                ret.put("expenses", new JSArray());
+                ret.put("count", 0);
+                ret.put("nextCursor", after);
+                ret.put("hasMore", false);
+                call.resolve(ret);
+            }
+        });
+    }
+
+    // Remove só as despesas pendentes confirmadas pelo app (ids de loadPendingExpenses)
+    @PluginMethod
+    public void ackPendingExpenses(final PluginCall call) {
+        JSArray ids = call.getArray("ids");
+        if (ids == null) {
+            call.reject("ids é obrigatório");
+            return;
+        }
+        
+        long[] seqs = new long[ids.length()];
+        try {
+            for (int i = 0; i < seqs.length; i++) {
+                seqs[i] = ids.getLong(i);
+            }
+        } catch (JSONException e) {
+            call.reject("ids inválidos");
+            return;
+        }
+        
+        PendingExpenseStore.getInstance(getContext()).ack(seqs, new PendingExpenseStore.AckCallback() {
+            @Override
+            public void onAcknowledged(int removed) {
+                BudgetLog.d(TAG, "✅ {} despesas pendentes confirmadas", removed);
+                JSObject ret = new JSObject();
+                ret.put("removed", removed);
+                call.resolve(ret);
+            }
             
-            JSArray jsExpenses = new JSArray();
-            for (int i = 0; i < expenses.length(); i++) {
-                JSONObject expense = expenses.getJSONObject(i);
-                JSObject jsExpense = new JSObject();
-                jsExpense.put("bank", expense.optString("bank", "Outro"));
-                jsExpense.put("amount", expense.optDouble("amount", 0));
-                jsExpense.put("description", expense.optString("description", ""));
-                jsExpense.put("category", expense.optString("category", "Outros"));
-                jsExpense.put("timestamp", expense.optLong("timestamp", System.currentTimeMillis()));
-                
-                if (expense.has("merchantName")) {
-                    jsExpense.put("merchantName", expense.getString("merchantName"));
-                }
-                if (expense.has("installmentNumber")) {
-                    jsExpense.put("installmentNumber", expense.getInt("installmentNumber"));
-                    jsExpense.put("installmentTotal", expense.getInt("installmentTotal"));
-                }
-                
-                jsExpenses.put(jsExpense);
+            @Override
+            public void onError(Exception e) {
+                BudgetLog.e(TAG, "❌ Erro ao confirmar despesas pendentes", e);
+                call.reject("Erro ao confirmar despesas pendentes");
             }
+        });
+    }
+
+    // Limpa todas as despesas pendentes (inclusive as ainda não lidas - prefira ackPendingExpenses)
+    @PluginMethod
+    public void clearPendingExpenses(PluginCall call) {
+        BudgetLog.d(TAG, "🗑️ Limpando despesas pendentes...");
+        
+        // Executado na ordem da fila do store (depois das gravações já enfileiradas)
+        PendingExpenseStore.getInstance(getContext()).clear();
+        BudgetLog.d(TAG, "✅ Limpeza das despesas pendentes agendada!");
+        call.resolve();
+    }
+
+    // Recarrega as regras de parsing; com "data" (base64), grava antes o arquivo baixado
+    @PluginMethod
+    public void reloadParsingRules(PluginCall call) {
+        BudgetLog.d(TAG, "📐 Recarregando regras de parsing...");
+        
+        try {
+            String data = call.getString("data");
+            int version = data != null
+                ? ParsingRulesLoader.installFile(getContext(), Base64.decode(data, Base64.DEFAULT))
+                : ParsingRulesLoader.load(getContext());
             
             JSObject ret = new JSObject();
-            ret.put("expenses", jsExpenses);
-            ret.put("count", expenses.length());
+            ret.put("version", version);
             call.resolve(ret);
-            
         } catch (Exception e) {
-            Log.e(TAG, "❌ Erro ao carregar despesas pendentes: " + e.getMessage(), e);
-            JSObject ret = new JSObject();
-            ret.put("expenses", new JSArray());
-            ret.put("count", 0);
+            BudgetLog.e(TAG, "❌ Erro ao recarregar regras de parsing", e);
+            call.reject("Regras de parsing inválidas: " + e.getMessage());
+        }
+    }
+
+    // Métricas do pipeline de notificações: p50/p90/p99 por etapa (filter, parse, categorize,
+    // persist, plugin, upload), resultados, fila e gravações em disco, com o modelo do aparelho
+    @PluginMethod
+    public void getPipelineStats(PluginCall call) {
+        try {
+            JSONObject stats = NotificationPipeline.getInstance(getContext()).getStats();
+            call.resolve(JSObject.fromJSONObject(stats));
+        } catch (JSONException e) {
+            BudgetLog.e(TAG, "❌ Erro ao montar estatísticas do pipeline", e);
+            call.reject("Erro ao montar estatísticas do pipeline");
+        }
+    }
+
+    // Log estruturado do lado nativo (últimas linhas de info/aviso/erro e eventos do pipeline,
+    // sem dados pessoais) para anexar em casos de suporte. clear: true esvazia depois de exportar
+    @PluginMethod
+    public void exportDiagnosticLog(PluginCall call) {
+        try {
+            JSObject ret = JSObject.fromJSONObject(BudgetLog.export());
+            if (call.getBoolean("clear", false)) {
+                BudgetLog.clear();
+            }
             call.resolve(ret);
+        } catch (JSONException e) {
+            BudgetLog.e(TAG, "❌ Erro ao exportar log de diagnóstico", e);
+            call.reject("Erro ao exportar log de diagnóstico");
         }
     }
 
-    // Limpa as despesas pendentes após serem processadas
+    // Ensina ao classificador a categoria que o usuário escolheu para uma despesa
     @PluginMethod
-    public void clearPendingExpenses(PluginCall call) {
-        Log.d(TAG, "🗑️ Limpando despesas pendentes...");
+    public void learnCategory(PluginCall call) {
+        String text = call.getString("text");
+        String category = call.getString("category");
+        if (text == null || category == null) {
+            call.reject("text e category são obrigatórios");
+            return;
+        }
         
-        try {
-            SharedPreferences prefs = getContext().getSharedPreferences("budget_pending_expenses", Context.MODE_PRIVATE);
-            prefs.edit().putString("expenses", "[]").apply();
-            Log.d(TAG, "✅ Despesas pendentes limpas!");
-            call.resolve();
-        } catch (Exception e) {
-            Log.e(TAG, "❌ Erro ao limpar despesas pendentes: " + e.getMessage(), e);
-            call.reject("Erro ao limpar despesas pendentes");
+        CategoryClassifier classifier = CategoryClassifier.getInstance(getContext().getFilesDir());
+        boolean learned = classifier.learn(text, category);
+        BudgetLog.d(TAG, "{} {} → {}", learned ? "🧠 Categoria aprendida:" : "⚠️ Categoria não aprendida:", text, category);
+        
+        JSObject ret = new JSObject();
+        ret.put("learned", learned);
+        ret.put("examples", classifier.getExampleCount());
+        call.resolve(ret);
+    }
+
+    // Esquece uma categoria (budget apagado ou renomeado) para ela não ser mais sugerida
+    @PluginMethod
+    public void forgetCategory(PluginCall call) {
+        String category = call.getString("category");
+        if (category == null) {
+            call.reject("category é obrigatório");
+            return;
         }
+        
+        CategoryClassifier classifier = CategoryClassifier.getInstance(getContext().getFilesDir());
+        boolean forgotten = classifier.forget(category);
+        BudgetLog.d(TAG, "🧹 Categoria esquecida: {} ({})", category, forgotten);
+        
+        JSObject ret = new JSObject();
+        ret.put("forgotten", forgotten);
+        ret.put("examples", classifier.getExampleCount());
+        call.resolve(ret);
     }
 }
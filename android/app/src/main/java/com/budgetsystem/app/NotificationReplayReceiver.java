@@ -0,0 +1,78 @@
+package com.budgetsystem.app;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ApplicationInfo;
+import com.budgetsystem.app.utils.BudgetLog;
+
+/**
+ * Dispara o {@link NotificationReplayer} via adb (ver replay-notifications.ps1):
+ *
+ *   adb shell am broadcast -n com.budgetsystem.app/.NotificationReplayReceiver \
+ *       -a com.budgetsystem.REPLAY_NOTIFICATIONS --es file stream.jsonl --es speed 10
+ *
+ * Extras: file (só o nome, em getExternalFilesDir()/replay/; padrão stream.jsonl), speed ("1", "10",
+ * qualquer fator ou "max"), upload (boolean, padrão false: não envia à Cloud Function).
+ * Só funciona em builds debuggable: o replay injeta despesas no pipeline real. O receiver
+ * só é declarado em src/debug/AndroidManifest.xml, protegido por android.permission.DUMP.
+ */
+public class NotificationReplayReceiver extends BroadcastReceiver {
+    private static final String TAG = "NotificationReplayer";
+
+    static final String ACTION_REPLAY = "com.budgetsystem.REPLAY_NOTIFICATIONS";
+    private static final String DEFAULT_STREAM = "stream.jsonl";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (!ACTION_REPLAY.equals(intent.getAction())) {
+            return;
+        }
+        if ((context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) == 0) {
+            BudgetLog.w(TAG, "⚠️ Replay disponível só em builds de debug");
+            return;
+        }
+
+        String file = intent.getStringExtra("file");
+        if (file == null || file.isEmpty()) {
+            file = DEFAULT_STREAM;
+        }
+        if (!isPlainFileName(file)) {
+            // Só nomes dentro de replayDir: nada de ler o stream ou gravar o relatório fora dele
+            BudgetLog.w(TAG, "⚠️ Nome de arquivo inválido para o replay: {}", file);
+            return;
+        }
+        double speed = parseSpeed(intent.getStringExtra("speed"));
+        boolean upload = intent.getBooleanExtra("upload", false);
+
+        if (!NotificationReplayer.start(context, file, speed, upload)) {
+            BudgetLog.w(TAG, "⚠️ Já existe um replay em andamento");
+        }
+    }
+
+    /**
+     * Nome simples de arquivo: sem separador de diretório nem "..".
+     */
+    static boolean isPlainFileName(String file) {
+        return file.indexOf('/') < 0 && file.indexOf('\\') < 0 && !file.contains("..");
+    }
+
+    /**
+     * "max" = sem espera entre notificações (0); fator inválido = tempo real.
+     */
+    private static double parseSpeed(String value) {
+        if (value == null || value.isEmpty()) {
+            return 1;
+        }
+        if (value.equalsIgnoreCase("max")) {
+            return 0;
+        }
+        try {
+            double speed = Double.parseDouble(value.replace("x", ""));
+            return speed > 0 ? speed : 1;
+        } catch (NumberFormatException e) {
+            BudgetLog.w(TAG, "⚠️ Velocidade inválida '{}', usando 1x", value);
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package com.budgetsystem.app;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.SystemClock;
+import com.budgetsystem.app.network.ExpenseUploader;
+import com.budgetsystem.app.pipeline.NotificationPipeline;
+import com.budgetsystem.app.pipeline.NotificationQueue;
+import com.budgetsystem.app.pipeline.RawNotification;
+import com.budgetsystem.app.storage.PendingExpenseStore;
+import com.budgetsystem.app.utils.BudgetLog;
+import com.budgetsystem.app.utils.PreferencesWriteBehind;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Replay de um fluxo gravado de notificações cruas pelo caminho real do
+ * NotificationListenerService: prefiltro e snapshot, fila, processor (dedup, parse), plugin,
+ * despesas pendentes. Em 1x, 10x (qualquer fator) ou velocidade máxima, para reproduzir
+ * rajadas (ex: dia de pagamento) fora do celular do usuário.
+ *
+ * Entrada: JSONL em getExternalFilesDir()/replay/, uma notificação por linha:
+ *   {"t": 0, "package": "com.nu.production", "id": 7, "title": "...", "text": "...",
+ *    "bigText": "...", "expense": "nu-1"}
+ * - t: ms desde o início da gravação (ritmo do replay e postTime da notificação)
+ * - id: id da notificação no app de origem (mesmo id + t = re-post da mesma notificação)
+ * - expense: opcional, chave da compra real; notificações da mesma compra repetem a chave.
+ *   Com ela o relatório conta despesas perdidas (nenhuma gerada) e duplicadas (mais de uma)
+ *
+ * Saída: report.json na mesma pasta e um resumo no logcat.
+ *
+ * As despesas geradas vão para o app e para as pendentes como as reais: usar em aparelho
+ * de teste. O envio à Cloud Function fica suspenso durante o replay, a menos que pedido.
+ */
+final class NotificationReplayer implements NotificationPipeline.Observer {
+    private static final String TAG = "NotificationReplayer";
+
+    static final String REPLAY_DIR = "replay";
+    private static final String REPORT_FILE = "report.json";
+
+    // Tempo máximo esperando o pipeline terminar depois da última notificação
+    private static final long DRAIN_TIMEOUT_MS = 60000;
+
+    private static final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final Context context;
+    private final File streamFile;
+    private final double speed;
+    private final boolean upload;
+
+    private final NotificationPipeline pipeline;
+
+    // Notificações enviadas e ainda não processadas (protegido por lock)
+    private final Object lock = new Object();
+    private final Map<RawNotification, Submitted> inFlight = new IdentityHashMap<>();
+    private long[] latenciesNs = new long[256];
+    private int processed;
+    private final int[] outcomes = new int[NotificationPipeline.Outcome.values().length];
+    private final Map<String, Integer> expensesByKey = new HashMap<>();
+
+    private static final class Record {
+        final long t;
+        final String packageName;
+        final int id;
+        final String title;
+        final String text;
+        final String bigText;
+        final String expenseKey;
+
+        Record(JSONObject json, int line) throws JSONException {
+            this.t = json.getLong("t");
+            this.packageName = json.getString("package");
+            this.id = json.optInt("id", line);
+            this.title = json.optString("title", null);
+            this.text = json.optString("text", null);
+            this.bigText = json.optString("bigText", null);
+            this.expenseKey = json.optString("expense", null);
+        }
+    }
+
+    private static final class Submitted {
+        final long submittedAtNs;
+        final String expenseKey;
+
+        Submitted(long submittedAtNs, String expenseKey) {
+            this.submittedAtNs = submittedAtNs;
+            this.expenseKey = expenseKey;
+        }
+    }
+
+    private NotificationReplayer(Context context, File streamFile, double speed, boolean upload) {
+        this.context = context.getApplicationContext();
+        this.streamFile = streamFile;
+        this.speed = speed;
+        this.upload = upload;
+        this.pipeline = NotificationPipeline.getInstance(this.context);
+    }
+
+    /**
+     * Diretório de entrada e saída do replay (acessível por adb push/pull sem root).
+     */
+    static File replayDir(Context context) {
+        File base = context.getExternalFilesDir(null);
+        return new File(base != null ? base : context.getFilesDir(), REPLAY_DIR);
+    }
+
+    /**
+     * Inicia o replay em uma thread própria.
+     *
+     * @param speed Fator de velocidade (1 = tempo real, 10 = 10x), 0 = máxima
+     * @return false se já há um replay em andamento
+     */
+    static boolean start(Context context, String fileName, double speed, boolean upload) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        final NotificationReplayer replayer = new NotificationReplayer(
+            context, new File(replayDir(context), fileName), speed, upload);
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    replayer.run();
+                } catch (Exception e) {
+                    BudgetLog.e(TAG, "❌ Erro no replay", e);
+                } finally {
+                    running.set(false);
+                }
+            }
+        }, "NotificationReplayer");
+        thread.start();
+        return true;
+    }
+
+    @Override
+    public void onProcessed(RawNotification notification, NotificationPipeline.Outcome outcome) {
+        long now = System.nanoTime();
+        synchronized (lock) {
+            Submitted submitted = inFlight.remove(notification);
+            if (submitted == null) {
+                // Notificação real chegando durante o replay
+                return;
+            }
+            if (processed == latenciesNs.length) {
+                latenciesNs = Arrays.copyOf(latenciesNs, processed * 2);
+            }
+            latenciesNs[processed++] = now - submitted.submittedAtNs;
+            outcomes[outcome.ordinal()]++;
+            if (outcome == NotificationPipeline.Outcome.EXPENSE && submitted.expenseKey != null) {
+                Integer count = expensesByKey.get(submitted.expenseKey);
+                expensesByKey.put(submitted.expenseKey, count == null ? 1 : count + 1);
+            }
+            lock.notifyAll();
+        }
+    }
+
+    private void run() throws IOException, JSONException {
+        List<Record> records = readStream();
+        if (records.isEmpty()) {
+            BudgetLog.w(TAG, "⚠️ Nenhuma notificação em {}", streamFile);
+            return;
+        }
+        BudgetLog.i(TAG, "▶️ Replay de {} notificações de {} ({})", records.size(), streamFile.getName(),
+            speed > 0 ? speed + "x" : "velocidade máxima");
+
+        ExpenseUploader uploader = ExpenseUploader.getInstance(context);
+        PendingExpenseStore store = PendingExpenseStore.getInstance(context);
+        PreferencesWriteBehind prefs = PreferencesWriteBehind.getInstance(context);
+        long processorWritesBefore = pipeline.getDiskWriteCount();
+        long pendingCommitsBefore = store.getCommitCount();
+        long prefsCommitsBefore = prefs.getCommitCount();
+        int skippedUploadsBefore = uploader.getSkippedCount();
+
+        int filtered = 0;
+        int coalesced = 0;
+        int dropped = 0;
+        List<String> expectedKeys = new ArrayList<>();
+
+        uploader.setSuspended(!upload);
+        pipeline.setObserver(this);
+        long startNs = System.nanoTime();
+        try {
+            long wallStart = System.currentTimeMillis();
+            long firstT = records.get(0).t;
+            for (Record record : records) {
+                if (record.expenseKey != null && !expectedKeys.contains(record.expenseKey)) {
+                    expectedKeys.add(record.expenseKey);
+                }
+                long offsetMs = record.t - firstT;
+                if (speed > 0) {
+                    long dueNs = startNs + (long) (offsetMs / speed * 1_000_000L);
+                    long waitMs = (dueNs - System.nanoTime()) / 1_000_000L;
+                    if (waitMs > 0) {
+                        SystemClock.sleep(waitMs);
+                    }
+                }
+
+                RawNotification notification = NotificationListenerService.snapshot(
+                    record.packageName, record.id, wallStart + offsetMs, extras(record), false);
+                if (notification == null) {
+                    filtered++;
+                    continue;
+                }
+                synchronized (lock) {
+                    inFlight.put(notification, new Submitted(System.nanoTime(), record.expenseKey));
+                }
+                NotificationQueue.OfferResult result = pipeline.submit(notification);
+                if (result == NotificationQueue.OfferResult.COALESCED) {
+                    coalesced++;
+                } else if (result == NotificationQueue.OfferResult.DROPPED_OLDEST) {
+                    dropped++;
+                }
+            }
+            long submittedNs = System.nanoTime() - startNs;
+
+            // Cada notificação substituída na fila ou descartada some sem ser processada
+            int expected = records.size() - filtered - coalesced - dropped;
+            awaitProcessed(expected);
+            long processedNs = System.nanoTime() - startNs;
+
+            // Despesas, preferências e estado do pipeline gravados antes de contar as escritas em disco
+            awaitPendingCommit(store);
+            prefs.flush();
+            pipeline.flush();
+
+            writeReport(records.size(), filtered, coalesced, dropped, expectedKeys, submittedNs, processedNs,
+                pipeline.getDiskWriteCount() - processorWritesBefore,
+                store.getCommitCount() - pendingCommitsBefore,
+                prefs.getCommitCount() - prefsCommitsBefore,
+                uploader.getSkippedCount() - skippedUploadsBefore);
+        } finally {
+            pipeline.setObserver(null);
+            uploader.setSuspended(false);
+        }
+    }
+
+    private List<Record> readStream() throws IOException, JSONException {
+        List<Record> records = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(streamFile), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.trim().isEmpty()) {
+                    records.add(new Record(new JSONObject(line), lineNumber));
+                }
+            }
+        }
+        return records;
+    }
+
+    private static Bundle extras(Record record) {
+        Bundle extras = new Bundle();
+        extras.putString("android.title", record.title);
+        extras.putCharSequence("android.text", record.text);
+        extras.putCharSequence("android.bigText", record.bigText);
+        return extras;
+    }
+
+    private void awaitProcessed(int expected) {
+        long deadline = SystemClock.elapsedRealtime() + DRAIN_TIMEOUT_MS;
+        synchronized (lock) {
+            while (processed < expected) {
+                long remaining = deadline - SystemClock.elapsedRealtime();
+                if (remaining <= 0) {
+                    BudgetLog.w(TAG, "⚠️ Tempo esgotado: {}/{} notificações processadas", processed, expected);
+                    return;
+                }
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void awaitPendingCommit(PendingExpenseStore store) {
+        final CountDownLatch committed = new CountDownLatch(1);
+        store.afterCommit(new Runnable() {
+            @Override
+            public void run() {
+                committed.countDown();
+            }
+        });
+        try {
+            committed.await(DRAIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeReport(int total, int filtered, int coalesced, int dropped, List<String> expectedKeys,
+                             long submittedNs, long processedNs, long processorWrites,
+                             long pendingCommits, long prefsCommits, int skippedUploads)
+            throws IOException, JSONException {
+        JSONObject report = new JSONObject();
+        synchronized (lock) {
+            report.put("stream", streamFile.getName());
+            report.put("speed", speed > 0 ? speed + "x" : "max");
+            report.put("notifications", total);
+            report.put("filtered", filtered);
+            report.put("coalesced", coalesced);
+            report.put("queueDropped", dropped);
+            report.put("processed", processed);
+            report.put("unfinished", inFlight.size() - coalesced - dropped);
+
+            JSONObject outcomeCounts = new JSONObject();
+            for (NotificationPipeline.Outcome outcome : NotificationPipeline.Outcome.values()) {
+                outcomeCounts.put(outcome.name(), outcomes[outcome.ordinal()]);
+            }
+            report.put("outcomes", outcomeCounts);
+
+            // Chaves de compra sem nenhuma despesa (perdidas) ou com mais de uma (duplicadas)
+            int lost = 0;
+            int duplicated = 0;
+            for (String key : expectedKeys) {
+                Integer count = expensesByKey.get(key);
+                if (count == null) {
+                    lost++;
+                } else if (count > 1) {
+                    duplicated += count - 1;
+                }
+            }
+            JSONObject expenses = new JSONObject();
+            expenses.put("expected", expectedKeys.size());
+            expenses.put("lost", lost);
+            expenses.put("duplicated", duplicated);
+            report.put("expenses", expenses);
+
+            long[] sorted = Arrays.copyOf(latenciesNs, processed);
+            Arrays.sort(sorted);
+            JSONObject latency = new JSONObject();
+            latency.put("p50", millis(percentile(sorted, 0.50)));
+            latency.put("p90", millis(percentile(sorted, 0.90)));
+            latency.put("p99", millis(percentile(sorted, 0.99)));
+            latency.put("max", millis(sorted.length > 0 ? sorted[sorted.length - 1] : 0));
+            report.put("latencyMs", latency);
+        }
+
+        report.put("submitMs", millis(submittedNs));
+        report.put("totalMs", millis(processedNs));
+        report.put("notificationsPerSecond", processedNs > 0 ? Math.round(total * 1e9 / processedNs) : 0);
+
+        JSONObject disk = new JSONObject();
+        disk.put("processor", processorWrites);
+        disk.put("pendingCommits", pendingCommits);
+        disk.put("preferenceCommits", prefsCommits);
+        disk.put("total", processorWrites + pendingCommits + prefsCommits);
+        report.put("diskWrites", disk);
+        report.put("skippedUploads", skippedUploads);
+
+        File reportFile = new File(streamFile.getParentFile(), REPORT_FILE);
+        try (OutputStream out = new FileOutputStream(reportFile)) {
+            out.write(report.toString(2).getBytes(StandardCharsets.UTF_8));
+        }
+
+        BudgetLog.i(TAG, "✅ Replay concluído: {}", report);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
@@ -0,0 +1,259 @@
+package com.budgetsystem.app.network;
+
+import android.content.Context;
+import com.budgetsystem.app.parsing.BrlAmountParser;
+import com.budgetsystem.app.utils.BudgetLog;
+import com.budgetsystem.app.utils.Constants;
+import com.budgetsystem.app.utils.ExpenseIdGenerator;
+import com.budgetsystem.app.utils.PipelineMetrics;
+import com.budgetsystem.app.utils.PreferencesManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Envia despesas detectadas para a Cloud Function sendExpenseNotification em lotes.
+ *
+ * - Agrupa as despesas por até {@link Constants#UPLOAD_BATCH_WINDOW_MS} ou
+ *   {@link Constants#UPLOAD_BATCH_MAX_ITEMS} itens e faz um único POST com o array.
+ * - Pool fixo e pequeno de threads (sem new Thread por despesa).
+ * - Conexões HTTP keep-alive: a resposta é sempre lida até o fim e a conexão não é
+ *   desconectada, para o HttpURLConnection reaproveitar o socket.
+ * - Retry com backoff exponencial e jitter para falhas de rede, 429 e 5xx. Cada despesa leva
+ *   "expenseId", então a Cloud Function ignora as que já recebeu e o retry é seguro.
+ */
+public final class ExpenseUploader {
+    private static final String TAG = "ExpenseUploader";
+
+    private static ExpenseUploader instance;
+
+    private final Context context;
+    private final ScheduledExecutorService executor;
+    private final Random random = new Random();
+
+    // Lote em formação (protegido por lock)
+    private final Object lock = new Object();
+    private List<JSONObject> pendingBatch = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    // Suspenso durante o replay de notificações gravadas (não envia push de teste ao usuário)
+    private volatile boolean suspended;
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    private ExpenseUploader(Context context) {
+        this.context = context.getApplicationContext();
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(
+            Constants.UPLOAD_WORKER_THREADS, new UploaderThreadFactory());
+        pool.setRemoveOnCancelPolicy(true);
+        this.executor = pool;
+    }
+
+    public static synchronized ExpenseUploader getInstance(Context context) {
+        if (instance == null) {
+            instance = new ExpenseUploader(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Adiciona uma despesa ao lote atual. Nunca bloqueia.
+     */
+    public void enqueue(long expenseId, String bank, long amountCents, String description, String category) {
+        if (suspended) {
+            skipped.incrementAndGet();
+            return;
+        }
+        JSONObject expense = new JSONObject();
+        try {
+            expense.put("expenseId", ExpenseIdGenerator.format(expenseId));
+            expense.put("amount", BrlAmountParser.toReais(amountCents));
+            expense.put("amountCents", amountCents);
+            expense.put("bank", bank);
+            expense.put("description", description);
+            expense.put("category", category);
+        } catch (JSONException e) {
+            BudgetLog.e(TAG, "❌ Erro ao montar despesa: {}", e.getMessage());
+            return;
+        }
+
+        synchronized (lock) {
+            pendingBatch.add(expense);
+            if (pendingBatch.size() >= Constants.UPLOAD_BATCH_MAX_ITEMS) {
+                flushLocked();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = executor.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        flush();
+                    }
+                }, Constants.UPLOAD_BATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Suspende (ou retoma) os envios. Enquanto suspenso, {@link #enqueue} descarta as despesas.
+     */
+    public void setSuspended(boolean suspended) {
+        this.suspended = suspended;
+    }
+
+    /**
+     * Despesas descartadas enquanto suspenso.
+     */
+    public int getSkippedCount() {
+        return skipped.get();
+    }
+
+    /**
+     * Envia imediatamente o lote em formação, se houver.
+     */
+    public void flush() {
+        synchronized (lock) {
+            flushLocked();
+        }
+    }
+
+    private void flushLocked() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (pendingBatch.isEmpty()) {
+            return;
+        }
+
+        final List<JSONObject> batch = pendingBatch;
+        pendingBatch = new ArrayList<>();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                send(batch, 1);
+            }
+        });
+    }
+
+    private void send(final List<JSONObject> batch, final int attempt) {
+        // userId salvo quando o usuário faz login; pelo PreferencesManager para enxergar
+        // um login ainda na janela do write-behind
+        String userId = PreferencesManager.getString(context, Constants.PREFS_BUDGET, Constants.KEY_USER_ID, null);
+        if (userId == null) {
+            BudgetLog.w(TAG, "⚠️ UserId não encontrado, descartando lote de {} despesa(s)", batch.size());
+            return;
+        }
+
+        int responseCode;
+        try {
+            JSONObject body = new JSONObject();
+            body.put("userId", userId);
+            body.put("expenses", new JSONArray(batch));
+            long start = System.nanoTime();
+            responseCode = post(Constants.FUNCTION_SEND_EXPENSE_NOTIFICATION, body.toString());
+            PipelineMetrics.record(PipelineMetrics.Stage.UPLOAD, start);
+        } catch (IOException | JSONException e) {
+            BudgetLog.w(TAG, "⚠️ Falha ao enviar lote (tentativa {}): {}", attempt, e.getMessage());
+            responseCode = -1;
+        }
+
+        if (responseCode >= 200 && responseCode < 300) {
+            BudgetLog.d(TAG, "✅ Lote de {} despesa(s) enviado", batch.size());
+            return;
+        }
+
+        boolean retriable = responseCode == -1 || responseCode == 429 || responseCode >= 500;
+        if (!retriable || attempt >= Constants.UPLOAD_MAX_ATTEMPTS) {
+            BudgetLog.e(TAG, "❌ Lote descartado após {} tentativa(s), último status: {}", attempt, responseCode);
+            return;
+        }
+
+        long delay = backoffDelay(attempt);
+        BudgetLog.d(TAG, "🔁 Nova tentativa em {}ms (status {})", delay, responseCode);
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                send(batch, attempt + 1);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Backoff exponencial com "full jitter": aleatório entre 0 e base * 2^(tentativa - 1),
+     * limitado a {@link Constants#UPLOAD_RETRY_MAX_DELAY_MS}.
+     */
+    private long backoffDelay(int attempt) {
+        long ceiling = Math.min(
+            Constants.UPLOAD_RETRY_MAX_DELAY_MS,
+            Constants.UPLOAD_RETRY_BASE_DELAY_MS << Math.min(attempt - 1, 20));
+        synchronized (random) {
+            return 1 + (long) (random.nextDouble() * ceiling);
+        }
+    }
+
+    /**
+     * Faz o POST e devolve o status HTTP. Lê e fecha a resposta (sem disconnect) para
+     * que a conexão volte ao pool de keep-alive.
+     */
+    private static int post(String endpoint, String json) throws IOException {
+        byte[] payload = json.getBytes(StandardCharsets.UTF_8);
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(endpoint).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(payload.length);
+        connection.setConnectTimeout(Constants.HTTP_TIMEOUT_MS);
+        connection.setReadTimeout(Constants.HTTP_TIMEOUT_MS);
+
+        OutputStream os = connection.getOutputStream();
+        try {
+            os.write(payload);
+        } finally {
+            os.close();
+        }
+
+        int responseCode = connection.getResponseCode();
+        InputStream is = responseCode >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (is != null) {
+            drain(is);
+        }
+        return responseCode;
+    }
+
+    private static void drain(InputStream is) throws IOException {
+        try {
+            byte[] buffer = new byte[512];
+            while (is.read(buffer) != -1) {
+                // Descarta: só precisamos consumir a resposta
+            }
+        } finally {
+            is.close();
+        }
+    }
+
+    private static final class UploaderThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ExpenseUploader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    }
+}
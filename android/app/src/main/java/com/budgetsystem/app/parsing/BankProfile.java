@@ -0,0 +1,45 @@
+package com.budgetsystem.app.parsing;
+
+import java.util.regex.Pattern;
+
+/**
+ * Templates de texto de um banco específico.
+ *
+ * Cada banco usa poucos formatos fixos de notificação. Um perfil guarda só esses formatos,
+ * pré-compilados, e o {@link NotificationParser} tenta eles antes da cascata genérica.
+ * Imutável e compartilhado entre threads; os Matchers ficam no parser (ver {@link Template#id}).
+ */
+public final class BankProfile {
+
+    /**
+     * Um formato de notificação: o grupo 1 do padrão é o nome do comércio/destinatário.
+     * Os padrões rodam sobre o texto completo em minúsculas.
+     */
+    public static final class Template {
+        final int id;
+        final Pattern pattern;
+        final String descriptionPrefix;
+
+        Template(int id, String regex, String descriptionPrefix) {
+            this.id = id;
+            this.pattern = Pattern.compile(regex);
+            this.descriptionPrefix = descriptionPrefix;
+        }
+    }
+
+    private final String bank;
+    private final Template[] templates;
+
+    BankProfile(String bank, Template[] templates) {
+        this.bank = bank;
+        this.templates = templates;
+    }
+
+    public String getBank() {
+        return bank;
+    }
+
+    Template[] getTemplates() {
+        return templates;
+    }
+}
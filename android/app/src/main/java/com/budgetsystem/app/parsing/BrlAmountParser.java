@@ -0,0 +1,208 @@
+package com.budgetsystem.app.parsing;
+
+/**
+ * Parser de valores em reais direto de um CharSequence para centavos (long), sem criar Strings
+ * intermediárias nem passar por double.
+ *
+ * Formatos aceitos após "R$" (maiúsculo ou minúsculo, com ou sem espaço):
+ * - "R$ 1.234,56", "R$1234,56", "R$ 1234,5", "R$ 50"
+ * - Negativos: "-R$ 10,00", "R$ -10,00"
+ * - Estorno: se o texto fala em estorno ("estorno", "estornada", ...), o valor volta negativo
+ *
+ * Separadores: vírgula ou ponto seguidos de 1 ou 2 dígitos são decimais; seguidos de
+ * exatamente 3 dígitos são separadores de milhar.
+ */
+public final class BrlAmountParser {
+
+    /**
+     * Retornado quando não há valor em reais no texto.
+     */
+    public static final long NOT_FOUND = Long.MIN_VALUE;
+
+    private static final long MAX_UNITS = Long.MAX_VALUE / 1000;
+
+    private BrlAmountParser() {
+        // Classe utilitária - não instanciar
+    }
+
+    /**
+     * Primeiro valor "R$ ..." do texto, em centavos (negativo para débito estornado/negativo).
+     *
+     * @return Centavos, ou {@link #NOT_FOUND}
+     */
+    public static long parseCents(CharSequence text) {
+        if (text == null) {
+            return NOT_FOUND;
+        }
+
+        int length = text.length();
+        for (int i = 0; i + 1 < length; i++) {
+            char c = text.charAt(i);
+            if ((c != 'R' && c != 'r') || text.charAt(i + 1) != '$') {
+                continue;
+            }
+
+            boolean negative = hasMinusBefore(text, i);
+            int pos = skipSpaces(text, i + 2);
+            if (pos < length && text.charAt(pos) == '-') {
+                negative = true;
+                pos = skipSpaces(text, pos + 1);
+            }
+
+            long cents = parseNumber(text, pos, length);
+            if (cents == NOT_FOUND) {
+                continue;
+            }
+            if (negative || containsIgnoreCase(text, "estorn")) {
+                cents = -cents;
+            }
+            return cents;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Valor sem "R$" (ex: "123.45", "123,45", "1.234,56", "50"), em centavos.
+     *
+     * @return Centavos, ou {@link #NOT_FOUND} se o texto não for um número
+     */
+    public static long parsePlainCents(CharSequence text) {
+        if (text == null) {
+            return NOT_FOUND;
+        }
+
+        int length = text.length();
+        int pos = skipSpaces(text, 0);
+        boolean negative = false;
+        if (pos < length && text.charAt(pos) == '-') {
+            negative = true;
+            pos = skipSpaces(text, pos + 1);
+        }
+
+        int[] end = new int[1];
+        long cents = parseNumber(text, pos, length, end);
+        if (cents == NOT_FOUND || skipSpaces(text, end[0]) != length) {
+            return NOT_FOUND;
+        }
+        return negative ? -cents : cents;
+    }
+
+    /**
+     * Centavos para reais (para o JSON do JavaScript, que usa amount em reais).
+     */
+    public static double toReais(long cents) {
+        return cents / 100.0;
+    }
+
+    // ==================== INTERNOS ====================
+
+    private static long parseNumber(CharSequence text, int start, int limit) {
+        return parseNumber(text, start, limit, null);
+    }
+
+    /**
+     * Lê dígitos com separadores de milhar/decimal a partir de start.
+     *
+     * @param endOut Se não for null, recebe a posição logo após o número
+     */
+    private static long parseNumber(CharSequence text, int start, int limit, int[] endOut) {
+        if (start >= limit || !isDigit(text.charAt(start))) {
+            return NOT_FOUND;
+        }
+
+        long units = 0;
+        int pos = start;
+        while (true) {
+            // Sequência de dígitos
+            while (pos < limit && isDigit(text.charAt(pos))) {
+                if (units > MAX_UNITS) {
+                    return NOT_FOUND;
+                }
+                units = units * 10 + (text.charAt(pos) - '0');
+                pos++;
+            }
+
+            if (pos >= limit || (text.charAt(pos) != '.' && text.charAt(pos) != ',')) {
+                break;
+            }
+
+            int digits = countDigits(text, pos + 1, limit, 4);
+            if (digits == 3) {
+                // Separador de milhar: continua nos próximos dígitos
+                pos++;
+                continue;
+            }
+            if (digits == 1 || digits == 2) {
+                int cents = text.charAt(pos + 1) - '0';
+                cents = digits == 2 ? cents * 10 + (text.charAt(pos + 2) - '0') : cents * 10;
+                if (endOut != null) {
+                    endOut[0] = pos + 1 + digits;
+                }
+                return units * 100 + cents;
+            }
+            // Ponto final de frase, vírgula de enumeração etc.: não faz parte do número
+            break;
+        }
+
+        if (endOut != null) {
+            endOut[0] = pos;
+        }
+        return units * 100;
+    }
+
+    /**
+     * Quantos dígitos seguidos a partir de start (até max).
+     */
+    private static int countDigits(CharSequence text, int start, int limit, int max) {
+        int count = 0;
+        while (start + count < limit && count < max && isDigit(text.charAt(start + count))) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Sinal colado no "R$" ("-R$ 10,00"). Com espaço ("Compra aprovada - R$ 10,00")
+     * o traço é pontuação, não sinal.
+     */
+    private static boolean hasMinusBefore(CharSequence text, int index) {
+        if (index == 0) {
+            return false;
+        }
+        char c = text.charAt(index - 1);
+        return c == '-' || c == '\u2212';
+    }
+
+    private static int skipSpaces(CharSequence text, int pos) {
+        int length = text.length();
+        while (pos < length && isSpace(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\u00A0' || Character.isWhitespace(c);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Busca case-insensitive de um termo ASCII minúsculo, sem copiar o texto.
+     */
+    static boolean containsIgnoreCase(CharSequence text, String lowerTerm) {
+        int last = text.length() - lowerTerm.length();
+        for (int i = 0; i <= last; i++) {
+            int j = 0;
+            while (j < lowerTerm.length() && Character.toLowerCase(text.charAt(i + j)) == lowerTerm.charAt(j)) {
+                j++;
+            }
+            if (j == lowerTerm.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,473 @@
+package com.budgetsystem.app.parsing;
+
+import com.budgetsystem.app.utils.Constants;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classificador de categoria aprendido no aparelho com as escolhas do usuário.
+ *
+ * Naive Bayes multinomial sobre tokens do nome do comércio, com hashing de tokens
+ * (sem vocabulário): as contagens ficam num único int[] de classes × buckets.
+ * Cada despesa aprovada no app é um exemplo ({@link #learn}); a lista de palavras-chave
+ * continua sendo o fallback quando o modelo não tem confiança.
+ *
+ * Inferência sem alocação: tokens são hasheados direto dos CharSequences para um buffer
+ * reaproveitado. Thread-safe (treino vem do plugin, inferência da thread do pipeline).
+ * O modelo (até ~196KB) é gravado em uma thread própria, uma vez por rajada de correções
+ * ({@link Constants#CLASSIFIER_SAVE_DELAY_MS}); {@link #flush()} grava na hora. A escrita em
+ * disco é feita sobre uma cópia, fora do lock que o predict usa.
+ *
+ * Classes são os nomes dos budgets: {@link #forget} remove um budget apagado/renomeado e, com
+ * {@link #MAX_CLASSES} classes, a classe com menos exemplos dá lugar à nova.
+ * Sem dependência do Android (roda na JVM dos benchmarks).
+ */
+public final class CategoryClassifier {
+    private static final String MODEL_FILE_NAME = "category_model.bin";
+    private static final int FILE_MAGIC = 0x42534331; // "BSC1"
+
+    // Buckets de hash (potência de 2) e máximo de categorias distintas
+    static final int BUCKETS = 2048;
+    static final int MAX_CLASSES = 24;
+    private static final int MAX_TOKENS = 32;
+
+    // Suavização de Laplace e confiança mínima (probabilidade a posteriori da melhor classe)
+    private static final double ALPHA = 0.5;
+    private static final double MIN_CONFIDENCE = 0.6;
+
+    // Tokens genéricos das descrições montadas pelo parser (não dizem nada da categoria)
+    private static final String[] STOP_WORDS = {
+        "compra", "para", "pix", "pagamento", "recebido", "gasto", "com", "cartão", "final"
+    };
+
+    private static CategoryClassifier instance;
+    private static ScheduledThreadPoolExecutor saveExecutor;
+
+    // counts[classe * BUCKETS + bucket] = ocorrências do token na classe
+    private final int[] counts = new int[MAX_CLASSES * BUCKETS];
+    private final int[] classTokens = new int[MAX_CLASSES];
+    private final int[] classExamples = new int[MAX_CLASSES];
+    private final String[] classNames = new String[MAX_CLASSES];
+    private int classCount;
+    private int totalExamples;
+
+    // Buffers reaproveitados (protegidos pelo lock do objeto)
+    private final int[] tokenBuffer = new int[MAX_TOKENS];
+    private final double[] scoreBuffer = new double[MAX_CLASSES];
+    private final int[] stopWordHashes;
+
+    File file;
+    // Exemplos ainda não gravados e gravação agendada (protegidos pelo lock do objeto)
+    private boolean dirty;
+    private ScheduledFuture<?> scheduledSave;
+
+    // Uma gravação por vez, para uma cópia antiga não sobrescrever uma mais nova
+    private final Object saveLock = new Object();
+
+    CategoryClassifier() {
+        stopWordHashes = new int[STOP_WORDS.length];
+        for (int i = 0; i < STOP_WORDS.length; i++) {
+            stopWordHashes[i] = hashToken(STOP_WORDS[i], 0, STOP_WORDS[i].length());
+        }
+    }
+
+    /**
+     * Classificador do processo, carregado do disco na primeira chamada.
+     *
+     * @param filesDir diretório de arquivos do app (Context.getFilesDir())
+     */
+    public static synchronized CategoryClassifier getInstance(File filesDir) {
+        if (instance == null) {
+            CategoryClassifier classifier = new CategoryClassifier();
+            classifier.file = new File(filesDir, MODEL_FILE_NAME);
+            try {
+                classifier.load(classifier.file);
+            } catch (IOException e) {
+                // Modelo inválido: começa do zero
+                classifier.reset();
+            }
+            instance = classifier;
+        }
+        return instance;
+    }
+
+    /**
+     * Categoria prevista para o texto, ou null se o modelo não tem confiança suficiente
+     * (sem exemplos, nenhum token conhecido ou classes empatadas).
+     */
+    public synchronized String predict(CharSequence text) {
+        if (classCount == 0 || text == null) {
+            return null;
+        }
+        int tokens = tokenize(text);
+        if (tokens == 0) {
+            return null;
+        }
+
+        // Log-probabilidade de cada classe; evidência = algum token já visto na classe
+        int best = -1;
+        boolean bestHasEvidence = false;
+        for (int c = 0; c < classCount; c++) {
+            scoreBuffer[c] = Double.NEGATIVE_INFINITY;
+            if (classExamples[c] == 0) {
+                continue;
+            }
+            double denominator = classTokens[c] + ALPHA * BUCKETS;
+            double score = Math.log((double) classExamples[c] / totalExamples);
+            boolean evidence = false;
+            int base = c * BUCKETS;
+            for (int t = 0; t < tokens; t++) {
+                int count = counts[base + tokenBuffer[t]];
+                if (count > 0) {
+                    evidence = true;
+                }
+                score += Math.log((count + ALPHA) / denominator);
+            }
+            scoreBuffer[c] = score;
+            if (best < 0 || score > scoreBuffer[best]) {
+                best = c;
+                bestHasEvidence = evidence;
+            }
+        }
+        if (best < 0 || !bestHasEvidence) {
+            return null;
+        }
+
+        // Probabilidade a posteriori da melhor classe: 1 / soma(exp(score_c - score_melhor))
+        double sum = 0;
+        for (int c = 0; c < classCount; c++) {
+            sum += Math.exp(scoreBuffer[c] - scoreBuffer[best]);
+        }
+        return 1.0 / sum >= MIN_CONFIDENCE ? classNames[best] : null;
+    }
+
+    /**
+     * Registra a categoria escolhida pelo usuário para o texto (nome do comércio ou descrição)
+     * e agenda a gravação do modelo (não grava na thread chamadora).
+     *
+     * @return false se não foi possível aprender (texto sem tokens)
+     */
+    public synchronized boolean learn(String text, String category) {
+        boolean learned = train(text, category);
+        if (learned) {
+            markDirtyLocked();
+        }
+        return learned;
+    }
+
+    /**
+     * Esquece uma categoria (budget apagado ou renomeado): ela não é mais prevista e libera
+     * o espaço para outra. Agenda a gravação do modelo.
+     *
+     * @return false se a categoria não era conhecida
+     */
+    public synchronized boolean forget(String category) {
+        int c = findClass(category);
+        if (c < 0) {
+            return false;
+        }
+        removeClass(c);
+        markDirtyLocked();
+        return true;
+    }
+
+    /**
+     * Grava agora, na thread chamadora, os exemplos ainda não gravados (chamar em onDestroy).
+     */
+    public void flush() {
+        synchronized (this) {
+            if (scheduledSave != null) {
+                scheduledSave.cancel(false);
+                scheduledSave = null;
+            }
+            if (!dirty || file == null) {
+                return;
+            }
+            dirty = false;
+        }
+        try {
+            save(file);
+        } catch (IOException e) {
+            synchronized (this) {
+                // Os exemplos ficam no modelo em memória; o próximo learn tenta gravar de novo
+                dirty = true;
+            }
+        }
+    }
+
+    /**
+     * {@link #flush()} do classificador do processo, se já foi carregado.
+     */
+    public static void flushInstance() {
+        CategoryClassifier classifier;
+        synchronized (CategoryClassifier.class) {
+            classifier = instance;
+        }
+        if (classifier != null) {
+            classifier.flush();
+        }
+    }
+
+    private void markDirtyLocked() {
+        if (file == null) {
+            return;
+        }
+        dirty = true;
+        if (scheduledSave != null) {
+            return;
+        }
+        scheduledSave = saveExecutor().schedule(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, Constants.CLASSIFIER_SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private static synchronized ScheduledThreadPoolExecutor saveExecutor() {
+        if (saveExecutor == null) {
+            saveExecutor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "CategoryClassifierSave");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            saveExecutor.setRemoveOnCancelPolicy(true);
+        }
+        return saveExecutor;
+    }
+
+    synchronized boolean train(String text, String category) {
+        if (text == null || category == null || category.isEmpty()) {
+            return false;
+        }
+        int tokens = tokenize(text);
+        if (tokens == 0) {
+            return false;
+        }
+        int c = classIndex(category);
+        if (c < 0) {
+            return false;
+        }
+        int base = c * BUCKETS;
+        for (int t = 0; t < tokens; t++) {
+            counts[base + tokenBuffer[t]]++;
+        }
+        classTokens[c] += tokens;
+        classExamples[c]++;
+        totalExamples++;
+        return true;
+    }
+
+    public synchronized int getExampleCount() {
+        return totalExamples;
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(classTokens, 0);
+        Arrays.fill(classExamples, 0);
+        Arrays.fill(classNames, null);
+        classCount = 0;
+        totalExamples = 0;
+    }
+
+    // ==================== TOKENS ====================
+
+    /**
+     * Quebra o texto em tokens (letras/dígitos, >= 3 caracteres, não só dígitos, fora das
+     * stop words) e guarda o bucket de cada um em tokenBuffer.
+     *
+     * @return Quantidade de tokens
+     */
+    private int tokenize(CharSequence text) {
+        int tokens = 0;
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length && tokens < MAX_TOKENS; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                int bucket = bucketFor(text, start, i);
+                if (bucket >= 0) {
+                    tokenBuffer[tokens++] = bucket;
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private int bucketFor(CharSequence text, int start, int end) {
+        if (end - start < 3) {
+            return -1;
+        }
+        boolean hasLetter = false;
+        for (int i = start; i < end && !hasLetter; i++) {
+            hasLetter = Character.isLetter(text.charAt(i));
+        }
+        if (!hasLetter) {
+            // Valores, finais de cartão, datas
+            return -1;
+        }
+        int hash = hashToken(text, start, end);
+        for (int stopWord : stopWordHashes) {
+            if (hash == stopWord) {
+                return -1;
+            }
+        }
+        return (hash ^ (hash >>> 16)) & (BUCKETS - 1);
+    }
+
+    /**
+     * FNV-1a 32 bits do token em minúsculas.
+     */
+    private static int hashToken(CharSequence text, int start, int end) {
+        int hash = 0x811c9dc5;
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ Character.toLowerCase(text.charAt(i))) * 0x01000193;
+        }
+        return hash;
+    }
+
+    private int findClass(String category) {
+        for (int c = 0; c < classCount; c++) {
+            if (classNames[c].equals(category)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Índice da categoria, criando a classe se preciso. Sem espaço, a classe com menos
+     * exemplos (provavelmente um budget que não existe mais) é descartada.
+     */
+    private int classIndex(String category) {
+        int c = findClass(category);
+        if (c >= 0) {
+            return c;
+        }
+        if (classCount == MAX_CLASSES) {
+            int weakest = 0;
+            for (int i = 1; i < classCount; i++) {
+                if (classExamples[i] < classExamples[weakest]) {
+                    weakest = i;
+                }
+            }
+            removeClass(weakest);
+        }
+        classNames[classCount] = category;
+        return classCount++;
+    }
+
+    /**
+     * Remove a classe c movendo a última para o lugar dela.
+     */
+    private void removeClass(int c) {
+        int last = classCount - 1;
+        totalExamples -= classExamples[c];
+        if (c != last) {
+            System.arraycopy(counts, last * BUCKETS, counts, c * BUCKETS, BUCKETS);
+            classTokens[c] = classTokens[last];
+            classExamples[c] = classExamples[last];
+            classNames[c] = classNames[last];
+        }
+        Arrays.fill(counts, last * BUCKETS, (last + 1) * BUCKETS, 0);
+        classTokens[last] = 0;
+        classExamples[last] = 0;
+        classNames[last] = null;
+        classCount = last;
+    }
+
+    // ==================== PERSISTÊNCIA ====================
+
+    /**
+     * Salva o modelo. Só as linhas de classes existentes. Escrita atômica: temporário + rename.
+     * O lock do objeto só é usado para copiar o modelo; a escrita em disco não bloqueia o predict.
+     */
+    void save(File target) throws IOException {
+        synchronized (saveLock) {
+            int classes;
+            String[] names;
+            int[] examples;
+            int[] tokens;
+            int[] snapshot;
+            synchronized (this) {
+                classes = classCount;
+                names = Arrays.copyOf(classNames, classes);
+                examples = Arrays.copyOf(classExamples, classes);
+                tokens = Arrays.copyOf(classTokens, classes);
+                snapshot = Arrays.copyOf(counts, classes * BUCKETS);
+            }
+
+            File temp = new File(target.getPath() + ".tmp");
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            try {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(BUCKETS);
+                out.writeInt(classes);
+                for (int c = 0; c < classes; c++) {
+                    out.writeUTF(names[c]);
+                    out.writeInt(examples[c]);
+                    out.writeInt(tokens[c]);
+                    int base = c * BUCKETS;
+                    for (int b = 0; b < BUCKETS; b++) {
+                        out.writeInt(snapshot[base + b]);
+                    }
+                }
+            } finally {
+                out.close();
+            }
+            if (!temp.renameTo(target)) {
+                throw new IOException("Falha ao substituir " + target.getName());
+            }
+        }
+    }
+
+    synchronized void load(File source) throws IOException {
+        reset();
+        if (!source.exists()) {
+            return;
+        }
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(source)));
+        try {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != BUCKETS) {
+                throw new IOException("Formato de modelo desconhecido");
+            }
+            int classes = in.readInt();
+            if (classes < 0 || classes > MAX_CLASSES) {
+                throw new IOException("Quantidade de classes inválida: " + classes);
+            }
+            for (int c = 0; c < classes; c++) {
+                classNames[c] = in.readUTF();
+                classExamples[c] = in.readInt();
+                classTokens[c] = in.readInt();
+                int base = c * BUCKETS;
+                for (int b = 0; b < BUCKETS; b++) {
+                    counts[base + b] = in.readInt();
+                }
+                totalExamples += classExamples[c];
+            }
+            classCount = classes;
+        } finally {
+            in.close();
+        }
+    }
+}
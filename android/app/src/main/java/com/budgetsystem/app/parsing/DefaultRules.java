@@ -0,0 +1,148 @@
+package com.budgetsystem.app.parsing;
+
+/**
+ * Regras embutidas no APK: a base contra a qual o arquivo baixado e o asset são comparados.
+ * Um arquivo só substitui estas regras se tiver versão maior que {@link #VERSION}.
+ */
+public final class DefaultRules {
+
+    // Aumentar a cada mudança nas regras abaixo, para um arquivo baixado antigo não
+    // sobrepor as regras de um APK mais novo
+    public static final int VERSION = 1;
+
+    // Trecho comum: valor "r$ 1.234,56" (o valor em si é lido pelo BrlAmountParser)
+    private static final String VALUE = "r\\$\\s*[0-9.,]+";
+
+    // Nome até ponto final, vírgula, "no valor", outro valor ou fim do texto
+    private static final String NAME = "([^\\n\\r.,]+?)";
+    private static final String NAME_END = "(?:\\s*(?:\\.|,|no valor|r\\$|$))";
+
+    private DefaultRules() {
+        // Classe utilitária - não instanciar
+    }
+
+    public static RuleSpec spec() {
+        RuleSpec spec = new RuleSpec(VERSION);
+
+        // ==================== DETECÇÃO ====================
+
+        spec.detection("transferência", "pix", "compra", "débito", "crédito",
+            "pagamento", "recebeu", "r$", "real", "reais");
+
+        // ==================== CATEGORIAS ====================
+
+        // Em ordem de prioridade.
+        // IMPORTANTE: Pix/Transferência ANTES de transporte para evitar falsos positivos
+        spec.category("Transferência", "pix", "transferência", "transferencia")
+            .category("Contas", "boleto", "pagamento de fatura")
+            .category("Alimentação", "alimentação", "restaurante", "ifood", "uber eats", "rappi")
+            .category("Transporte", "transporte", "uber", "99", "gasolina", "estacionamento")
+            .category("Mercado", "mercado", "supermercado")
+            .category("Saúde", "farmácia", "farmacia", "saúde", "hospital", "médico", "medico")
+            .category("Contas", "conta", "luz", "água", "internet", "energia");
+
+        // ==================== PACKAGES ====================
+
+        // Bancos digitais
+        spec.prefixPackage("com.nu.production", "Nubank")
+            .prefixPackage("com.picpay", "PicPay")
+            .prefixPackage("br.com.intermedium", "Banco Inter")
+            .prefixPackage("br.com.bancointer", "Banco Inter")
+            .prefixPackage("com.c6bank", "C6 Bank")
+            .prefixPackage("br.com.bradesco.next", "Next")
+            .prefixPackage("br.com.neon", "Neon")
+            .prefixPackage("br.com.original", "Banco Original")
+            .prefixPackage("com.mercadopago", "Mercado Pago")
+            .prefixPackage("br.com.uol.ps", "PagSeguro")
+            .prefixPackage("com.itau.iti", "Iti")
+            .prefixPackage("br.com.itau.iti", "Iti");
+
+        // Bancos tradicionais
+        spec.prefixPackage("com.itau", "Itaú")
+            .prefixPackage("br.com.itau", "Itaú")
+            .prefixPackage("com.bradesco", "Bradesco")
+            .prefixPackage("br.com.bradesco", "Bradesco")
+            .prefixPackage("com.santander", "Santander")
+            .prefixPackage("br.com.santander", "Santander")
+            .prefixPackage("br.com.gabba.caixa", "Caixa")
+            .prefixPackage("br.gov.caixa", "Caixa")
+            .prefixPackage("br.com.bb", "Banco do Brasil")
+            .prefixPackage("com.btg", "BTG Pactual");
+
+        // Carteiras digitais
+        spec.prefixPackage("com.paypal", "PayPal")
+            .prefixPackage("com.samsung.android.spay", "Samsung Pay")
+            .prefixPackage("com.google.android.apps.nbu", "Google Pay")
+            .prefixPackage("com.google.android.apps.walletnfcrel", "Google Pay");
+
+        // Mensageiros com pagamento
+        spec.exactPackage("com.whatsapp", "WhatsApp")
+            .exactPackage("com.whatsapp.w4b", "WhatsApp");
+
+        // Fallback por segmento (chaves curtas só como segmento inteiro)
+        spec.segmentKeywords("Nubank", "nubank", "nu")
+            .segmentKeywords("PicPay", "picpay")
+            .segmentKeywords("Banco Inter", "inter", "bancointer")
+            .segmentKeywords("C6 Bank", "c6bank")
+            .segmentKeywords("Next", "next")
+            .segmentKeywords("Neon", "neon")
+            .segmentKeywords("Banco Original", "original")
+            .segmentKeywords("Modal", "modal")
+            .segmentKeywords("Will Bank", "will", "willbank")
+            .segmentKeywords("99Pay", "99pay")
+            .segmentKeywords("Mercado Pago", "mercadopago")
+            .segmentKeywords("PagSeguro", "pagseguro")
+            .segmentKeywords("Iti", "iti")
+            .segmentKeywords("Itaú", "itau")
+            .segmentKeywords("Bradesco", "bradesco")
+            .segmentKeywords("Santander", "santander")
+            .segmentKeywords("Caixa", "caixa")
+            .segmentKeywords("Banco do Brasil", "bb", "bancodobrasil", "bancobrasil")
+            .segmentKeywords("Sicoob", "sicoob")
+            .segmentKeywords("Sicredi", "sicredi")
+            .segmentKeywords("Safra", "safra")
+            .segmentKeywords("BTG Pactual", "btg")
+            .segmentKeywords("Ame Digital", "ame")
+            .segmentKeywords("PayPal", "paypal")
+            .segmentKeywords("RecargaPay", "recargapay")
+            .segmentKeywords("Samsung Pay", "spay")
+            .segmentKeywords("Google Pay", "gpay");
+
+        // ==================== TEMPLATES POR BANCO ====================
+
+        // "Compra de R$ 25,90 APROVADA em PADARIA para o cartão com final 1234."
+        // "Você enviou uma transferência de R$ 50,00 para FULANO."
+        spec.templates("Nubank",
+            "aprovada\\s+em\\s+" + NAME + "\\s+para\\s+o\\s+cartão", "Compra em ",
+            "transferência\\s+de\\s+" + VALUE + "\\s+para\\s+" + NAME + NAME_END, "Pix para ");
+
+        // "Compra aprovada no cartão final 1234 de R$ 120,00 em LOJA X."
+        spec.templates("Itaú",
+            "cartão\\s+final\\s+\\d{4}\\s+de\\s+" + VALUE + "\\s+em\\s+" + NAME + NAME_END, "Compra em ",
+            "pix\\s+enviado\\s+de\\s+" + VALUE + "\\s+para\\s+" + NAME + NAME_END, "Pix para ");
+
+        // "Compra no débito aprovada: R$ 30,00 em LOJA X"
+        spec.templates("Banco Inter",
+            "compra\\s+no\\s+(?:débito|crédito)\\s+aprovada:\\s*" + VALUE + "\\s+em\\s+" + NAME + NAME_END, "Compra em ",
+            "pix\\s+enviado:\\s*" + VALUE + "\\s+para\\s+" + NAME + NAME_END, "Pix para ");
+
+        // "Compra aprovada no C6 final 1234 - LOJA X - R$ 30,00"
+        spec.templates("C6 Bank",
+            "final\\s+\\d{4}\\s+-\\s+([^\\n\\r]+?)\\s+-\\s+r\\$", "Compra em ");
+
+        // "Você pagou R$ 20,00 para FULANO" / "Pagamento de R$ 20,00 para LOJA aprovado"
+        spec.templates("PicPay",
+            "você\\s+pagou\\s+" + VALUE + "\\s+(?:para|a)\\s+" + NAME + NAME_END, "Para ",
+            "pagamento\\s+de\\s+" + VALUE + "\\s+para\\s+" + NAME + "\\s+aprovado", "Pagamento para ");
+
+        // "Compra aprovada no cartão final 1234, valor R$ 50,00, em LOJA, dia 12/03"
+        spec.templates("Santander",
+            "valor\\s+" + VALUE + ",?\\s+em\\s+" + NAME + NAME_END, "Compra em ");
+
+        // "Compra aprovada CARTAO final 1234 LOJA X valor R$ 50,00"
+        spec.templates("Bradesco",
+            "final\\s+\\d{4}\\s+" + NAME + "\\s+valor\\s+r\\$", "Compra em ");
+
+        return spec;
+    }
+}
@@ -0,0 +1,312 @@
+package com.budgetsystem.app.parsing;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Índice de palavras-chave (Aho-Corasick) que encontra todas as ocorrências em uma única
+ * passada linear sobre o texto, independente de quantas palavras-chave existam.
+ *
+ * Cada palavra-chave pertence a um grupo (ex: uma categoria). Grupos são numerados de 0 a 63
+ * e a ordem numérica define a prioridade: grupo menor = maior prioridade.
+ *
+ * A busca é case-insensitive (Character.toLowerCase por caractere) e trabalha direto sobre
+ * CharSequence, sem alocar. Imutável depois de construído: pode ser compartilhado entre threads.
+ */
+public final class KeywordAutomaton {
+
+    /**
+     * Callback para cada ocorrência encontrada por {@link #scan(CharSequence, MatchListener)}.
+     */
+    public interface MatchListener {
+        /**
+         * @param keywordId Índice da palavra-chave no array passado ao construtor
+         * @param end Posição (exclusiva) do fim da ocorrência no texto
+         * @return false para interromper a busca
+         */
+        boolean onMatch(int keywordId, int end);
+    }
+
+    public static final int MAX_GROUPS = 64;
+
+    private static final int ROOT = 0;
+    private static final int NO_LINK = -1;
+
+    private final String[] keywords;
+    private final int[] keywordGroups;
+
+    // Classes de caractere: 0 = caractere que não aparece em nenhuma palavra-chave
+    private final short[] latinClass = new short[256];
+    private final char[] extraChars;
+    private final short[] extraClasses;
+    private final int alphabetSize;
+
+    // Tabela de transições completa (DFA): delta[state * alphabetSize + charClass]
+    private final int[] delta;
+    // Grupos que terminam neste estado (incluindo via links de falha)
+    private final long[] groupMask;
+    // Palavras-chave que terminam exatamente neste estado
+    private final int[][] ownKeywords;
+    // Próximo estado na cadeia de falha que tem palavras-chave próprias
+    private final int[] dictionaryLink;
+
+    /**
+     * @param keywords Palavras-chave (convertidas para minúsculas)
+     * @param groups Grupo de cada palavra-chave (0..63), mesmo tamanho de keywords
+     */
+    public KeywordAutomaton(String[] keywords, int[] groups) {
+        if (keywords.length != groups.length) {
+            throw new IllegalArgumentException("keywords e groups devem ter o mesmo tamanho");
+        }
+
+        this.keywords = new String[keywords.length];
+        this.keywordGroups = groups.clone();
+
+        // 1. Alfabeto: só os caracteres que aparecem nas palavras-chave
+        int totalLength = 0;
+        char[] extras = new char[16];
+        int extraCount = 0;
+        short nextClass = 1;
+        for (int k = 0; k < keywords.length; k++) {
+            if (groups[k] < 0 || groups[k] >= MAX_GROUPS) {
+                throw new IllegalArgumentException("Grupo inválido: " + groups[k]);
+            }
+            if (keywords[k] == null || keywords[k].isEmpty()) {
+                throw new IllegalArgumentException("Palavra-chave vazia no índice " + k);
+            }
+            String lower = lowerCase(keywords[k]);
+            this.keywords[k] = lower;
+            totalLength += lower.length();
+            for (int i = 0; i < lower.length(); i++) {
+                char c = lower.charAt(i);
+                if (c < 256) {
+                    if (latinClass[c] == 0) latinClass[c] = nextClass++;
+                } else if (indexOf(extras, extraCount, c) < 0) {
+                    if (extraCount == extras.length) extras = Arrays.copyOf(extras, extraCount * 2);
+                    extras[extraCount++] = c;
+                }
+            }
+        }
+        extraChars = Arrays.copyOf(extras, extraCount);
+        Arrays.sort(extraChars);
+        extraClasses = new short[extraCount];
+        for (int i = 0; i < extraCount; i++) {
+            extraClasses[i] = nextClass++;
+        }
+        alphabetSize = nextClass;
+
+        // 2. Trie
+        int maxStates = totalLength + 1;
+        int[] trie = new int[maxStates * alphabetSize];
+        Arrays.fill(trie, NO_LINK);
+        int[][] own = new int[maxStates][];
+        int stateCount = 1;
+        for (int k = 0; k < this.keywords.length; k++) {
+            String keyword = this.keywords[k];
+            int state = ROOT;
+            for (int i = 0; i < keyword.length(); i++) {
+                int index = state * alphabetSize + classOf(keyword.charAt(i));
+                if (trie[index] == NO_LINK) {
+                    trie[index] = stateCount++;
+                }
+                state = trie[index];
+            }
+            own[state] = append(own[state], k);
+        }
+
+        // 3. Links de falha em BFS, completando as transições ausentes (vira DFA)
+        delta = Arrays.copyOf(trie, stateCount * alphabetSize);
+        groupMask = new long[stateCount];
+        ownKeywords = new int[stateCount][];
+        dictionaryLink = new int[stateCount];
+        int[] fail = new int[stateCount];
+
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        dictionaryLink[ROOT] = NO_LINK;
+        ownKeywords[ROOT] = own[ROOT];
+        for (int c = 0; c < alphabetSize; c++) {
+            int next = delta[c];
+            if (next == NO_LINK) {
+                delta[c] = ROOT;
+            } else {
+                fail[next] = ROOT;
+                queue.add(next);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int failState = fail[state];
+
+            ownKeywords[state] = own[state];
+            groupMask[state] = maskOf(own[state]) | groupMask[failState];
+            dictionaryLink[state] = ownKeywords[failState] != null ? failState : dictionaryLink[failState];
+
+            int base = state * alphabetSize;
+            int failBase = failState * alphabetSize;
+            for (int c = 0; c < alphabetSize; c++) {
+                int next = delta[base + c];
+                if (next == NO_LINK) {
+                    delta[base + c] = delta[failBase + c];
+                } else {
+                    fail[next] = delta[failBase + c];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Quantidade de palavras-chave no índice.
+     */
+    public int size() {
+        return keywords.length;
+    }
+
+    /**
+     * Palavra-chave (em minúsculas) pelo índice.
+     */
+    public String keyword(int keywordId) {
+        return keywords[keywordId];
+    }
+
+    /**
+     * Grupo da palavra-chave pelo índice.
+     */
+    public int group(int keywordId) {
+        return keywordGroups[keywordId];
+    }
+
+    /**
+     * Reporta todas as ocorrências de palavras-chave no texto, em uma única passada.
+     */
+    public void scan(CharSequence text, MatchListener listener) {
+        if (text == null) return;
+
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, text.charAt(i));
+            for (int s = ownKeywords[state] != null ? state : dictionaryLink[state]; s != NO_LINK; s = dictionaryLink[s]) {
+                for (int keywordId : ownKeywords[s]) {
+                    if (!listener.onMatch(keywordId, i + 1)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Retorna a máscara de bits dos grupos que tiveram pelo menos uma ocorrência.
+     * Bit N ligado = grupo N encontrado. Não aloca.
+     */
+    public long matchGroups(CharSequence text) {
+        long mask = 0L;
+        if (text == null) return mask;
+
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, text.charAt(i));
+            mask |= groupMask[state];
+        }
+        return mask;
+    }
+
+    /**
+     * Igual a {@link #matchGroups(CharSequence)} sobre dois trechos, como se estivessem
+     * separados por um espaço ("texto bigText"), sem concatenar Strings.
+     */
+    public long matchGroups(CharSequence first, CharSequence second) {
+        long mask = 0L;
+        int state = ROOT;
+        if (first != null) {
+            for (int i = 0; i < first.length(); i++) {
+                state = step(state, first.charAt(i));
+                mask |= groupMask[state];
+            }
+        }
+        // O separador pode fazer parte de palavras-chave ("uber eats")
+        state = step(state, ' ');
+        mask |= groupMask[state];
+        if (second != null) {
+            for (int i = 0; i < second.length(); i++) {
+                state = step(state, second.charAt(i));
+                mask |= groupMask[state];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Verifica se algum dos grupos informados ocorre no texto, parando na primeira ocorrência.
+     */
+    public boolean containsAny(CharSequence text, long groups) {
+        if (text == null) return false;
+
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, text.charAt(i));
+            if ((groupMask[state] & groups) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Grupo de maior prioridade (menor número) presente na máscara, ou -1 se vazia.
+     */
+    public static int firstGroup(long mask) {
+        return mask == 0 ? -1 : Long.numberOfTrailingZeros(mask);
+    }
+
+    public static long groupBit(int group) {
+        return 1L << group;
+    }
+
+    private int step(int state, char c) {
+        return delta[state * alphabetSize + classOf(Character.toLowerCase(c))];
+    }
+
+    private int classOf(char c) {
+        if (c < 256) {
+            return latinClass[c];
+        }
+        int index = Arrays.binarySearch(extraChars, c);
+        return index >= 0 ? extraClasses[index] : 0;
+    }
+
+    private long maskOf(int[] keywordIds) {
+        long mask = 0L;
+        if (keywordIds != null) {
+            for (int keywordId : keywordIds) {
+                mask |= groupBit(keywordGroups[keywordId]);
+            }
+        }
+        return mask;
+    }
+
+    private static String lowerCase(String keyword) {
+        char[] chars = new char[keyword.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(keyword.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static int indexOf(char[] chars, int count, char c) {
+        for (int i = 0; i < count; i++) {
+            if (chars[i] == c) return i;
+        }
+        return -1;
+    }
+
+    private static int[] append(int[] array, int value) {
+        if (array == null) {
+            return new int[] { value };
+        }
+        int[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = value;
+        return result;
+    }
+}
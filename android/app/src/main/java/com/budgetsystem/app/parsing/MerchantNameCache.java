@@ -0,0 +1,163 @@
+package com.budgetsystem.app.parsing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache LRU de comércios: trecho bruto extraído da notificação ("ifood *restaurante x")
+ * → nome de exibição ("Ifood Restaurante X") e categoria do comércio.
+ *
+ * Comércios repetidos são a maior parte do tráfego: com o cache, normalização,
+ * capitalização e categorização do nome são feitas uma vez, e todas as notificações
+ * do mesmo comércio devolvem a mesma instância de String.
+ *
+ * As categorias dependem das regras de parsing: o cache guarda a versão do {@link RuleSet}
+ * e é esvaziado quando ela muda. Pode ser salvo/carregado de arquivo.
+ *
+ * NÃO é thread-safe: pertence ao parser (uma instância por thread).
+ */
+public final class MerchantNameCache {
+
+    private static final int FILE_MAGIC = 0x42534D31; // "BSM1"
+
+    /**
+     * Nome e categoria de um comércio. Imutável.
+     */
+    public static final class Entry {
+        public final String displayName;
+        // null se o nome não indica categoria
+        public final String category;
+
+        Entry(String displayName, String category) {
+            this.displayName = displayName;
+            this.category = category;
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<String, Entry> entries;
+    // Cache novo (sem load) pertence às regras embutidas
+    private int rulesVersion = DefaultRules.VERSION;
+    private boolean dirty;
+
+    public MerchantNameCache(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<String, Entry>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Entrada do trecho bruto (em minúsculas), ou null se ainda não visto.
+     */
+    public Entry get(String rawKey) {
+        return entries.get(rawKey);
+    }
+
+    public Entry put(String rawKey, String displayName, String category) {
+        Entry entry = new Entry(displayName, category);
+        entries.put(rawKey, entry);
+        dirty = true;
+        return entry;
+    }
+
+    /**
+     * Esvazia o cache se as regras de parsing mudaram desde que as entradas foram criadas.
+     */
+    public void checkRulesVersion(int version) {
+        if (version != rulesVersion) {
+            entries.clear();
+            rulesVersion = version;
+            dirty = true;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Há entradas novas desde o último save/load?
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Salva as entradas (da menos para a mais recente). Escrita atômica: temporário + rename.
+     */
+    public void save(File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+        try {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(rulesVersion);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue().displayName);
+                out.writeUTF(entry.getValue().category != null ? entry.getValue().category : "");
+            }
+        } finally {
+            out.close();
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Falha ao substituir " + file.getName());
+        }
+        dirty = false;
+    }
+
+    /**
+     * Carrega entradas salvas por {@link #save(File)}. Entradas de outra versão de regras
+     * são descartadas.
+     *
+     * @return Quantidade de entradas carregadas
+     */
+    public int load(File file, int currentRulesVersion) throws IOException {
+        checkRulesVersion(currentRulesVersion);
+        if (!file.exists()) {
+            return 0;
+        }
+
+        int loaded = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != currentRulesVersion) {
+                return 0;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                String displayName = in.readUTF();
+                String category = in.readUTF();
+                entries.put(key, new Entry(displayName, category.isEmpty() ? null : category));
+                loaded++;
+            }
+        } catch (EOFException e) {
+            // Arquivo truncado: fica com o que foi lido
+        } finally {
+            in.close();
+        }
+        dirty = false;
+        return loaded;
+    }
+}
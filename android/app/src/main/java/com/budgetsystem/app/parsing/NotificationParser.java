@@ -0,0 +1,507 @@
+package com.budgetsystem.app.parsing;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extrai valor, comércio, descrição, parcelas e categoria do texto de notificações bancárias.
+ *
+ * Todos os padrões são compilados uma única vez (estáticos) e cada instância reaproveita
+ * seus Matchers via reset(), evitando dezenas de Pattern.compile por notificação.
+ *
+ * NÃO é thread-safe (os Matchers guardam estado): use uma instância por thread.
+ */
+public final class NotificationParser {
+
+    private static final int MAX_DESCRIPTION_LENGTH = 100;
+    private static final int DEFAULT_MERCHANT_CACHE_SIZE = 128;
+    private static final String UNKNOWN_MERCHANT = "Desconhecido";
+
+    // ==================== PALAVRAS-CHAVE ====================
+
+    // Palavras-chave (detecção + categorias) e templates por banco vêm do RuleSet atual
+    // (ParsingRules), que pode ser trocado a qualquer momento sem pausar o parse
+
+    // ==================== VALOR ====================
+
+    // Valor lido direto para centavos por BrlAmountParser (sem regex nem double)
+
+    // ==================== COMÉRCIO ====================
+
+    // "Compra em NOME DO ESTABELECIMENTO"
+    private static final Pattern MERCHANT_COMPRA = Pattern.compile(
+        "compra\\s+(?:em|no|na)\\s+([^\\n\\r]+?)\\s+(?:r\\$|no valor|aprovada)", Pattern.CASE_INSENSITIVE);
+
+    // "aprovada em NOME DO ESTABELECIMENTO"
+    private static final Pattern MERCHANT_APROVADA = Pattern.compile(
+        "aprovada\\s+(?:em|no|na)\\s+([A-Za-zÀ-ÿ0-9\\s\\.\\-\\*]+?)(?:\\s*(?:\\.|,|r\\$|no valor|$))", Pattern.CASE_INSENSITIVE);
+
+    // "r$ VALOR em NOME DO ESTABELECIMENTO"
+    private static final Pattern MERCHANT_VALOR_EM = Pattern.compile(
+        "r\\$\\s*[0-9.,]+\\s+(?:em|no|na)\\s+([A-Za-zÀ-ÿ0-9\\s\\.\\-\\*]+?)(?:\\s*(?:\\.|,|aprovada|$))", Pattern.CASE_INSENSITIVE);
+
+    // "NOME - valor"
+    private static final Pattern MERCHANT_NOME_VALOR = Pattern.compile(
+        "^([A-ZÁÀÂÃÉÈÊÍÏÓÔÕÖÚÇÑ\\s\\.]+)\\s*-\\s*r\\$", Pattern.CASE_INSENSITIVE);
+
+    // PIX para "Nome Pessoa"
+    private static final Pattern MERCHANT_PIX_PARA = Pattern.compile(
+        "pix\\s+para\\s+([^\\n\\r]+?)\\s+(?:r\\$|no valor)", Pattern.CASE_INSENSITIVE);
+
+    // "débito em NOME" ou "crédito em NOME"
+    private static final Pattern MERCHANT_DEBITO_CREDITO = Pattern.compile(
+        "(?:débito|debito|crédito|credito)\\s+(?:em|no|na)\\s+([A-Za-zÀ-ÿ0-9\\s\\.\\-\\*]+?)(?:\\s*(?:\\.|,|r\\$|no valor|aprovad|$))", Pattern.CASE_INSENSITIVE);
+
+    // ==================== DESCRIÇÃO ====================
+
+    // Nomes em CAIXA ALTA após "de", "para" ou "em". Ex: "de GUILHERME SANTANA C", "para MARIA SILVA"
+    private static final Pattern DESC_UPPERCASE_NAME = Pattern.compile(
+        "(?:de|para|em)\\s+([A-ZÀÁÂÃÉÊÍÓÔÕÚÇ][A-ZÀÁÂÃÉÊÍÓÔÕÚÇ\\s\\.]+?)(?:\\s*(?:\\.|,|cpf|no valor|r\\$|$))", Pattern.CASE_INSENSITIVE);
+
+    // "para NOME" (boletos, pagamentos)
+    private static final Pattern DESC_PARA = Pattern.compile(
+        "para\\s+([A-Za-zÀ-ÿ0-9\\s\\.\\-]+?)(?:\\s+(?:foi|no valor|r\\$|\\.|$))", Pattern.CASE_INSENSITIVE);
+
+    // "de NOME" (Pix recebido, transferência recebida)
+    private static final Pattern DESC_PIX_DE = Pattern.compile(
+        "(?:pix|transferência|valor)\\s+(?:recebido|de)\\s+(?:de\\s+)?([A-Za-zÀ-ÿ\\s]+?)(?:,|\\.|cpf|no valor|r\\$|$)", Pattern.CASE_INSENSITIVE);
+
+    // "Compra em LOJA"
+    private static final Pattern DESC_COMPRA = Pattern.compile(
+        "compra\\s+(?:em|no|na)\\s+([A-Za-zÀ-ÿ0-9\\s\\.\\-]+?)(?:\\s+(?:no valor|aprovada|r\\$|\\.|$))", Pattern.CASE_INSENSITIVE);
+
+    // "Pix enviado para NOME"
+    private static final Pattern DESC_PIX_PARA = Pattern.compile(
+        "pix\\s+(?:enviado\\s+)?para\\s+([A-Za-zÀ-ÿ\\s]+?)(?:\\s+(?:no valor|r\\$|\\.|$))", Pattern.CASE_INSENSITIVE);
+
+    // Valor monetário a remover do texto quando o título é genérico
+    private static final Pattern VALUE_TOKEN = Pattern.compile("r\\$\\s*[0-9.,]+");
+
+    private static final String[] GENERIC_TITLES = {
+        "boleto pago com sucesso", "pagamento realizado",
+        "pix enviado", "pix recebido", "transferência realizada",
+        "você recebeu um pix", "pagamento de fatura"
+    };
+
+    // ==================== PARCELAS ====================
+
+    // "3/12", "03/12"
+    private static final Pattern INSTALLMENT_SLASH = Pattern.compile("(\\d{1,2})/(\\d{1,2})");
+
+    // "parcela 3 de 12"
+    private static final Pattern INSTALLMENT_PARCELA = Pattern.compile(
+        "parcela\\s+(\\d{1,2})\\s+de\\s+(\\d{1,2})", Pattern.CASE_INSENSITIVE);
+
+    // "3 de 12"
+    private static final Pattern INSTALLMENT_DE = Pattern.compile("(\\d{1,2})\\s+de\\s+(\\d{1,2})");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Matchers reaproveitados (reset a cada uso)
+    private final Matcher merchantCompraMatcher = MERCHANT_COMPRA.matcher("");
+    private final Matcher merchantAprovadaMatcher = MERCHANT_APROVADA.matcher("");
+    private final Matcher merchantValorEmMatcher = MERCHANT_VALOR_EM.matcher("");
+    private final Matcher merchantNomeValorMatcher = MERCHANT_NOME_VALOR.matcher("");
+    private final Matcher merchantPixParaMatcher = MERCHANT_PIX_PARA.matcher("");
+    private final Matcher merchantDebitoCreditoMatcher = MERCHANT_DEBITO_CREDITO.matcher("");
+    private final Matcher descUppercaseMatcher = DESC_UPPERCASE_NAME.matcher("");
+    private final Matcher descParaMatcher = DESC_PARA.matcher("");
+    private final Matcher descPixDeMatcher = DESC_PIX_DE.matcher("");
+    private final Matcher descCompraMatcher = DESC_COMPRA.matcher("");
+    private final Matcher descPixParaMatcher = DESC_PIX_PARA.matcher("");
+    private final Matcher valueTokenMatcher = VALUE_TOKEN.matcher("");
+    private final Matcher installmentSlashMatcher = INSTALLMENT_SLASH.matcher("");
+    private final Matcher installmentParcelaMatcher = INSTALLMENT_PARCELA.matcher("");
+    private final Matcher installmentDeMatcher = INSTALLMENT_DE.matcher("");
+
+    // Matchers dos templates do RuleSet, criados na primeira vez que o banco aparece.
+    // Refeitos quando as regras são trocadas (ids de template são por RuleSet).
+    private RuleSet matcherRules;
+    private Matcher[] profileMatchers;
+
+    // Comércios já vistos: nome de exibição e categoria sem recalcular
+    private final MerchantNameCache merchantCache;
+
+    // Categorias aprendidas com o usuário (null = só palavras-chave)
+    private final CategoryClassifier classifier;
+
+    // Parcelas encontradas pelo último extractInstallmentInfo (evita alocar objeto auxiliar)
+    private int installmentCurrent;
+    private int installmentTotal;
+
+    // Duração da categorização no último parse (métricas do pipeline)
+    private long lastCategorizeNanos;
+
+    public NotificationParser() {
+        this(new MerchantNameCache(DEFAULT_MERCHANT_CACHE_SIZE), null);
+    }
+
+    /**
+     * @param merchantCache Cache de comércios (pode ser persistido por quem cria o parser)
+     * @param classifier Classificador aprendido; tem prioridade sobre as palavras-chave quando
+     *                   confiante. Pode ser null
+     */
+    public NotificationParser(MerchantNameCache merchantCache, CategoryClassifier classifier) {
+        this.merchantCache = merchantCache;
+        this.classifier = classifier;
+    }
+
+    /**
+     * Verificação barata (sem copiar nem converter o texto) se a notificação pode ser uma
+     * despesa: procura as palavras-chave de detecção direto nos CharSequences.
+     * Thread-safe (o autômato é imutável).
+     */
+    public static boolean mightBeExpense(CharSequence text, CharSequence bigText) {
+        KeywordAutomaton keywords = ParsingRules.current().getKeywords();
+        return keywords.containsAny(text, RuleSet.DETECTION_BIT)
+            || keywords.containsAny(bigText, RuleSet.DETECTION_BIT);
+    }
+
+    /**
+     * Faz o parse completo de uma notificação.
+     *
+     * @param title Título da notificação (android.title), pode ser null
+     * @param text Texto da notificação (android.text), pode ser null
+     * @param bigText Texto expandido (android.bigText), pode ser null
+     * @return Resultado imutável; campos de despesa só são preenchidos se
+     *         {@link ParsedNotification#isBankNotification()} e {@link ParsedNotification#hasAmount()}
+     */
+    public ParsedNotification parse(String title, String text, String bigText) {
+        return parse(null, title, text, bigText);
+    }
+
+    /**
+     * Faz o parse completo usando primeiro os templates do banco ({@link RuleSet#profileFor})
+     * e, se nenhum reconhecer o texto, a cascata genérica.
+     *
+     * @param bank Banco já identificado pelo package, pode ser null
+     */
+    public ParsedNotification parse(String bank, String title, String text, String bigText) {
+        if (text == null) text = "";
+        if (bigText == null) bigText = "";
+        lastCategorizeNanos = 0;
+
+        // Mesmo RuleSet do início ao fim, mesmo que um reload troque as regras no meio
+        RuleSet rules = ParsingRules.current();
+
+        // Uma única passada encontra detecção e categorias
+        long mask = rules.getKeywords().matchGroups(text, bigText);
+
+        // Combina texto e bigText
+        String fullText = (text + " " + bigText).toLowerCase();
+
+        if ((mask & RuleSet.DETECTION_BIT) == 0) {
+            return new ParsedNotification(fullText, false, false, 0L, null, null, null, 0, 0);
+        }
+
+        long amountCents = BrlAmountParser.parseCents(fullText);
+        if (amountCents == BrlAmountParser.NOT_FOUND) {
+            return new ParsedNotification(fullText, true, false, 0L, null, null, null, 0, 0);
+        }
+
+        // Templates do banco: comércio e descrição de uma vez só
+        merchantCache.checkRulesVersion(rules.getVersion());
+        MerchantNameCache.Entry merchant;
+        String description = null;
+        BankProfile.Template template = matchProfile(rules, bank, fullText);
+        if (template != null) {
+            merchant = merchantEntry(rules, profileMatchers[template.id].group(1).trim());
+            description = template.descriptionPrefix + merchant.displayName;
+        } else {
+            String raw = extractMerchantName(fullText, text);
+            merchant = raw != null ? merchantEntry(rules, raw) : null;
+        }
+        String merchantName = merchant != null ? merchant.displayName : UNKNOWN_MERCHANT;
+
+        int installmentNumber = 0;
+        int installmentTotalValue = 0;
+        if (extractInstallmentInfo(fullText)) {
+            installmentNumber = installmentCurrent;
+            installmentTotalValue = installmentTotal;
+        }
+
+        if (description == null) {
+            description = extractSmartDescription(title, text, bigText, fullText);
+        }
+
+        // Categoria: o que o usuário ensinou (pelo comércio ou descrição), depois o texto,
+        // depois o nome do comércio pelas palavras-chave
+        long categorizeStart = System.nanoTime();
+        String category = null;
+        if (classifier != null) {
+            category = classifier.predict(merchant != null ? merchant.displayName : description);
+        }
+        if (category == null) {
+            category = rules.categoryFor(mask);
+        }
+        if (category == null && merchant != null) {
+            category = merchant.category;
+        }
+        if (category == null) {
+            category = "Outros";
+        }
+        lastCategorizeNanos = System.nanoTime() - categorizeStart;
+        if (description.length() > MAX_DESCRIPTION_LENGTH) {
+            description = description.substring(0, MAX_DESCRIPTION_LENGTH) + "...";
+        }
+
+        return new ParsedNotification(fullText, true, true, amountCents, merchantName, description,
+            category, installmentNumber, installmentTotalValue);
+    }
+
+    /**
+     * Quanto do último {@link #parse} foi gasto na categorização (0 se não chegou a categorizar).
+     */
+    public long getLastCategorizeNanos() {
+        return lastCategorizeNanos;
+    }
+
+    /**
+     * Nome de exibição e categoria do comércio, do cache ou calculados uma vez e guardados.
+     * "IFOOD *RESTAURANTE X" → "Ifood Restaurante X".
+     */
+    private MerchantNameCache.Entry merchantEntry(RuleSet rules, String raw) {
+        String key = raw.toLowerCase();
+        MerchantNameCache.Entry entry = merchantCache.get(key);
+        if (entry == null) {
+            String displayName = capitalizeWords(key.replace('*', ' '));
+            String category = rules.categorize(key);
+            entry = merchantCache.put(key, displayName, category);
+        }
+        return entry;
+    }
+
+    /**
+     * Primeiro template do perfil que reconhece o texto, com nome de tamanho plausível.
+     * O Matcher correspondente fica posicionado no match.
+     */
+    private BankProfile.Template matchProfile(RuleSet rules, String bank, String fullText) {
+        BankProfile profile = rules.profileFor(bank);
+        if (profile == null) {
+            return null;
+        }
+        if (matcherRules != rules) {
+            matcherRules = rules;
+            profileMatchers = new Matcher[rules.getTemplateCount()];
+        }
+        for (BankProfile.Template template : profile.getTemplates()) {
+            Matcher matcher = profileMatchers[template.id];
+            if (matcher == null) {
+                matcher = template.pattern.matcher(fullText);
+                profileMatchers[template.id] = matcher;
+            } else {
+                matcher.reset(fullText);
+            }
+            if (matcher.find()) {
+                int length = matcher.group(1).trim().length();
+                if (length >= 2 && length <= 50) {
+                    return template;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Extrai uma descrição mais útil da notificação.
+     * Em vez de usar apenas o título genérico (ex: "Boleto pago com sucesso"),
+     * tenta extrair informações relevantes como nome do destinatário, empresa, etc.
+     * Visível no pacote para os benchmarks.
+     */
+    String extractSmartDescription(String title, String text, String bigText, String fullText) {
+        // Usa bigText se disponível, senão text
+        String searchText = !bigText.isEmpty() ? bigText : text;
+
+        Matcher matcher = descUppercaseMatcher.reset(searchText);
+        if (matcher.find()) {
+            String name = matcher.group(1).trim();
+            // Verifica se realmente tem letras maiúsculas (nome em caixa alta)
+            if (name.length() >= 3 && name.length() <= 60 && hasUppercaseWords(name)) {
+                String preposition = searchText.substring(matcher.start(), matcher.start() + 2).toLowerCase();
+                if (preposition.startsWith("de")) {
+                    // Recebido DE alguém
+                    if (fullText.contains("receb")) {
+                        return "Recebido de " + capitalizeWords(name);
+                    }
+                    return "De " + capitalizeWords(name);
+                } else if (preposition.startsWith("pa")) {
+                    // Enviado PARA alguém
+                    return "Para " + capitalizeWords(name);
+                } else {
+                    // Compra EM estabelecimento
+                    return "Em " + capitalizeWords(name);
+                }
+            }
+        }
+
+        matcher = descParaMatcher.reset(searchText);
+        if (matcher.find()) {
+            String recipient = matcher.group(1).trim();
+            if (recipient.length() >= 3 && recipient.length() <= 60) {
+                return capitalizeWords(recipient);
+            }
+        }
+
+        matcher = descPixDeMatcher.reset(searchText);
+        if (matcher.find()) {
+            String sender = matcher.group(1).trim();
+            if (sender.length() >= 3 && sender.length() <= 60) {
+                return "Pix de " + capitalizeWords(sender);
+            }
+        }
+
+        matcher = descCompraMatcher.reset(searchText);
+        if (matcher.find()) {
+            String store = matcher.group(1).trim();
+            if (store.length() >= 2 && store.length() <= 50) {
+                return "Compra em " + capitalizeWords(store);
+            }
+        }
+
+        // "pagamento de fatura" específico para cartão
+        if (fullText.contains("pagamento de fatura")) {
+            return "Pagamento de fatura de cartão";
+        }
+
+        matcher = descPixParaMatcher.reset(searchText);
+        if (matcher.find()) {
+            String recipient = matcher.group(1).trim();
+            if (recipient.length() >= 3 && recipient.length() <= 50) {
+                return "Pix para " + capitalizeWords(recipient);
+            }
+        }
+
+        // Se o título é muito genérico, tenta usar parte do texto
+        boolean isTitleGeneric = false;
+        String lowerTitle = title != null ? title.toLowerCase() : "";
+        for (String generic : GENERIC_TITLES) {
+            if (lowerTitle.contains(generic)) {
+                isTitleGeneric = true;
+                break;
+            }
+        }
+
+        if (isTitleGeneric && searchText.length() > 10) {
+            // Pega até os primeiros 80 caracteres do texto que não sejam o valor
+            String cleanedText = valueTokenMatcher.reset(searchText).replaceAll("").trim();
+            if (cleanedText.length() > 10) {
+                String desc = cleanedText.length() > 80 ? cleanedText.substring(0, 80) : cleanedText;
+                return capitalizeWords(desc);
+            }
+        }
+
+        // Fallback: usa o título original
+        return title != null && !title.isEmpty() ? title : text;
+    }
+
+    /**
+     * Trecho bruto com o nome do comércio (cascata genérica), ou null se não encontrado.
+     * Visível no pacote para os benchmarks por etapa.
+     */
+    String extractMerchantName(String fullText, String text) {
+        Matcher matcher = merchantCompraMatcher.reset(text);
+        if (matcher.find()) {
+            String merchant = matcher.group(1).trim();
+            if (merchant.length() > 50) merchant = merchant.substring(0, 50);
+            return merchant;
+        }
+
+        matcher = merchantAprovadaMatcher.reset(fullText);
+        if (matcher.find()) {
+            String merchant = matcher.group(1).trim();
+            if (merchant.length() >= 2 && merchant.length() <= 50) {
+                return merchant;
+            }
+        }
+
+        matcher = merchantValorEmMatcher.reset(fullText);
+        if (matcher.find()) {
+            String merchant = matcher.group(1).trim();
+            if (merchant.length() >= 2 && merchant.length() <= 50) {
+                return merchant;
+            }
+        }
+
+        matcher = merchantNomeValorMatcher.reset(text);
+        if (matcher.find()) {
+            return matcher.group(1).trim();
+        }
+
+        matcher = merchantPixParaMatcher.reset(text);
+        if (matcher.find()) {
+            String merchant = matcher.group(1).trim();
+            if (merchant.length() > 50) merchant = merchant.substring(0, 50);
+            return merchant;
+        }
+
+        matcher = merchantDebitoCreditoMatcher.reset(fullText);
+        if (matcher.find()) {
+            String merchant = matcher.group(1).trim();
+            if (merchant.length() >= 2 && merchant.length() <= 50) {
+                return merchant;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Procura parcelas ("3/12", "parcela 3 de 12", "3 de 12").
+     * O resultado fica em installmentCurrent/installmentTotal. Visível no pacote para os benchmarks.
+     *
+     * @return true se encontrou parcelas válidas
+     */
+    boolean extractInstallmentInfo(String text) {
+        if (matchInstallment(installmentSlashMatcher.reset(text), 1)) {
+            return true;
+        }
+        if (matchInstallment(installmentParcelaMatcher.reset(text), 1)) {
+            return true;
+        }
+        // "X de Y" é ambíguo: exige total > 1 para parecer parcela
+        return matchInstallment(installmentDeMatcher.reset(text), 2);
+    }
+
+    private boolean matchInstallment(Matcher matcher, int minTotal) {
+        if (!matcher.find()) {
+            return false;
+        }
+        int current = Integer.parseInt(matcher.group(1));
+        int total = Integer.parseInt(matcher.group(2));
+        if (current > 0 && total >= minTotal && current <= total) {
+            installmentCurrent = current;
+            installmentTotal = total;
+            return true;
+        }
+        return false;
+    }
+
+    private static String capitalizeWords(String text) {
+        // Capitaliza primeira letra de cada palavra
+        String[] words = WHITESPACE.split(text.toLowerCase());
+        StringBuilder result = new StringBuilder(text.length());
+        for (String word : words) {
+            if (word.length() > 0) {
+                result.append(Character.toUpperCase(word.charAt(0)));
+                result.append(word, 1, word.length());
+                result.append(' ');
+            }
+        }
+        return result.toString().trim();
+    }
+
+    /**
+     * Verifica se o texto contém palavras em CAIXA ALTA (típico de nomes em notificações bancárias)
+     */
+    private static boolean hasUppercaseWords(String text) {
+        int upperCount = 0;
+        int lowerCount = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isUpperCase(c)) upperCount++;
+            else if (Character.isLowerCase(c)) lowerCount++;
+        }
+        // Se tem mais maiúsculas que minúsculas, provavelmente é nome em CAIXA ALTA
+        return upperCount > lowerCount && upperCount >= 3;
+    }
+}
@@ -0,0 +1,104 @@
+package com.budgetsystem.app.parsing;
+
+/**
+ * Resultado imutável do parse de uma notificação.
+ * Produzido por {@link NotificationParser#parse(String, String, String)}.
+ */
+public final class ParsedNotification {
+
+    private final String fullText;
+    private final boolean bankNotification;
+    private final boolean hasAmount;
+    private final long amountCents;
+    private final String merchantName;
+    private final String description;
+    private final String category;
+    private final int installmentNumber;
+    private final int installmentTotal;
+
+    ParsedNotification(String fullText, boolean bankNotification, boolean hasAmount, long amountCents,
+                       String merchantName, String description, String category,
+                       int installmentNumber, int installmentTotal) {
+        this.fullText = fullText;
+        this.bankNotification = bankNotification;
+        this.hasAmount = hasAmount;
+        this.amountCents = amountCents;
+        this.merchantName = merchantName;
+        this.description = description;
+        this.category = category;
+        this.installmentNumber = installmentNumber;
+        this.installmentTotal = installmentTotal;
+    }
+
+    /**
+     * Texto + bigText em minúsculas, usado nas verificações por palavra-chave.
+     */
+    public String getFullText() {
+        return fullText;
+    }
+
+    /**
+     * Se o texto contém palavras-chave de notificação bancária/financeira.
+     */
+    public boolean isBankNotification() {
+        return bankNotification;
+    }
+
+    /**
+     * Se foi encontrado um valor monetário (R$) no texto.
+     * Quando false, os demais campos de despesa não são preenchidos.
+     */
+    public boolean hasAmount() {
+        return hasAmount;
+    }
+
+    /**
+     * Valor em centavos (negativo para estorno/valor negativo).
+     */
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    /**
+     * Valor em reais, derivado de {@link #getAmountCents()} (o JavaScript usa reais).
+     */
+    public double getAmount() {
+        return BrlAmountParser.toReais(amountCents);
+    }
+
+    public String getMerchantName() {
+        return merchantName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public int getInstallmentNumber() {
+        return installmentNumber;
+    }
+
+    /**
+     * Total de parcelas, ou 0 se não é parcelado.
+     */
+    public int getInstallmentTotal() {
+        return installmentTotal;
+    }
+
+    public boolean hasInstallments() {
+        return installmentTotal > 0;
+    }
+
+    /**
+     * Resumo para log de debug (contém comércio e descrição: não usar fora de BudgetLog.d).
+     */
+    @Override
+    public String toString() {
+        return amountCents + " centavos | 🏪 " + merchantName + " | 🏷️ " + category
+            + " | 📝 " + description + (hasInstallments() ? " | 💳 " + installmentNumber + "/" + installmentTotal : "");
+    }
+}
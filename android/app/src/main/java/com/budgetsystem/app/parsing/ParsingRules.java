@@ -0,0 +1,42 @@
+package com.budgetsystem.app.parsing;
+
+/**
+ * Regras de parsing em uso pelo processo.
+ *
+ * O {@link RuleSet} atual fica numa referência volatile: quem faz parse lê a referência uma vez
+ * e usa aquele conjunto até o fim, enquanto um reload compila o novo conjunto por inteiro e só
+ * então troca a referência. O parse nunca espera por um reload nem vê regras pela metade.
+ *
+ * Sem dependência do Android (roda na JVM dos benchmarks); a carga dos arquivos de regras
+ * fica no {@link ParsingRulesLoader}.
+ */
+public final class ParsingRules {
+    private static volatile RuleSet current;
+
+    private ParsingRules() {
+        // Classe utilitária - não instanciar
+    }
+
+    /**
+     * Regras atuais. Antes do primeiro load valem as embutidas.
+     */
+    public static RuleSet current() {
+        RuleSet rules = current;
+        if (rules == null) {
+            synchronized (ParsingRules.class) {
+                if (current == null) {
+                    current = RuleSet.compile(DefaultRules.spec());
+                }
+                rules = current;
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Troca atomicamente as regras em uso.
+     */
+    public static void install(RuleSet rules) {
+        current = rules;
+    }
+}
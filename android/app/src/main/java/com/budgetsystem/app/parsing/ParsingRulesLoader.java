@@ -0,0 +1,124 @@
+package com.budgetsystem.app.parsing;
+
+import android.content.Context;
+import com.budgetsystem.app.utils.BudgetLog;
+import com.budgetsystem.app.utils.Constants;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Carrega as regras de parsing dos arquivos do app e instala em {@link ParsingRules}.
+ *
+ * Candidatas: {@link DefaultRules} (embutidas), asset do APK e arquivo baixado em filesDir
+ * (mapeado em memória). Vale a de maior versão; em empate, a embutida e depois o asset. Um
+ * arquivo baixado antigo nunca sobrepõe regras embutidas mais novas de uma atualização do APK.
+ * Arquivo inválido é ignorado.
+ */
+public final class ParsingRulesLoader {
+    private static final String TAG = "ParsingRules";
+
+    private ParsingRulesLoader() {
+        // Classe utilitária - não instanciar
+    }
+
+    /**
+     * Compila e instala as regras de maior versão entre as embutidas, o asset e o arquivo
+     * baixado. Chamado fora da thread principal; o parse continua com as regras antigas até
+     * a troca.
+     *
+     * @return versão das regras em uso
+     */
+    public static int load(Context context) {
+        RuleSet best = RuleSet.compile(DefaultRules.spec());
+
+        try {
+            RuleSet asset = RuleSet.compile(RuleFile.read(readAsset(context)));
+            if (asset.getVersion() > best.getVersion()) {
+                best = asset;
+            }
+        } catch (FileNotFoundException e) {
+            // Sem asset: vale o arquivo baixado ou as regras embutidas
+        } catch (IOException | IllegalArgumentException e) {
+            BudgetLog.w(TAG, "⚠️ Regras do asset inválidas, ignorando: {}", e.getMessage());
+        }
+
+        File file = new File(context.getFilesDir(), Constants.PARSING_RULES_FILE);
+        if (file.exists()) {
+            try {
+                RuleSet downloaded = RuleSet.compile(RuleFile.read(map(file)));
+                if (downloaded.getVersion() > best.getVersion()) {
+                    best = downloaded;
+                } else {
+                    BudgetLog.w(TAG, "⚠️ Regras baixadas (versão {}) não são mais novas que as do APK (versão {}), ignorando",
+                        downloaded.getVersion(), best.getVersion());
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                BudgetLog.w(TAG, "⚠️ Regras baixadas inválidas, ignorando: {}", e.getMessage());
+            }
+        }
+
+        ParsingRules.install(best);
+        BudgetLog.d(TAG, "📐 Regras de parsing carregadas (versão {})", best.getVersion());
+        return best.getVersion();
+    }
+
+    /**
+     * Valida e grava um arquivo de regras baixado (escrita atômica via rename) e recarrega.
+     *
+     * @throws IOException se os bytes não forem regras válidas - nada é gravado nesse caso
+     */
+    public static int installFile(Context context, byte[] data) throws IOException {
+        try {
+            RuleSet.compile(RuleFile.read(ByteBuffer.wrap(data)));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Regra inválida: " + e.getMessage(), e);
+        }
+
+        File file = new File(context.getFilesDir(), Constants.PARSING_RULES_FILE);
+        File temp = new File(context.getFilesDir(), Constants.PARSING_RULES_FILE + ".tmp");
+        FileOutputStream output = new FileOutputStream(temp);
+        try {
+            output.write(data);
+            output.getFD().sync();
+        } finally {
+            output.close();
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Não foi possível gravar " + file.getName());
+        }
+        return load(context);
+    }
+
+    private static ByteBuffer map(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+        } finally {
+            // O mapeamento continua válido depois de fechar o arquivo
+            raf.close();
+        }
+    }
+
+    private static ByteBuffer readAsset(Context context) throws IOException {
+        InputStream input = context.getAssets().open(Constants.PARSING_RULES_FILE);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = input.read(chunk)) != -1) {
+                bytes.write(chunk, 0, read);
+            }
+            return ByteBuffer.wrap(bytes.toByteArray());
+        } finally {
+            input.close();
+        }
+    }
+}
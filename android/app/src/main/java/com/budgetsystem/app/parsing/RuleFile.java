@@ -0,0 +1,180 @@
+package com.budgetsystem.app.parsing;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Formato binário compacto das regras de parsing (asset ou arquivo baixado).
+ *
+ * Layout (big-endian):
+ * <pre>
+ * int    magic "BSRL"
+ * short  formato (1)
+ * int    versão das regras
+ * u16 n  + n × str                      palavras-chave de detecção
+ * u16 n  + n × (str nome, u16 k, k × str) categorias, em ordem de prioridade
+ * u16 n  + n × (u8 tipo, str chave, str banco) regras de package (RuleSpec.PACKAGE_*)
+ * u16 n  + n × (str banco, str regex, str prefixo) templates por banco
+ * int    CRC32 de tudo que vem antes
+ * str  = u16 tamanho + bytes UTF-8
+ * </pre>
+ *
+ * Lido direto de um ByteBuffer (arquivo mapeado em memória ou bytes do asset), sem cópia
+ * intermediária do arquivo inteiro.
+ */
+public final class RuleFile {
+
+    private static final int MAGIC = 0x4253524C; // "BSRL"
+    private static final short FORMAT = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private RuleFile() {
+        // Classe utilitária - não instanciar
+    }
+
+    /**
+     * Lê as regras do buffer (da posição atual até o limite).
+     *
+     * @throws IOException se o arquivo estiver truncado, corrompido ou em formato desconhecido
+     */
+    public static RuleSpec read(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.slice();
+        if (in.remaining() < 14) {
+            throw new IOException("Arquivo de regras truncado");
+        }
+
+        int crcOffset = in.limit() - 4;
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < crcOffset; i++) {
+            crc.update(in.get(i));
+        }
+        if ((int) crc.getValue() != in.getInt(crcOffset)) {
+            throw new IOException("CRC inválido no arquivo de regras");
+        }
+
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Arquivo de regras inválido (magic)");
+            }
+            short format = in.getShort();
+            if (format != FORMAT) {
+                throw new IOException("Formato de regras não suportado: " + format);
+            }
+
+            RuleSpec spec = new RuleSpec(in.getInt());
+
+            int count = readCount(in);
+            for (int i = 0; i < count; i++) {
+                spec.detection(readString(in));
+            }
+
+            count = readCount(in);
+            for (int i = 0; i < count; i++) {
+                String name = readString(in);
+                String[] keywords = new String[readCount(in)];
+                for (int k = 0; k < keywords.length; k++) {
+                    keywords[k] = readString(in);
+                }
+                spec.category(name, keywords);
+            }
+
+            count = readCount(in);
+            for (int i = 0; i < count; i++) {
+                int type = in.get() & 0xFF;
+                spec.packageRule(type, readString(in), readString(in));
+            }
+
+            count = readCount(in);
+            for (int i = 0; i < count; i++) {
+                String bank = readString(in);
+                spec.templates(bank, readString(in), readString(in));
+            }
+
+            if (in.position() != crcOffset) {
+                throw new IOException("Dados extras no arquivo de regras");
+            }
+            return spec;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Arquivo de regras truncado", e);
+        }
+    }
+
+    /**
+     * Serializa as regras (usado para gerar o asset e em testes).
+     */
+    public static void write(RuleSpec spec, OutputStream output) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT);
+        out.writeInt(spec.getVersion());
+
+        writeStrings(out, spec.getDetectionKeywords());
+
+        writeCount(out, spec.getCategories().size());
+        for (RuleSpec.Category category : spec.getCategories()) {
+            writeString(out, category.name);
+            writeStrings(out, category.keywords);
+        }
+
+        writeCount(out, spec.getPackageRules().size());
+        for (RuleSpec.PackageRule rule : spec.getPackageRules()) {
+            out.writeByte(rule.type);
+            writeString(out, rule.key);
+            writeString(out, rule.bank);
+        }
+
+        writeCount(out, spec.getTemplates().size());
+        for (RuleSpec.Template template : spec.getTemplates()) {
+            writeString(out, template.bank);
+            writeString(out, template.regex);
+            writeString(out, template.descriptionPrefix);
+        }
+        out.flush();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+
+        bytes.writeTo(output);
+    }
+
+    private static int readCount(ByteBuffer in) {
+        return in.getShort() & 0xFFFF;
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[readCount(in)];
+        in.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void writeCount(DataOutputStream out, int count) throws IOException {
+        if (count > 0xFFFF) {
+            throw new IOException("Lista grande demais para o formato: " + count);
+        }
+        out.writeShort(count);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        writeCount(out, values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        writeCount(out, bytes.length);
+        out.write(bytes);
+    }
+}
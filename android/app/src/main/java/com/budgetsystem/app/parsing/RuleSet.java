@@ -0,0 +1,140 @@
+package com.budgetsystem.app.parsing;
+
+import com.budgetsystem.app.utils.BankResolver;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Regras de parsing compiladas: autômato de palavras-chave, templates por banco e resolver
+ * de packages. Imutável - trocar regras é trocar o RuleSet inteiro ({@link ParsingRules}).
+ */
+public final class RuleSet {
+
+    static final int DETECTION_GROUP = 0;
+    static final long DETECTION_BIT = KeywordAutomaton.groupBit(DETECTION_GROUP);
+
+    private final int version;
+    private final KeywordAutomaton keywords;
+    // Índice = grupo do autômato (0 = detecção, sem nome)
+    private final String[] categoryNames;
+    private final Map<String, BankProfile> profiles;
+    private final int templateCount;
+    private final BankResolver bankResolver;
+
+    private RuleSet(int version, KeywordAutomaton keywords, String[] categoryNames,
+                    Map<String, BankProfile> profiles, int templateCount, BankResolver bankResolver) {
+        this.version = version;
+        this.keywords = keywords;
+        this.categoryNames = categoryNames;
+        this.profiles = profiles;
+        this.templateCount = templateCount;
+        this.bankResolver = bankResolver;
+    }
+
+    /**
+     * Compila as regras. Lança IllegalArgumentException (inclusive PatternSyntaxException)
+     * se alguma regra for inválida - nada é trocado nesse caso.
+     */
+    public static RuleSet compile(RuleSpec spec) {
+        List<RuleSpec.Category> categories = spec.getCategories();
+        if (categories.size() + 1 > KeywordAutomaton.MAX_GROUPS) {
+            throw new IllegalArgumentException("Categorias demais: " + categories.size());
+        }
+
+        // Autômato único: grupo 0 = detecção, grupos 1..N = categorias
+        List<String> keywordList = new ArrayList<>(spec.getDetectionKeywords());
+        List<Integer> groupList = new ArrayList<>();
+        for (int i = 0; i < keywordList.size(); i++) {
+            groupList.add(DETECTION_GROUP);
+        }
+        String[] categoryNames = new String[categories.size() + 1];
+        for (int c = 0; c < categories.size(); c++) {
+            categoryNames[c + 1] = categories.get(c).name;
+            for (String keyword : categories.get(c).keywords) {
+                keywordList.add(keyword);
+                groupList.add(c + 1);
+            }
+        }
+        int[] groups = new int[groupList.size()];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = groupList.get(i);
+        }
+        KeywordAutomaton keywords = new KeywordAutomaton(keywordList.toArray(new String[0]), groups);
+
+        // Templates agrupados por banco, na ordem do arquivo
+        Map<String, List<BankProfile.Template>> byBank = new HashMap<>();
+        int templateId = 0;
+        for (RuleSpec.Template template : spec.getTemplates()) {
+            List<BankProfile.Template> list = byBank.get(template.bank);
+            if (list == null) {
+                list = new ArrayList<>();
+                byBank.put(template.bank, list);
+            }
+            list.add(new BankProfile.Template(templateId++, template.regex, template.descriptionPrefix));
+        }
+        Map<String, BankProfile> profiles = new HashMap<>();
+        for (Map.Entry<String, List<BankProfile.Template>> entry : byBank.entrySet()) {
+            profiles.put(entry.getKey(), new BankProfile(entry.getKey(),
+                entry.getValue().toArray(new BankProfile.Template[0])));
+        }
+
+        BankResolver.Builder resolver = new BankResolver.Builder();
+        for (RuleSpec.PackageRule rule : spec.getPackageRules()) {
+            switch (rule.type) {
+                case RuleSpec.PACKAGE_EXACT:
+                    resolver.exact(rule.key, rule.bank);
+                    break;
+                case RuleSpec.PACKAGE_PREFIX:
+                    resolver.prefix(rule.key, rule.bank);
+                    break;
+                case RuleSpec.PACKAGE_SEGMENT:
+                    resolver.segmentKeyword(rule.key, rule.bank);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Tipo de regra de package inválido: " + rule.type);
+            }
+        }
+
+        return new RuleSet(spec.getVersion(), keywords, categoryNames, profiles, templateId, resolver.build());
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    KeywordAutomaton getKeywords() {
+        return keywords;
+    }
+
+    /**
+     * Nome da categoria de maior prioridade na máscara, ou null se nenhuma.
+     */
+    String categoryFor(long mask) {
+        int group = KeywordAutomaton.firstGroup(mask & ~DETECTION_BIT);
+        return group < 0 ? null : categoryNames[group];
+    }
+
+    /**
+     * Categoria do texto pelas palavras-chave, ou null se nenhuma aparece.
+     */
+    public String categorize(CharSequence text) {
+        return text != null ? categoryFor(keywords.matchGroups(text)) : null;
+    }
+
+    /**
+     * Perfil do banco, ou null se o banco usa só a cascata genérica.
+     */
+    public BankProfile profileFor(String bank) {
+        return bank != null ? profiles.get(bank) : null;
+    }
+
+    int getTemplateCount() {
+        return templateCount;
+    }
+
+    public BankResolver getBankResolver() {
+        return bankResolver;
+    }
+}
@@ -0,0 +1,127 @@
+package com.budgetsystem.app.parsing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Regras de parsing em forma de dados (ainda não compiladas).
+ *
+ * É o que o arquivo binário ({@link RuleFile}) guarda e o que {@link RuleSet#compile(RuleSpec)}
+ * transforma em autômato, padrões e resolver. Montado uma vez e depois só lido.
+ */
+public final class RuleSpec {
+
+    public static final int PACKAGE_EXACT = 0;
+    public static final int PACKAGE_PREFIX = 1;
+    public static final int PACKAGE_SEGMENT = 2;
+
+    /** Categoria e suas palavras-chave. A ordem de inclusão é a prioridade. */
+    public static final class Category {
+        public final String name;
+        public final List<String> keywords;
+
+        Category(String name, List<String> keywords) {
+            this.name = name;
+            this.keywords = keywords;
+        }
+    }
+
+    /** Regra de package → banco (exata, prefixo ou palavra-chave de segmento). */
+    public static final class PackageRule {
+        public final int type;
+        public final String key;
+        public final String bank;
+
+        PackageRule(int type, String key, String bank) {
+            this.type = type;
+            this.key = key;
+            this.bank = bank;
+        }
+    }
+
+    /** Template de texto de um banco: o grupo 1 é o comércio/destinatário. */
+    public static final class Template {
+        public final String bank;
+        public final String regex;
+        public final String descriptionPrefix;
+
+        Template(String bank, String regex, String descriptionPrefix) {
+            this.bank = bank;
+            this.regex = regex;
+            this.descriptionPrefix = descriptionPrefix;
+        }
+    }
+
+    private final int version;
+    private final List<String> detectionKeywords = new ArrayList<>();
+    private final List<Category> categories = new ArrayList<>();
+    private final List<PackageRule> packageRules = new ArrayList<>();
+    private final List<Template> templates = new ArrayList<>();
+
+    public RuleSpec(int version) {
+        this.version = version;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public RuleSpec detection(String... keywords) {
+        Collections.addAll(detectionKeywords, keywords);
+        return this;
+    }
+
+    public RuleSpec category(String name, String... keywords) {
+        List<String> list = new ArrayList<>();
+        Collections.addAll(list, keywords);
+        categories.add(new Category(name, list));
+        return this;
+    }
+
+    public RuleSpec packageRule(int type, String key, String bank) {
+        packageRules.add(new PackageRule(type, key, bank));
+        return this;
+    }
+
+    public RuleSpec exactPackage(String packageName, String bank) {
+        return packageRule(PACKAGE_EXACT, packageName, bank);
+    }
+
+    public RuleSpec prefixPackage(String packageName, String bank) {
+        return packageRule(PACKAGE_PREFIX, packageName, bank);
+    }
+
+    public RuleSpec segmentKeywords(String bank, String... keywords) {
+        for (String keyword : keywords) {
+            packageRule(PACKAGE_SEGMENT, keyword, bank);
+        }
+        return this;
+    }
+
+    /**
+     * Templates de um banco. Argumentos em pares: regex, prefixo da descrição.
+     */
+    public RuleSpec templates(String bank, String... regexAndPrefix) {
+        for (int i = 0; i + 1 < regexAndPrefix.length; i += 2) {
+            templates.add(new Template(bank, regexAndPrefix[i], regexAndPrefix[i + 1]));
+        }
+        return this;
+    }
+
+    public List<String> getDetectionKeywords() {
+        return detectionKeywords;
+    }
+
+    public List<Category> getCategories() {
+        return categories;
+    }
+
+    public List<PackageRule> getPackageRules() {
+        return packageRules;
+    }
+
+    public List<Template> getTemplates() {
+        return templates;
+    }
+}
@@ -0,0 +1,98 @@
+package com.budgetsystem.app.pipeline;
+
+import java.text.Normalizer;
+
+/**
+ * Detecta a mesma compra chegando por caminhos diferentes (push do banco, o mesmo push
+ * re-postado com outro postTime).
+ *
+ * A impressão digital é (valor em centavos, estabelecimento normalizado, banco). Uma despesa é
+ * duplicada se a mesma impressão foi vista com postTime a no máximo windowMs de distância.
+ * A janela é curta (re-posts chegam em segundos): duas compras iguais de verdade minutos depois
+ * (dois cafés no mesmo lugar) são mantidas. A verificação ao desbloquear mantém o postTime
+ * original e já é filtrada pelo {@link ProcessedNotificationCache}.
+ *
+ * Guarda as últimas "capacity" despesas originais em arrays de tamanho fixo (busca linear:
+ * só despesas passam por aqui). Thread-safe.
+ */
+public final class ExpenseFingerprintIndex {
+
+    private final long windowMs;
+    private final long[] contents;
+    private final long[] postTimes;
+    private int next;
+    private int size;
+
+    public ExpenseFingerprintIndex(int capacity, long windowMs) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva: " + capacity);
+        }
+        if (windowMs <= 0) {
+            throw new IllegalArgumentException("Janela deve ser positiva: " + windowMs);
+        }
+        this.windowMs = windowMs;
+        this.contents = new long[capacity];
+        this.postTimes = new long[capacity];
+    }
+
+    /**
+     * Registra a despesa e diz se ela é duplicada de uma já vista.
+     *
+     * Duplicadas não são registradas: re-posts em sequência são comparados com a compra
+     * original, não entre si (senão a janela "andaria" até engolir outra compra igual).
+     *
+     * @param merchant Estabelecimento (ou descrição, se não houver); acentos, caixa e
+     *                 pontuação são ignorados
+     * @param postTime Momento da notificação
+     * @return true se a mesma compra já foi registrada dentro da janela
+     */
+    public synchronized boolean checkAndAdd(long amountCents, String merchant, String bank, long postTime) {
+        long content = contentHash(amountCents, merchant, bank);
+        for (int i = 0; i < size; i++) {
+            if (contents[i] == content && Math.abs(postTimes[i] - postTime) <= windowMs) {
+                return true;
+            }
+        }
+        contents[next] = content;
+        postTimes[next] = postTime;
+        next = (next + 1) % contents.length;
+        if (size < contents.length) {
+            size++;
+        }
+        return false;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // ==================== INTERNOS ====================
+
+    static long contentHash(long amountCents, String merchant, String bank) {
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ amountCents) * 0x100000001b3L;
+        hash = (hash ^ (amountCents >>> 32)) * 0x100000001b3L;
+        hash = hashNormalized(hash, merchant);
+        hash = (hash ^ '|') * 0x100000001b3L;
+        hash = hashNormalized(hash, bank);
+        return hash;
+    }
+
+    /**
+     * FNV-1a só sobre letras e dígitos, sem acento e em minúsculas
+     * ("Padaria São João" e "PADARIA SAO JOAO" dão o mesmo hash).
+     */
+    private static long hashNormalized(long hash, String value) {
+        if (value == null) {
+            return hash;
+        }
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                hash = (hash ^ Character.toLowerCase(c)) * 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+}
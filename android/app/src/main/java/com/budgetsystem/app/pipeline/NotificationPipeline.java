@@ -0,0 +1,266 @@
+package com.budgetsystem.app.pipeline;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import com.budgetsystem.app.parsing.ParsingRulesLoader;
+import com.budgetsystem.app.storage.PendingExpenseStore;
+import com.budgetsystem.app.utils.BudgetLog;
+import com.budgetsystem.app.utils.Constants;
+import com.budgetsystem.app.utils.PipelineMetrics;
+import com.budgetsystem.app.utils.PreferencesWriteBehind;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Pipeline de processamento de notificações fora da thread do listener.
+ *
+ * O NotificationListenerService só tira um snapshot ({@link RawNotification}) e chama
+ * {@link #submit(RawNotification)}, que retorna imediatamente. Um único worker (HandlerThread
+ * de baixa prioridade) consome a {@link NotificationQueue} e faz parse, persistência,
+ * envio ao plugin e à Cloud Function.
+ */
+public final class NotificationPipeline {
+    private static final String TAG = "NotificationPipeline";
+
+    private static NotificationPipeline instance;
+
+    /**
+     * O que o processor fez com uma notificação.
+     */
+    public enum Outcome {
+        /** Já processada antes (mesmo package + id + postTime) */
+        ALREADY_PROCESSED,
+        /** Verificação de email do Firebase, repassada ao app */
+        EMAIL_VERIFICATION,
+        NOT_BANK,
+        NO_AMOUNT,
+        /** Estorno ou valor não positivo */
+        NOT_EXPENSE,
+        /** Mesma compra já recebida por outra notificação */
+        DUPLICATE_EXPENSE,
+        EXPENSE,
+        ERROR
+    }
+
+    /**
+     * Recebe cada notificação processada, na thread do pipeline (usado pelo replay).
+     */
+    public interface Observer {
+        void onProcessed(RawNotification notification, Outcome outcome);
+    }
+
+    private final Context context;
+    private final NotificationQueue queue = new NotificationQueue(Constants.NOTIFICATION_QUEUE_CAPACITY);
+    private final NotificationProcessor processor;
+    private final HandlerThread workerThread;
+    private final Handler workerHandler;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private volatile Observer observer;
+
+    // Notificações por resultado (índice = Outcome.ordinal())
+    private final AtomicLongArray outcomeCounts = new AtomicLongArray(Outcome.values().length);
+    private long processedAtLastDump;
+
+    // Gravação do estado do processor agendada (só a thread do worker lê/escreve)
+    private boolean flushScheduled;
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flushScheduled = false;
+            processor.flush();
+        }
+    };
+
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            // Desmarca antes de consumir: o que chegar durante o loop agenda um novo drain
+            drainScheduled.set(false);
+            RawNotification notification;
+            while ((notification = queue.poll()) != null) {
+                Outcome outcome = processor.process(notification);
+                outcomeCounts.incrementAndGet(outcome.ordinal());
+                // Sem texto da notificação: o log estruturado pode ser exportado
+                BudgetLog.event(TAG, "notification", "pkg", notification.getPackageName(), "outcome", outcome);
+                Observer current = observer;
+                if (current != null) {
+                    current.onProcessed(notification, outcome);
+                }
+            }
+            // Uma gravação para toda a rajada, a no máximo PROCESSOR_FLUSH_DELAY_MS do primeiro
+            // item (sem adiar para sempre com um fluxo contínuo)
+            if (!flushScheduled) {
+                flushScheduled = true;
+                workerHandler.postDelayed(flushTask, Constants.PROCESSOR_FLUSH_DELAY_MS);
+            }
+        }
+    };
+
+    // Resumo periódico das métricas no log, só se algo foi processado desde o último
+    private final Runnable metricsDumpTask = new Runnable() {
+        @Override
+        public void run() {
+            long processed = getProcessedCount();
+            if (processed != processedAtLastDump) {
+                processedAtLastDump = processed;
+                BudgetLog.i(TAG, "📊 {} {} (API {}) {} processadas, {} despesas, fila {} descartadas | {}",
+                    Build.MANUFACTURER, Build.MODEL, Build.VERSION.SDK_INT, processed,
+                    outcomeCounts.get(Outcome.EXPENSE.ordinal()), queue.getDroppedCount(),
+                    PipelineMetrics.compactSummary());
+            }
+            workerHandler.postDelayed(this, Constants.PIPELINE_METRICS_DUMP_INTERVAL_MS);
+        }
+    };
+
+    private NotificationPipeline(final Context context) {
+        this.context = context;
+        processor = new NotificationProcessor(context);
+        workerThread = new HandlerThread("BudgetNotifWorker", Process.THREAD_PRIORITY_BACKGROUND);
+        workerThread.start();
+        workerHandler = new Handler(workerThread.getLooper());
+
+        // Regras de parsing carregadas no worker, antes do primeiro drain (fila do Handler é FIFO)
+        workerHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                ParsingRulesLoader.load(context);
+            }
+        });
+        workerHandler.postDelayed(metricsDumpTask, Constants.PIPELINE_METRICS_DUMP_INTERVAL_MS);
+    }
+
+    /**
+     * Pipeline compartilhado do processo (criado na primeira chamada).
+     */
+    public static synchronized NotificationPipeline getInstance(Context context) {
+        if (instance == null) {
+            instance = new NotificationPipeline(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Enfileira uma notificação para processamento. Nunca bloqueia.
+     */
+    public NotificationQueue.OfferResult submit(RawNotification notification) {
+        NotificationQueue.OfferResult result = queue.offer(notification);
+        if (result == NotificationQueue.OfferResult.DROPPED_OLDEST) {
+            BudgetLog.w(TAG, "⚠️ Fila cheia - notificação mais antiga descartada (total: {})", queue.getDroppedCount());
+        }
+
+        if (drainScheduled.compareAndSet(false, true)) {
+            workerHandler.post(drainTask);
+        }
+        return result;
+    }
+
+    /**
+     * Grava agora o estado do processor (notificações processadas e comércios), esperando
+     * até {@link Constants#PROCESSOR_FLUSH_TIMEOUT_MS}. Para onDestroy, quando o processo pode
+     * morrer antes da gravação agendada.
+     */
+    public void flush() {
+        if (Looper.myLooper() == workerThread.getLooper()) {
+            workerHandler.removeCallbacks(flushTask);
+            flushTask.run();
+            return;
+        }
+        final CountDownLatch done = new CountDownLatch(1);
+        workerHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                workerHandler.removeCallbacks(flushTask);
+                flushTask.run();
+                done.countDown();
+            }
+        });
+        try {
+            if (!done.await(Constants.PROCESSOR_FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                BudgetLog.w(TAG, "⚠️ Gravação do estado do pipeline não terminou a tempo");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Observador das notificações processadas, ou null para remover.
+     */
+    public void setObserver(Observer observer) {
+        this.observer = observer;
+    }
+
+    /**
+     * Gravações em disco do processor (notificações processadas e comércios).
+     */
+    public long getDiskWriteCount() {
+        return processor.getDiskWriteCount();
+    }
+
+    public long getOutcomeCount(Outcome outcome) {
+        return outcomeCounts.get(outcome.ordinal());
+    }
+
+    public long getProcessedCount() {
+        long total = 0;
+        for (int i = 0; i < outcomeCounts.length(); i++) {
+            total += outcomeCounts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Estatísticas do pipeline desde o início do processo: aparelho, latência por etapa
+     * ({@link PipelineMetrics}), resultados, fila e gravações em disco.
+     */
+    public JSONObject getStats() throws JSONException {
+        JSONObject stats = new JSONObject();
+
+        JSONObject device = new JSONObject();
+        device.put("manufacturer", Build.MANUFACTURER);
+        device.put("model", Build.MODEL);
+        device.put("sdk", Build.VERSION.SDK_INT);
+        stats.put("device", device);
+
+        stats.put("stages", PipelineMetrics.toJson());
+
+        JSONObject outcomes = new JSONObject();
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome.name(), outcomeCounts.get(outcome.ordinal()));
+        }
+        stats.put("outcomes", outcomes);
+
+        JSONObject queueStats = new JSONObject();
+        queueStats.put("size", queue.size());
+        queueStats.put("capacity", queue.capacity());
+        queueStats.put("enqueued", queue.getEnqueuedCount());
+        queueStats.put("coalesced", queue.getCoalescedCount());
+        queueStats.put("dropped", queue.getDroppedCount());
+        stats.put("queue", queueStats);
+
+        PreferencesWriteBehind prefs = PreferencesWriteBehind.getInstance(context);
+        JSONObject disk = new JSONObject();
+        disk.put("processorWrites", processor.getDiskWriteCount());
+        disk.put("pendingCommits", PendingExpenseStore.getInstance(context).getCommitCount());
+        disk.put("preferenceCommits", prefs.getCommitCount());
+        disk.put("coalescedPreferenceWrites", prefs.getCoalescedWriteCount());
+        stats.put("disk", disk);
+        return stats;
+    }
+
+    /**
+     * Fila usada pelo pipeline (para estatísticas).
+     */
+    public NotificationQueue getQueue() {
+        return queue;
+    }
+}
@@ -0,0 +1,63 @@
+package com.budgetsystem.app.pipeline;
+
+import com.budgetsystem.app.parsing.NotificationParser;
+import com.budgetsystem.app.utils.BankIdentifier;
+
+/**
+ * Filtro barato aplicado na thread do listener, antes de qualquer cópia do texto.
+ *
+ * Quase todas as notificações (mensageiros, redes sociais, jogos) não são bancárias.
+ * Elas são rejeitadas aqui e nunca entram na fila do {@link NotificationPipeline}:
+ * 1. Pelo package: só bancos conhecidos, apps de SMS (bancos avisam por SMS) e apps de email
+ *    (verificação de conta do Firebase).
+ * 2. Pelo conteúdo: palavras-chave de despesa procuradas direto nos CharSequences dos extras,
+ *    sem toString() nem toLowerCase().
+ */
+public final class NotificationPrefilter {
+
+    // Apps de SMS/mensagens do sistema
+    private static final String[] MESSAGING_PACKAGE_FRAGMENTS = { "messaging", "mms", "sms" };
+
+    // Apps de email (verificação de email do Firebase)
+    private static final String[] EMAIL_PACKAGE_FRAGMENTS = { "gmail", "email", "outlook", "mail" };
+
+    private NotificationPrefilter() {
+        // Classe utilitária - não instanciar
+    }
+
+    /**
+     * Primeiro estágio: rejeita pelo package, sem olhar o conteúdo.
+     */
+    public static boolean acceptsPackage(String packageName) {
+        if (packageName == null) {
+            return false;
+        }
+        return BankIdentifier.mightBeBankPackage(packageName)
+            || containsAny(packageName, MESSAGING_PACKAGE_FRAGMENTS)
+            || isEmailPackage(packageName);
+    }
+
+    /**
+     * Segundo estágio: o conteúdo pode ser uma despesa (ou o package é de email)?
+     */
+    public static boolean acceptsContent(String packageName, CharSequence text, CharSequence bigText) {
+        if (isEmailPackage(packageName)) {
+            // Verificação de email é decidida pelo processor
+            return true;
+        }
+        return NotificationParser.mightBeExpense(text, bigText);
+    }
+
+    public static boolean isEmailPackage(String packageName) {
+        return packageName != null && containsAny(packageName, EMAIL_PACKAGE_FRAGMENTS);
+    }
+
+    private static boolean containsAny(String packageName, String[] fragments) {
+        for (String fragment : fragments) {
+            if (BankIdentifier.containsIgnoreCase(packageName, fragment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,317 @@
+package com.budgetsystem.app.pipeline;
+
+import android.content.Context;
+import android.content.Intent;
+import com.budgetsystem.app.NotificationPlugin;
+import com.budgetsystem.app.network.ExpenseUploader;
+import com.budgetsystem.app.parsing.CategoryClassifier;
+import com.budgetsystem.app.parsing.MerchantNameCache;
+import com.budgetsystem.app.parsing.NotificationParser;
+import com.budgetsystem.app.parsing.ParsedNotification;
+import com.budgetsystem.app.parsing.ParsingRules;
+import com.budgetsystem.app.storage.PendingExpenseStore;
+import com.budgetsystem.app.utils.BankIdentifier;
+import com.budgetsystem.app.utils.BudgetLog;
+import com.budgetsystem.app.utils.Constants;
+import com.budgetsystem.app.utils.ExpenseIdGenerator;
+import com.budgetsystem.app.utils.PipelineMetrics;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Processa as notificações capturadas pelo NotificationListenerService:
+ * parse, categorização, envio para o plugin, backup nas despesas pendentes e Cloud Function.
+ *
+ * Usado apenas pela thread do {@link NotificationPipeline}, por isso não precisa de sincronização.
+ */
+final class NotificationProcessor {
+    private static final String TAG = "BudgetNotifListener";
+    
+    private final Context context;
+    
+    private static final String PROCESSED_FILE_NAME = "processed_notifications.bin";
+    
+    // Notificações já processadas (LRU + janela de tempo), persistido entre reinícios do serviço
+    private final ProcessedNotificationCache processedNotifications = new ProcessedNotificationCache(
+        Constants.MAX_PROCESSED_NOTIFICATIONS, Constants.PROCESSED_NOTIFICATION_WINDOW_MS);
+    private final File processedFile;
+    private boolean processedLoaded;
+    // Alterado desde a última gravação (o pipeline grava em {@link #flush()}, depois de um lote)
+    private boolean processedDirty;
+    
+    // Mesma compra vinda de outra notificação (re-post, outra fonte): valor + local + banco + tempo
+    private final ExpenseFingerprintIndex expenseFingerprints = new ExpenseFingerprintIndex(
+        Constants.MAX_PROCESSED_NOTIFICATIONS, Constants.EXPENSE_DUPLICATE_WINDOW_MS);
+    
+    private static final String MERCHANT_FILE_NAME = "merchant_names.bin";
+    
+    // Comércios já vistos (nome de exibição + categoria), persistido entre reinícios do serviço
+    private final MerchantNameCache merchantNames = new MerchantNameCache(Constants.MAX_CACHED_MERCHANTS);
+    private final File merchantFile;
+    private boolean merchantsLoaded;
+    
+    // Parser com padrões pré-compilados e o classificador de categorias (uma instância para a thread do pipeline)
+    private final NotificationParser parser;
+    
+    private final ExpenseUploader uploader;
+    
+    // Só a thread do pipeline escreve; volatile para o replay ler de outra thread
+    private volatile long diskWrites;
+    
+    NotificationProcessor(Context context) {
+        this.context = context.getApplicationContext();
+        this.uploader = ExpenseUploader.getInstance(this.context);
+        this.processedFile = new File(this.context.getFilesDir(), PROCESSED_FILE_NAME);
+        this.merchantFile = new File(this.context.getFilesDir(), MERCHANT_FILE_NAME);
+        this.parser = new NotificationParser(merchantNames, CategoryClassifier.getInstance(this.context.getFilesDir()));
+    }
+    
+    /**
+     * Processa uma notificação, seja em tempo real ou verificação posterior.
+     * Roda sempre na thread do {@link NotificationPipeline}.
+     * @param notification Snapshot da notificação a processar
+     * @return O que aconteceu com a notificação (para o replay e as estatísticas)
+     */
+    NotificationPipeline.Outcome process(RawNotification notification) {
+        try {
+            String packageName = notification.getPackageName();
+            BudgetLog.d(TAG, "📱 ===== NOTIFICAÇÃO [{}] ===== {}",
+                notification.isFromActiveCheck() ? "VERIFICAÇÃO AO DESBLOQUEAR" : "TEMPO REAL", packageName);
+            
+            // Chave única (package + id + postTime) para rastrear notificações processadas
+            long notifKey = ProcessedNotificationCache.key(
+                packageName, notification.getNotificationId(), notification.getPostTime());
+            long now = System.currentTimeMillis();
+            loadProcessedNotifications(now);
+            
+            // Verifica se já processamos esta notificação (ex: desbloqueio após tempo real)
+            if (processedNotifications.contains(notifKey, now)) {
+                BudgetLog.d(TAG, "⏭️ Notificação já processada: {}#{}", packageName, notification.getNotificationId());
+                return NotificationPipeline.Outcome.ALREADY_PROCESSED;
+            }
+
+            String title = notification.getTitle();
+            String text = notification.getText() != null ? notification.getText().toString() : "";
+            String bigText = notification.getBigText() != null ? notification.getBigText().toString() : "";
+
+            // Texto da notificação só em debug (dados pessoais)
+            BudgetLog.d(TAG, "📌 Título: {} | 📝 Texto: {} | 📄 BigText: {}", title, text, bigText);
+
+            // Identifica banco pelo package (define o perfil de templates do parser)
+            String bank = BankIdentifier.identifyBankOrUnknown(packageName);
+
+            // Parse completo (templates do banco, depois a cascata genérica)
+            loadMerchantNames();
+            long parseStart = System.nanoTime();
+            ParsedNotification parsed = parser.parse(bank, title, text, bigText);
+            long categorizeNanos = parser.getLastCategorizeNanos();
+            PipelineMetrics.recordNanos(PipelineMetrics.Stage.PARSE, System.nanoTime() - parseStart - categorizeNanos);
+            if (categorizeNanos > 0) {
+                PipelineMetrics.recordNanos(PipelineMetrics.Stage.CATEGORIZE, categorizeNanos);
+            }
+            String fullText = parsed.getFullText();
+
+            // Verificar se é notificação de verificação de email do Firebase
+            boolean isFirebaseVerification = 
+                NotificationPrefilter.isEmailPackage(packageName) &&
+                (fullText.contains("verify your email") || 
+                 fullText.contains("verificar seu email") ||
+                 fullText.contains("verifique seu email") ||
+                 fullText.contains("confirme seu email") ||
+                 fullText.contains("confirm your email") ||
+                 fullText.contains("firebase") ||
+                 (title != null && title.toLowerCase().contains("verificação")));
+
+            if (isFirebaseVerification) {
+                BudgetLog.d(TAG, "📧 NOTIFICAÇÃO DE VERIFICAÇÃO DE EMAIL DETECTADA!");
+                handleEmailVerificationNotification(packageName, title, text);
+                return NotificationPipeline.Outcome.EMAIL_VERIFICATION;
+            }
+
+            if (!parsed.isBankNotification()) {
+                BudgetLog.d(TAG, "❌ Não é notificação bancária, ignorando");
+                return NotificationPipeline.Outcome.NOT_BANK;
+            }
+
+            BudgetLog.d(TAG, "💰 NOTIFICAÇÃO BANCÁRIA DETECTADA!");
+            
+            // Marca como processada para não duplicar (o cache descarta as mais antigas sozinho).
+            // Gravada depois, junto com o resto do lote (flush)
+            processedNotifications.add(notifKey, now);
+            processedDirty = true;
+
+            if (!parsed.hasAmount()) {
+                BudgetLog.d(TAG, "⚠️ Nenhum valor encontrado na notificação");
+                return NotificationPipeline.Outcome.NO_AMOUNT;
+            }
+            
+            // Centavos do parse até o JSON final (sem arredondamento de double)
+            long amountCents = parsed.getAmountCents();
+            
+            if (amountCents <= 0) {
+                BudgetLog.d(TAG, "↩️ Estorno ou valor negativo, não é despesa");
+                return NotificationPipeline.Outcome.NOT_EXPENSE;
+            }
+            
+            String merchantName = parsed.getMerchantName();
+            int installmentNumber = parsed.getInstallmentNumber();
+            int installmentTotal = parsed.getInstallmentTotal();
+            String category = parsed.getCategory();
+            String description = parsed.getDescription();
+            BudgetLog.d(TAG, "💵 Despesa {}: {}", bank, parsed);
+
+            // Descarta a mesma compra já recebida por outra notificação, antes de
+            // plugin, disco e Cloud Function
+            String fingerprintMerchant = merchantName != null ? merchantName : description;
+            if (expenseFingerprints.checkAndAdd(amountCents, fingerprintMerchant, bank,
+                    notification.getPostTime())) {
+                BudgetLog.d(TAG, "⏭️ Despesa duplicada (mesmo valor, local e banco), ignorando");
+                return NotificationPipeline.Outcome.DUPLICATE_EXPENSE;
+            }
+
+            // Id único da despesa, o mesmo no plugin, nas pendentes e na Cloud Function:
+            // cada camada descarta repetidas pelo id e retries ficam seguros
+            long expenseId = ExpenseIdGenerator.next();
+
+            // Envia para o plugin Capacitor
+            NotificationPlugin plugin = NotificationPlugin.getInstance();
+            if (plugin != null) {
+                long pluginStart = System.nanoTime();
+                plugin.notifyBankExpense(expenseId, bank, amountCents, description, category, merchantName, installmentNumber, installmentTotal);
+                PipelineMetrics.record(PipelineMetrics.Stage.PLUGIN, pluginStart);
+            }
+            
+            // SEMPRE salva nas despesas pendentes como backup
+            // Isso garante que mesmo se o evento JavaScript se perder, 
+            // a despesa será carregada quando o app abrir/recarregar
+            savePendingExpense(expenseId, bank, amountCents, description, category, merchantName, installmentNumber, installmentTotal);
+            
+            // Envia também para FCM Cloud Function (opcional, para funcionar remotamente)
+            // Em lote, com retry: ver ExpenseUploader
+            uploader.enqueue(expenseId, bank, amountCents, description, category);
+            return NotificationPipeline.Outcome.EXPENSE;
+
+        } catch (Exception e) {
+            BudgetLog.e(TAG, "❌ Erro ao processar notificação", e);
+            return NotificationPipeline.Outcome.ERROR;
+        }
+    }
+
+    /**
+     * Grava o que mudou desde a última vez (notificações processadas e comércios novos):
+     * uma gravação por lote em vez de uma por notificação. Chamado pelo pipeline.
+     */
+    void flush() {
+        if (processedDirty) {
+            saveProcessedNotifications();
+        }
+        saveMerchantNames();
+    }
+
+    /**
+     * Gravações em disco feitas pelo processor (notificações processadas e comércios).
+     */
+    long getDiskWriteCount() {
+        return diskWrites;
+    }
+
+    /**
+     * Carrega do disco as notificações processadas antes de o serviço reiniciar (uma vez).
+     */
+    private void loadProcessedNotifications(long now) {
+        if (processedLoaded) {
+            return;
+        }
+        processedLoaded = true;
+        try {
+            int loaded = processedNotifications.load(processedFile, now);
+            BudgetLog.d(TAG, "📂 {} notificações processadas restauradas", loaded);
+        } catch (IOException e) {
+            BudgetLog.w(TAG, "⚠️ Erro ao carregar notificações processadas: {}", e.getMessage());
+        }
+    }
+    
+    private void saveProcessedNotifications() {
+        long start = System.nanoTime();
+        try {
+            processedNotifications.save(processedFile);
+            PipelineMetrics.record(PipelineMetrics.Stage.PERSIST, start);
+            processedDirty = false;
+            diskWrites++;
+        } catch (IOException e) {
+            BudgetLog.w(TAG, "⚠️ Erro ao salvar notificações processadas: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Carrega do disco os comércios já vistos antes de o serviço reiniciar (uma vez).
+     */
+    private void loadMerchantNames() {
+        if (merchantsLoaded) {
+            return;
+        }
+        merchantsLoaded = true;
+        try {
+            int loaded = merchantNames.load(merchantFile, ParsingRules.current().getVersion());
+            BudgetLog.d(TAG, "📂 {} comércios restaurados", loaded);
+        } catch (IOException e) {
+            BudgetLog.w(TAG, "⚠️ Erro ao carregar comércios: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Salva os comércios só se o parse criou alguma entrada nova (comércio repetido não grava).
+     */
+    private void saveMerchantNames() {
+        if (!merchantNames.isDirty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            merchantNames.save(merchantFile);
+            PipelineMetrics.record(PipelineMetrics.Stage.PERSIST, start);
+            diskWrites++;
+        } catch (IOException e) {
+            BudgetLog.w(TAG, "⚠️ Erro ao salvar comércios: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Trata notificação de verificação de email do Firebase.
+     * Envia um broadcast para o app informando que chegou email de verificação.
+     */
+    private void handleEmailVerificationNotification(String packageName, String title, String text) {
+        try {
+            BudgetLog.d(TAG, "📧 Processando notificação de verificação de email...");
+            
+            // Envia broadcast para o app
+            Intent emailVerificationIntent = new Intent("com.budgetsystem.app.EMAIL_VERIFICATION_RECEIVED");
+            emailVerificationIntent.setPackage(context.getPackageName());
+            emailVerificationIntent.putExtra("title", title != null ? title : "");
+            emailVerificationIntent.putExtra("text", text != null ? text : "");
+            emailVerificationIntent.putExtra("source", packageName);
+            context.sendBroadcast(emailVerificationIntent);
+            
+            BudgetLog.d(TAG, "✅ Broadcast de verificação de email enviado!");
+            
+            // Também notifica via plugin se disponível
+            if (NotificationPlugin.getInstance() != null) {
+                NotificationPlugin.getInstance().notifyEmailVerification(title, text);
+            }
+        } catch (Exception e) {
+            BudgetLog.e(TAG, "❌ Erro ao processar notificação de verificação: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Salva despesa pendente em disco para quando o app estiver fechado.
+     * Quando o app abrir novamente, essas despesas serão carregadas.
+     */
+    private void savePendingExpense(long expenseId, String bank, long amountCents, String description, 
+                                    String category, String merchantName, 
+                                    int installmentNumber, int installmentTotal) {
+        // Só enfileira: a thread escritora do store grava em grupo (ring buffer de tamanho fixo)
+        PendingExpenseStore.getInstance(context).append(expenseId, System.currentTimeMillis(), bank,
+            amountCents, description, category, merchantName, installmentNumber, installmentTotal);
+    }
+}
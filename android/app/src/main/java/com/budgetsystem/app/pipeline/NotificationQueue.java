@@ -0,0 +1,100 @@
+package com.budgetsystem.app.pipeline;
+
+/**
+ * Fila limitada de notificações aguardando processamento (vários produtores, um consumidor).
+ *
+ * Políticas explícitas:
+ * - COALESCE: se um re-post da mesma notificação (package + id, com o mesmo postTime ou
+ *   texto) ainda está na fila, a versão nova substitui a antiga na mesma posição, sem ocupar
+ *   espaço extra. Mesmo id com postTime e texto novos é outra compra e entra na fila.
+ * - DROP_OLDEST: com a fila cheia, a notificação mais antiga é descartada para dar lugar
+ *   à nova. Notificações recentes valem mais que as antigas em rajadas.
+ */
+public final class NotificationQueue {
+
+    /**
+     * O que aconteceu com uma notificação oferecida à fila.
+     */
+    public enum OfferResult {
+        ENQUEUED,
+        COALESCED,
+        DROPPED_OLDEST
+    }
+
+    private final RawNotification[] ring;
+    private int head;
+    private int size;
+
+    private long enqueuedCount;
+    private long coalescedCount;
+    private long droppedCount;
+
+    public NotificationQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva: " + capacity);
+        }
+        ring = new RawNotification[capacity];
+    }
+
+    /**
+     * Adiciona uma notificação. Nunca bloqueia.
+     */
+    public synchronized OfferResult offer(RawNotification notification) {
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) % ring.length;
+            if (ring[index].isSameNotification(notification)) {
+                ring[index] = notification;
+                coalescedCount++;
+                return OfferResult.COALESCED;
+            }
+        }
+
+        OfferResult result = OfferResult.ENQUEUED;
+        if (size == ring.length) {
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            size--;
+            droppedCount++;
+            result = OfferResult.DROPPED_OLDEST;
+        }
+
+        ring[(head + size) % ring.length] = notification;
+        size++;
+        enqueuedCount++;
+        return result;
+    }
+
+    /**
+     * Remove a notificação mais antiga, ou null se a fila está vazia.
+     */
+    public synchronized RawNotification poll() {
+        if (size == 0) {
+            return null;
+        }
+        RawNotification notification = ring[head];
+        ring[head] = null;
+        head = (head + 1) % ring.length;
+        size--;
+        return notification;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+
+    public synchronized long getEnqueuedCount() {
+        return enqueuedCount;
+    }
+
+    public synchronized long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+}
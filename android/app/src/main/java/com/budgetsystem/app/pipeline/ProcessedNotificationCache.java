@@ -0,0 +1,302 @@
+package com.budgetsystem.app.pipeline;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Cache de notificações já processadas, limitado por tamanho e por janela de tempo.
+ *
+ * - Chaves são longs (hash de package + id + postTime), sem concatenar Strings.
+ * - Tabela hash com endereçamento aberto + lista duplamente ligada em arrays de int:
+ *   nenhuma alocação por operação.
+ * - Cheio, descarta a entrada usada há mais tempo (LRU). Entradas mais velhas que a janela
+ *   contam como ausentes e são removidas do fim da lista.
+ * - Pode ser salvo/carregado de arquivo para sobreviver a reinícios do serviço.
+ *
+ * Thread-safe.
+ */
+public final class ProcessedNotificationCache {
+
+    private static final int FILE_MAGIC = 0x42534431; // "BSD1"
+    private static final int NONE = -1;
+
+    private final int capacity;
+    private final long windowMs;
+
+    // Entradas (índice 0..capacity-1)
+    private final long[] keys;
+    private final long[] seenAt;
+    private final int[] prev;
+    private final int[] next;
+    private int head = NONE;   // mais recente
+    private int tail = NONE;   // mais antiga
+    private int size;
+
+    // Tabela hash: índice da entrada + 1 (0 = vazio)
+    private final int[] table;
+    private final int mask;
+
+    public ProcessedNotificationCache(int capacity, long windowMs) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva: " + capacity);
+        }
+        this.capacity = capacity;
+        this.windowMs = windowMs;
+        keys = new long[capacity];
+        seenAt = new long[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+
+        int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        table = new int[tableSize];
+        mask = tableSize - 1;
+    }
+
+    /**
+     * Chave de uma notificação (FNV-1a 64 bits sobre package, id e postTime).
+     */
+    public static long key(String packageName, int notificationId, long postTime) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < packageName.length(); i++) {
+            hash = (hash ^ packageName.charAt(i)) * 0x100000001b3L;
+        }
+        hash = (hash ^ notificationId) * 0x100000001b3L;
+        hash = (hash ^ postTime) * 0x100000001b3L;
+        hash = (hash ^ (postTime >>> 32)) * 0x100000001b3L;
+        return hash;
+    }
+
+    /**
+     * True se a chave foi vista dentro da janela. Não altera a ordem LRU.
+     */
+    public synchronized boolean contains(long key, long now) {
+        int entry = find(key);
+        return entry != NONE && now - seenAt[entry] < windowMs;
+    }
+
+    /**
+     * Marca a chave como processada agora.
+     *
+     * @return true se ela já estava no cache (dentro da janela)
+     */
+    public synchronized boolean add(long key, long now) {
+        evictExpired(now);
+
+        int entry = find(key);
+        if (entry != NONE) {
+            boolean fresh = now - seenAt[entry] < windowMs;
+            seenAt[entry] = now;
+            moveToHead(entry);
+            return fresh;
+        }
+
+        if (size == capacity) {
+            // LRU: reaproveita a entrada mais antiga
+            entry = tail;
+            removeFromTable(keys[entry]);
+            unlink(entry);
+        } else {
+            entry = size;
+            size++;
+        }
+
+        keys[entry] = key;
+        seenAt[entry] = now;
+        insertIntoTable(key, entry);
+        linkAtHead(entry);
+        return false;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Salva as entradas (da mais antiga para a mais nova). Escrita atômica: temporário + rename.
+     */
+    public synchronized void save(File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+        try {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(size);
+            for (int entry = tail; entry != NONE; entry = prev[entry]) {
+                out.writeLong(keys[entry]);
+                out.writeLong(seenAt[entry]);
+            }
+        } finally {
+            out.close();
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Falha ao substituir " + file.getName());
+        }
+    }
+
+    /**
+     * Carrega entradas salvas por {@link #save(File)}, ignorando as que já saíram da janela.
+     *
+     * @return Quantidade de entradas carregadas
+     */
+    public synchronized int load(File file, long now) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+
+        int loaded = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != FILE_MAGIC) {
+                return 0;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long key = in.readLong();
+                long time = in.readLong();
+                if (now - time < windowMs) {
+                    add(key, time);
+                    loaded++;
+                }
+            }
+        } catch (EOFException e) {
+            // Arquivo truncado: fica com o que foi lido
+        } finally {
+            in.close();
+        }
+        return loaded;
+    }
+
+    // ==================== INTERNOS ====================
+
+    private void evictExpired(long now) {
+        while (tail != NONE && now - seenAt[tail] >= windowMs) {
+            int entry = tail;
+            removeFromTable(keys[entry]);
+            unlink(entry);
+            // Mantém as entradas compactas em 0..size-1
+            int last = size - 1;
+            if (entry != last) {
+                relocate(last, entry);
+            }
+            size--;
+        }
+    }
+
+    /**
+     * Move a entrada do índice "from" para "to" (livre), ajustando lista e tabela.
+     */
+    private void relocate(int from, int to) {
+        keys[to] = keys[from];
+        seenAt[to] = seenAt[from];
+        prev[to] = prev[from];
+        next[to] = next[from];
+        if (prev[to] != NONE) {
+            next[prev[to]] = to;
+        } else {
+            head = to;
+        }
+        if (next[to] != NONE) {
+            prev[next[to]] = to;
+        } else {
+            tail = to;
+        }
+        table[slotOf(keys[to])] = to + 1;
+    }
+
+    private static int spread(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int find(long key) {
+        for (int slot = spread(key) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int entry = table[slot] - 1;
+            if (keys[entry] == key) {
+                return entry;
+            }
+        }
+        return NONE;
+    }
+
+    private int slotOf(long key) {
+        int slot = spread(key) & mask;
+        while (keys[table[slot] - 1] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insertIntoTable(long key, int entry) {
+        int slot = spread(key) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry + 1;
+    }
+
+    /**
+     * Remove da tabela com "backward shift" (sem marcadores de remoção).
+     */
+    private void removeFromTable(long key) {
+        int hole = slotOf(key);
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (table[slot] == 0) {
+                break;
+            }
+            int home = spread(keys[table[slot] - 1]) & mask;
+            // Move para o buraco se a posição ideal não estiver entre (hole, slot]
+            boolean between = hole <= slot
+                ? (home > hole && home <= slot)
+                : (home > hole || home <= slot);
+            if (!between) {
+                table[hole] = table[slot];
+                hole = slot;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    private void linkAtHead(int entry) {
+        prev[entry] = NONE;
+        next[entry] = head;
+        if (head != NONE) {
+            prev[head] = entry;
+        }
+        head = entry;
+        if (tail == NONE) {
+            tail = entry;
+        }
+    }
+
+    private void unlink(int entry) {
+        if (prev[entry] != NONE) {
+            next[prev[entry]] = next[entry];
+        } else {
+            head = next[entry];
+        }
+        if (next[entry] != NONE) {
+            prev[next[entry]] = prev[entry];
+        } else {
+            tail = prev[entry];
+        }
+    }
+
+    private void moveToHead(int entry) {
+        if (head != entry) {
+            unlink(entry);
+            linkAtHead(entry);
+        }
+    }
+}
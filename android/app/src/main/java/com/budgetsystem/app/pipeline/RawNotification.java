@@ -0,0 +1,81 @@
+package com.budgetsystem.app.pipeline;
+
+/**
+ * Snapshot imutável dos dados de uma notificação, capturado na thread do listener.
+ * Todo o processamento pesado acontece depois, na thread do {@link NotificationPipeline}.
+ *
+ * text/bigText são guardados como CharSequence (sem toString) para que a thread do
+ * listener só copie referências.
+ */
+public final class RawNotification {
+
+    private final String packageName;
+    private final int notificationId;
+    private final long postTime;
+    private final String title;
+    private final CharSequence text;
+    private final CharSequence bigText;
+    private final boolean fromActiveCheck;
+
+    public RawNotification(String packageName, int notificationId, long postTime,
+                           String title, CharSequence text, CharSequence bigText,
+                           boolean fromActiveCheck) {
+        this.packageName = packageName;
+        this.notificationId = notificationId;
+        this.postTime = postTime;
+        this.title = title;
+        this.text = text;
+        this.bigText = bigText;
+        this.fromActiveCheck = fromActiveCheck;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public int getNotificationId() {
+        return notificationId;
+    }
+
+    public long getPostTime() {
+        return postTime;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public CharSequence getText() {
+        return text;
+    }
+
+    public CharSequence getBigText() {
+        return bigText;
+    }
+
+    /**
+     * Se veio da verificação de notificações ativas (após desbloqueio) e não de tempo real.
+     */
+    public boolean isFromActiveCheck() {
+        return fromActiveCheck;
+    }
+
+    /**
+     * Se é um re-post da mesma notificação: mesmo package e id e também o mesmo postTime ou
+     * o mesmo texto. Alguns apps de banco/SMS reusam um único id para toda compra nova; com
+     * postTime e texto diferentes é outro evento, não uma atualização.
+     */
+    public boolean isSameNotification(RawNotification other) {
+        if (notificationId != other.notificationId || !packageName.equals(other.packageName)) {
+            return false;
+        }
+        return postTime == other.postTime || sameText(text, other.text);
+    }
+
+    private static boolean sameText(CharSequence a, CharSequence b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.toString().contentEquals(b);
+    }
+}
@@ -0,0 +1,138 @@
+package com.budgetsystem.app.storage;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import com.budgetsystem.app.utils.BudgetLog;
+import com.budgetsystem.app.utils.Constants;
+import com.budgetsystem.app.utils.ExpenseIdGenerator;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import org.json.JSONArray;
+import org.json.JSONException;
+
+/**
+ * Migra para o {@link PendingExpenseRing} as despesas pendentes gravadas nos formatos antigos:
+ * - Array JSON em SharedPreferences (chaves "expenses" e {@link Constants#KEY_PENDING_EXPENSES})
+ * - Ring buffer versão 1, sem id da despesa (pending_expenses.ring): cada despesa ganha um id
+ *
+ * Executado uma vez por processo, na abertura do ring. Os dados antigos são removidos após a cópia.
+ */
+final class LegacyPendingExpenses {
+    private static final String TAG = "PendingExpenseRing";
+
+    private static final String LEGACY_KEY_EXPENSES = "expenses";
+
+    // Layout do ring versão 1 (ver PendingExpenseRing)
+    private static final String RING_V1_FILE_NAME = "pending_expenses.ring";
+    private static final int RING_V1_MAGIC = 0x42535231; // "BSR1"
+    private static final int RING_V1_HEADER_SIZE = 64;
+    private static final int RING_V1_SLOT_SIZE = 288;
+
+    private LegacyPendingExpenses() {
+        // Classe utilitária - não instanciar
+    }
+
+    static void migrate(Context context, PendingExpenseRing ring) {
+        migratePrefs(context, ring);
+        migrateRingV1(new File(context.getFilesDir(), RING_V1_FILE_NAME), ring);
+    }
+
+    private static void migratePrefs(Context context, PendingExpenseRing ring) {
+        SharedPreferences prefs = context.getSharedPreferences(Constants.PREFS_PENDING, Context.MODE_PRIVATE);
+        String[] legacyKeys = { LEGACY_KEY_EXPENSES, Constants.KEY_PENDING_EXPENSES };
+
+        SharedPreferences.Editor editor = null;
+        for (String key : legacyKeys) {
+            String json = prefs.getString(key, null);
+            if (json == null) {
+                continue;
+            }
+            try {
+                JSONArray legacy = new JSONArray(json);
+                for (int i = 0; i < legacy.length(); i++) {
+                    ring.appendJson(legacy.getJSONObject(i));
+                }
+                BudgetLog.d(TAG, "📦 Migradas {} despesas de '{}'", legacy.length(), key);
+            } catch (JSONException e) {
+                BudgetLog.e(TAG, "❌ Erro ao migrar despesas de '{}': {}", key, e.getMessage());
+            }
+            if (editor == null) {
+                editor = prefs.edit();
+            }
+            editor.remove(key);
+        }
+        if (editor != null) {
+            ring.sync();
+            editor.commit();
+        }
+    }
+
+    private static void migrateRingV1(File file, PendingExpenseRing ring) {
+        if (!file.exists()) {
+            return;
+        }
+
+        int migrated = 0;
+        try {
+            RandomAccessFile raw = new RandomAccessFile(file, "r");
+            byte[] bytes;
+            try {
+                bytes = new byte[(int) Math.min(raw.length(), Integer.MAX_VALUE)];
+                raw.readFully(bytes);
+            } finally {
+                raw.close();
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (bytes.length >= RING_V1_HEADER_SIZE
+                    && buffer.getInt(0) == RING_V1_MAGIC
+                    && buffer.getInt(4) == 1
+                    && buffer.getInt(8) > 0
+                    && buffer.getInt(12) == RING_V1_SLOT_SIZE) {
+                int capacity = buffer.getInt(8);
+                long startSeq = buffer.getLong(16);
+                long writeSeq = buffer.getLong(24);
+                CRC32 crc = new CRC32();
+                for (long seq = Math.max(startSeq, writeSeq - capacity); seq < writeSeq; seq++) {
+                    int base = RING_V1_HEADER_SIZE + (int) (seq % capacity) * RING_V1_SLOT_SIZE;
+                    if (base + RING_V1_SLOT_SIZE > bytes.length || buffer.getLong(base + 4) != seq) {
+                        continue;
+                    }
+                    crc.reset();
+                    crc.update(bytes, base + 4, RING_V1_SLOT_SIZE - 4);
+                    if ((int) crc.getValue() != buffer.getInt(base)) {
+                        continue;
+                    }
+                    long timestamp = buffer.getLong(base + 12);
+                    ring.append(ExpenseIdGenerator.next(timestamp), timestamp,
+                        ringV1String(bytes, base + 32), buffer.getLong(base + 20),
+                        ringV1String(bytes, base + 160), ringV1String(bytes, base + 64),
+                        ringV1String(bytes, base + 96),
+                        buffer.getShort(base + 28), buffer.getShort(base + 30));
+                    migrated++;
+                }
+            }
+        } catch (IOException e) {
+            BudgetLog.e(TAG, "❌ Erro ao migrar ring antigo: {}", e.getMessage());
+        }
+
+        ring.sync();
+        if (!file.delete()) {
+            BudgetLog.w(TAG, "⚠️ Não foi possível remover o ring antigo");
+        }
+        BudgetLog.d(TAG, "📦 Migradas {} despesas do ring antigo", migrated);
+    }
+
+    // Texto do ring versão 1: 1 byte de tamanho (0xFF = null) + bytes UTF-8
+    private static String ringV1String(byte[] bytes, int offset) {
+        int length = bytes[offset] & 0xFF;
+        if (length == 0xFF) {
+            return null;
+        }
+        return new String(bytes, offset + 1, length, StandardCharsets.UTF_8);
+    }
+}
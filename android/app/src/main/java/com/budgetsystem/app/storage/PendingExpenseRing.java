@@ -0,0 +1,590 @@
+package com.budgetsystem.app.storage;
+
+import android.content.Context;
+import com.budgetsystem.app.utils.BudgetLog;
+import com.budgetsystem.app.utils.Constants;
+import com.budgetsystem.app.utils.ExpenseIdGenerator;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Ring buffer de despesas pendentes (capturadas com o app fechado) em um arquivo mapeado em memória.
+ *
+ * - Capacidade fixa ({@link Constants#MAX_PENDING_EXPENSES}): o arquivo tem sempre o mesmo
+ *   tamanho, então memória e custo de abertura não crescem com o tempo que o app ficou fechado.
+ * - Sequências estáveis: cada despesa recebe uma sequência crescente (o "id" no JSON) que
+ *   nunca muda enquanto ela está no buffer, então cursores de paginação e confirmações
+ *   ({@link #acknowledge(long[])}) continuam valendo. O slot é só o lugar físico: slots
+ *   confirmados (livres) são reaproveitados por despesas novas, em qualquer posição.
+ * - Política explícita de OVERWRITE_OLDEST: só com todos os slots ocupados por despesas não
+ *   confirmadas a mais antiga é sobrescrita e {@link #getOverwrittenCount()} é incrementado.
+ * - Escrita sem alocação: os campos são gravados direto no buffer mapeado (texto em UTF-8,
+ *   truncado em fronteira de caractere se passar da largura do campo).
+ * - Leitura sem cópia: {@link #forEach(Visitor)} entrega uma {@link RecordView} que lê direto
+ *   do buffer mapeado; só os campos pedidos são decodificados. Leitura paginada por cursor
+ *   (sequência) e remoção só do que o app confirmou ({@link #acknowledge(long[])}).
+ *
+ * Cada slot guarda sua sequência e um CRC32; slot com sequência ou CRC inválidos (escrita
+ * interrompida), confirmado ou de antes do último {@link #clear()} é livre. Na abertura um
+ * índice em memória (slot de cada despesa, em ordem de sequência) é montado a partir dos slots. Cada despesa guarda também o id gerado na detecção
+ * ({@link ExpenseIdGenerator}), o mesmo do evento do plugin e da Cloud Function.
+ */
+public final class PendingExpenseRing {
+    private static final String TAG = "PendingExpenseRing";
+
+    // Versão 2 (com id da despesa) usa outro arquivo; o da versão 1 é migrado na abertura
+    static final String FILE_NAME = "pending_expenses.v2.ring";
+
+    private static final int MAGIC = 0x42535231; // "BSR1"
+    private static final int VERSION = 2;
+
+    // Cabeçalho do arquivo
+    private static final int HEADER_SIZE = 64;
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_CAPACITY = 8;
+    private static final int H_SLOT_SIZE = 12;
+    private static final int H_START_SEQ = 16;     // sequência da despesa mais antiga (ou writeSeq)
+    private static final int H_WRITE_SEQ = 24;     // próxima sequência a escrever
+    private static final int H_OVERWRITTEN = 32;   // total de despesas sobrescritas
+
+    // Layout de cada slot (largura fixa)
+    static final int SLOT_SIZE = 296;
+    private static final int S_CRC = 0;            // int, sobre [S_SEQ, SLOT_SIZE)
+    private static final int S_SEQ = 4;            // long
+    private static final int S_TIMESTAMP = 12;     // long
+    private static final int S_AMOUNT_CENTS = 20;  // long
+    private static final int S_INSTALLMENT_NUMBER = 28; // short
+    private static final int S_INSTALLMENT_TOTAL = 30;  // short
+    private static final int S_EXPENSE_ID = 32;    // long
+    private static final int S_BANK = 40;
+    private static final int S_CATEGORY = 72;
+    private static final int S_MERCHANT = 104;
+    private static final int S_DESCRIPTION = 168;
+
+    // Campos de texto: 1 byte de tamanho + bytes UTF-8
+    private static final int F_BANK = 32;
+    private static final int F_CATEGORY = 32;
+    private static final int F_MERCHANT = 64;
+    private static final int F_DESCRIPTION = 128;
+    private static final int NULL_LENGTH = 0xFF;
+
+    private static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int n = 0; n < 256; n++) {
+            int c = n;
+            for (int k = 0; k < 8; k++) {
+                c = (c & 1) != 0 ? 0xEDB88320 ^ (c >>> 1) : c >>> 1;
+            }
+            CRC_TABLE[n] = c;
+        }
+    }
+
+    private static PendingExpenseRing instance;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final RecordView view = new RecordView();
+
+    // Índice em memória: sequência guardada em cada slot (-1 = livre) e slots ocupados em
+    // ordem crescente de sequência
+    private final long[] slotSeqs;
+    private final int[] order;
+    private int orderSize;
+
+    private long startSeq;
+    private long writeSeq;
+    private long overwrittenCount;
+    private boolean reset;
+
+    private int unsyncedRecords;
+    private long lastSyncTime;
+
+    /**
+     * Visita as despesas do buffer, da mais antiga para a mais nova.
+     */
+    public interface Visitor {
+        void onRecord(RecordView record);
+    }
+
+    PendingExpenseRing(File path, int capacity) throws IOException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva: " + capacity);
+        }
+        this.capacity = capacity;
+        this.slotSeqs = new long[capacity];
+        this.order = new int[capacity];
+
+        long size = HEADER_SIZE + (long) capacity * SLOT_SIZE;
+        file = new RandomAccessFile(path, "rw");
+        if (file.length() != size) {
+            file.setLength(size);
+        }
+        buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+        startSeq = buffer.getLong(H_START_SEQ);
+        writeSeq = buffer.getLong(H_WRITE_SEQ);
+        overwrittenCount = buffer.getLong(H_OVERWRITTEN);
+
+        boolean validHeader = buffer.getInt(H_MAGIC) == MAGIC
+            && buffer.getInt(H_VERSION) == VERSION
+            && buffer.getInt(H_CAPACITY) == capacity
+            && buffer.getInt(H_SLOT_SIZE) == SLOT_SIZE
+            && startSeq >= 0
+            && writeSeq >= startSeq;
+        if (!validHeader) {
+            // Arquivo novo, corrompido ou de outro layout: recomeça vazio
+            reset = buffer.getInt(H_MAGIC) != 0;
+            startSeq = 0;
+            writeSeq = 0;
+            overwrittenCount = 0;
+            buffer.putInt(H_MAGIC, MAGIC);
+            buffer.putInt(H_VERSION, VERSION);
+            buffer.putInt(H_CAPACITY, capacity);
+            buffer.putInt(H_SLOT_SIZE, SLOT_SIZE);
+            buffer.putLong(H_START_SEQ, 0);
+            buffer.putLong(H_WRITE_SEQ, 0);
+            buffer.putLong(H_OVERWRITTEN, 0);
+            buffer.force();
+        }
+        loadIndex();
+        lastSyncTime = System.currentTimeMillis();
+    }
+
+    public static synchronized PendingExpenseRing getInstance(Context context) throws IOException {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            PendingExpenseRing ring = new PendingExpenseRing(
+                new File(appContext.getFilesDir(), FILE_NAME), Constants.MAX_PENDING_EXPENSES);
+            if (ring.wasReset()) {
+                BudgetLog.w(TAG, "⚠️ Arquivo de despesas pendentes inválido, reinicializado");
+            }
+            LegacyPendingExpenses.migrate(appContext, ring);
+            instance = ring;
+        }
+        return instance;
+    }
+
+    /**
+     * Grava uma despesa no próximo slot. Não aloca memória.
+     *
+     * @return true se o buffer estava cheio e a despesa mais antiga foi sobrescrita
+     */
+    public synchronized boolean append(long expenseId, long timestamp, String bank, long amountCents,
+                                       String description, String category, String merchantName,
+                                       int installmentNumber, int installmentTotal) {
+        boolean overwrote = false;
+        int slot;
+        if (orderSize == capacity) {
+            // OVERWRITE_OLDEST: nenhum slot livre, reaproveita o da despesa mais antiga
+            slot = order[0];
+            removeFromOrder(0);
+            overwrote = true;
+            overwrittenCount++;
+            buffer.putLong(H_OVERWRITTEN, overwrittenCount);
+        } else {
+            slot = freeSlot();
+        }
+
+        int base = slotOffset(slot);
+        buffer.putLong(base + S_SEQ, writeSeq);
+        buffer.putLong(base + S_TIMESTAMP, timestamp);
+        buffer.putLong(base + S_AMOUNT_CENTS, amountCents);
+        buffer.putShort(base + S_INSTALLMENT_NUMBER, (short) installmentNumber);
+        buffer.putShort(base + S_INSTALLMENT_TOTAL, (short) installmentTotal);
+        buffer.putLong(base + S_EXPENSE_ID, expenseId);
+        putString(base + S_BANK, F_BANK, bank);
+        putString(base + S_CATEGORY, F_CATEGORY, category);
+        putString(base + S_MERCHANT, F_MERCHANT, merchantName);
+        putString(base + S_DESCRIPTION, F_DESCRIPTION, description);
+        buffer.putInt(base + S_CRC, crc(base + S_SEQ, base + SLOT_SIZE));
+
+        // Só publica o slot depois de escrito
+        slotSeqs[slot] = writeSeq;
+        order[orderSize++] = slot;
+        writeSeq++;
+        buffer.putLong(H_WRITE_SEQ, writeSeq);
+        updateStartSeq();
+
+        unsyncedRecords++;
+        long now = System.currentTimeMillis();
+        if (unsyncedRecords >= Constants.PENDING_SYNC_EVERY
+                || now - lastSyncTime >= Constants.PENDING_SYNC_INTERVAL_MS) {
+            syncLocked();
+        }
+        return overwrote;
+    }
+
+    /**
+     * Grava uma despesa no formato JSON usado pelo app (amount em reais).
+     * Despesa sem "expenseId" (formatos antigos) ganha um id novo.
+     */
+    public boolean appendJson(JSONObject expense) {
+        long amountCents = expense.has("amountCents")
+            ? expense.optLong("amountCents")
+            : Math.round(expense.optDouble("amount", 0) * 100);
+        long timestamp = expense.optLong("timestamp", System.currentTimeMillis());
+        long expenseId = ExpenseIdGenerator.parse(expense.optString("expenseId", null));
+        return append(
+            expenseId != 0 ? expenseId : ExpenseIdGenerator.next(timestamp),
+            timestamp,
+            expense.optString("bank", "Outro"),
+            amountCents,
+            expense.optString("description", ""),
+            expense.optString("category", "Outros"),
+            expense.has("merchantName") ? expense.optString("merchantName") : null,
+            expense.optInt("installmentNumber", 0),
+            expense.optInt("installmentTotal", 0));
+    }
+
+    /**
+     * Visita as despesas válidas, da mais antiga para a mais nova. A {@link RecordView}
+     * é reutilizada e só vale dentro do callback.
+     *
+     * @return Quantidade de despesas visitadas
+     */
+    public int forEach(Visitor visitor) {
+        return forEach(-1, Integer.MAX_VALUE, visitor);
+    }
+
+    /**
+     * Visita até "limit" despesas válidas com sequência maior que "afterSeq" (cursor),
+     * da mais antiga para a mais nova. Cursor mais antigo que o início do buffer começa
+     * na despesa mais antiga ainda guardada.
+     *
+     * @return Quantidade de despesas visitadas
+     */
+    public synchronized int forEach(long afterSeq, int limit, Visitor visitor) {
+        int visited = 0;
+        for (int i = firstAfter(afterSeq); i < orderSize && visited < limit; i++) {
+            view.base = slotOffset(order[i]);
+            visitor.onRecord(view);
+            visited++;
+        }
+        return visited;
+    }
+
+    /**
+     * Há despesas válidas com sequência maior que "afterSeq"?
+     */
+    public synchronized boolean hasAfter(long afterSeq) {
+        return firstAfter(afterSeq) < orderSize;
+    }
+
+    /**
+     * Remove só as despesas confirmadas pelo app (pela sequência, o "id" no JSON).
+     * Despesas gravadas depois da leitura continuam no buffer, ao contrário de {@link #clear()}.
+     * Sequências desconhecidas ou já removidas são ignoradas.
+     *
+     * @return Quantidade de despesas removidas
+     */
+    public synchronized int acknowledge(long[] seqs) {
+        int removed = 0;
+        for (long seq : seqs) {
+            int index = firstAfter(seq - 1);
+            if (index == orderSize || slotSeqs[order[index]] != seq) {
+                continue;
+            }
+            // Invalida o slot (a sequência gravada deixa de bater) e o libera
+            int slot = order[index];
+            buffer.putLong(slotOffset(slot) + S_SEQ, -1L);
+            slotSeqs[slot] = -1L;
+            removeFromOrder(index);
+            removed++;
+        }
+        updateStartSeq();
+
+        if (removed > 0) {
+            buffer.force();
+            unsyncedRecords = 0;
+            lastSyncTime = System.currentTimeMillis();
+        }
+        return removed;
+    }
+
+    /**
+     * Quantidade de despesas válidas no buffer.
+     */
+    public synchronized int size() {
+        return orderSize;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Total de despesas perdidas por sobrescrita desde a criação do arquivo.
+     */
+    public synchronized long getOverwrittenCount() {
+        return overwrittenCount;
+    }
+
+    /**
+     * True se o arquivo existente era inválido e foi reinicializado na abertura.
+     */
+    boolean wasReset() {
+        return reset;
+    }
+
+    /**
+     * Remove todas as despesas, inclusive as gravadas depois da última leitura do app.
+     * Prefira {@link #acknowledge(long[])}.
+     */
+    public synchronized void clear() {
+        // Slots com sequência anterior ao início passam a ser livres
+        startSeq = writeSeq;
+        buffer.putLong(H_START_SEQ, startSeq);
+        for (int slot = 0; slot < capacity; slot++) {
+            slotSeqs[slot] = -1L;
+        }
+        orderSize = 0;
+        buffer.force();
+        unsyncedRecords = 0;
+        lastSyncTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Força a gravação em disco das páginas alteradas.
+     */
+    public synchronized void sync() {
+        syncLocked();
+    }
+
+    synchronized void close() throws IOException {
+        syncLocked();
+        file.close();
+    }
+
+    // ==================== INTERNOS ====================
+
+    /**
+     * Monta o índice em memória a partir dos slots: vale o slot com CRC correto e sequência
+     * em [startSeq, writeSeq). Ordena por sequência (inserção; a capacidade é pequena).
+     */
+    private void loadIndex() {
+        orderSize = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            int base = slotOffset(slot);
+            long seq = buffer.getLong(base + S_SEQ);
+            if (seq < startSeq || seq >= writeSeq
+                    || buffer.getInt(base + S_CRC) != crc(base + S_SEQ, base + SLOT_SIZE)) {
+                slotSeqs[slot] = -1L;
+                continue;
+            }
+            slotSeqs[slot] = seq;
+            int i = orderSize++;
+            while (i > 0 && slotSeqs[order[i - 1]] > seq) {
+                order[i] = order[i - 1];
+                i--;
+            }
+            order[i] = slot;
+        }
+    }
+
+    /**
+     * Slot livre, procurando a partir da posição de writeSeq (distribui as escritas pelo arquivo).
+     * Só chamar com orderSize < capacity.
+     */
+    private int freeSlot() {
+        int start = (int) (writeSeq % capacity);
+        for (int i = 0; i < capacity; i++) {
+            int slot = (start + i) % capacity;
+            if (slotSeqs[slot] < 0) {
+                return slot;
+            }
+        }
+        throw new IllegalStateException("Nenhum slot livre");
+    }
+
+    /**
+     * Posição em order da primeira despesa com sequência maior que afterSeq (busca binária).
+     */
+    private int firstAfter(long afterSeq) {
+        int low = 0;
+        int high = orderSize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (slotSeqs[order[mid]] <= afterSeq) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void removeFromOrder(int index) {
+        System.arraycopy(order, index + 1, order, index, orderSize - index - 1);
+        orderSize--;
+    }
+
+    /**
+     * O início passa a ser a sequência da despesa mais antiga (ou writeSeq, se vazio).
+     */
+    private void updateStartSeq() {
+        startSeq = orderSize > 0 ? slotSeqs[order[0]] : writeSeq;
+        buffer.putLong(H_START_SEQ, startSeq);
+    }
+
+    private int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private void syncLocked() {
+        if (unsyncedRecords > 0) {
+            buffer.force();
+        }
+        unsyncedRecords = 0;
+        lastSyncTime = System.currentTimeMillis();
+    }
+
+    private int crc(int from, int to) {
+        int c = 0xFFFFFFFF;
+        for (int i = from; i < to; i++) {
+            c = CRC_TABLE[(c ^ buffer.get(i)) & 0xFF] ^ (c >>> 8);
+        }
+        return ~c;
+    }
+
+    /**
+     * Escreve o texto em UTF-8 direto no buffer, truncando em fronteira de caractere.
+     */
+    private void putString(int offset, int fieldSize, String value) {
+        if (value == null) {
+            buffer.put(offset, (byte) NULL_LENGTH);
+            return;
+        }
+
+        int pos = offset + 1;
+        int limit = offset + fieldSize;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            int cp = value.charAt(i);
+            int chars = 1;
+            if (Character.isHighSurrogate((char) cp) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                cp = Character.toCodePoint((char) cp, value.charAt(i + 1));
+                chars = 2;
+            } else if (Character.isSurrogate((char) cp)) {
+                cp = '?';
+            }
+
+            int bytes = cp < 0x80 ? 1 : cp < 0x800 ? 2 : cp < 0x10000 ? 3 : 4;
+            if (pos + bytes > limit) {
+                break;
+            }
+            if (bytes == 1) {
+                buffer.put(pos, (byte) cp);
+            } else if (bytes == 2) {
+                buffer.put(pos, (byte) (0xC0 | (cp >> 6)));
+                buffer.put(pos + 1, (byte) (0x80 | (cp & 0x3F)));
+            } else if (bytes == 3) {
+                buffer.put(pos, (byte) (0xE0 | (cp >> 12)));
+                buffer.put(pos + 1, (byte) (0x80 | ((cp >> 6) & 0x3F)));
+                buffer.put(pos + 2, (byte) (0x80 | (cp & 0x3F)));
+            } else {
+                buffer.put(pos, (byte) (0xF0 | (cp >> 18)));
+                buffer.put(pos + 1, (byte) (0x80 | ((cp >> 12) & 0x3F)));
+                buffer.put(pos + 2, (byte) (0x80 | ((cp >> 6) & 0x3F)));
+                buffer.put(pos + 3, (byte) (0x80 | (cp & 0x3F)));
+            }
+            pos += bytes;
+            i += chars - 1;
+        }
+        buffer.put(offset, (byte) (pos - offset - 1));
+    }
+
+    private String getString(int offset, byte[] scratch) {
+        int length = buffer.get(offset) & 0xFF;
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[i] = buffer.get(offset + 1 + i);
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Visão de um slot do buffer mapeado. Os getters leem direto do arquivo mapeado.
+     */
+    public final class RecordView {
+        private final byte[] scratch = new byte[F_DESCRIPTION];
+        private int base;
+
+        private RecordView() {
+        }
+
+        public long getSequence() {
+            return buffer.getLong(base + S_SEQ);
+        }
+
+        public long getExpenseId() {
+            return buffer.getLong(base + S_EXPENSE_ID);
+        }
+
+        public long getTimestamp() {
+            return buffer.getLong(base + S_TIMESTAMP);
+        }
+
+        public long getAmountCents() {
+            return buffer.getLong(base + S_AMOUNT_CENTS);
+        }
+
+        public int getInstallmentNumber() {
+            return buffer.getShort(base + S_INSTALLMENT_NUMBER);
+        }
+
+        public int getInstallmentTotal() {
+            return buffer.getShort(base + S_INSTALLMENT_TOTAL);
+        }
+
+        public String getBank() {
+            return getString(base + S_BANK, scratch);
+        }
+
+        public String getCategory() {
+            return getString(base + S_CATEGORY, scratch);
+        }
+
+        public String getMerchantName() {
+            return getString(base + S_MERCHANT, scratch);
+        }
+
+        public String getDescription() {
+            return getString(base + S_DESCRIPTION, scratch);
+        }
+
+        /**
+         * Copia os campos para o formato JSON usado pelo app (amount em reais).
+         */
+        public void writeTo(JSONObject target) throws JSONException {
+            target.put("id", getSequence());
+            target.put("expenseId", ExpenseIdGenerator.format(getExpenseId()));
+            target.put("bank", getBank());
+            target.put("amount", getAmountCents() / 100.0);
+            target.put("amountCents", getAmountCents());
+            target.put("description", getDescription());
+            target.put("category", getCategory());
+            target.put("timestamp", getTimestamp());
+
+            String merchantName = getMerchantName();
+            if (merchantName != null && !merchantName.isEmpty()) {
+                target.put("merchantName", merchantName);
+            }
+            if (getInstallmentTotal() > 0) {
+                target.put("installmentNumber", getInstallmentNumber());
+                target.put("installmentTotal", getInstallmentTotal());
+            }
+        }
+    }
+}
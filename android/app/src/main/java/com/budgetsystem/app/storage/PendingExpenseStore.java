@@ -0,0 +1,382 @@
+package com.budgetsystem.app.storage;
+
+import android.content.Context;
+import com.budgetsystem.app.utils.BudgetLog;
+import com.budgetsystem.app.utils.PipelineMetrics;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Ponto único de acesso às despesas pendentes, usado por todos os produtores (pipeline de
+ * notificações, MockNotificationReceiver, PreferencesManager) e pelo NotificationPlugin.
+ *
+ * - Uma única thread escritora é dona do {@link PendingExpenseRing}: nada de
+ *   read-modify-write concorrente entre receivers.
+ * - Group commit: {@link #append} só enfileira; a thread grava tudo o que acumulou
+ *   desde o último commit e faz um único force() em disco para o grupo.
+ * - {@link #clear} e {@link #replaceAll} entram na mesma fila de commit: valem para os appends
+ *   enfileirados antes deles, nunca para os de depois.
+ * - API assíncrona: {@link #drain} (página por cursor), {@link #ack} e {@link #count} respondem
+ *   por callback, na thread escritora, depois dos appends enfileirados antes deles. Nenhuma
+ *   leitura acontece fora da thread escritora.
+ */
+public final class PendingExpenseStore {
+    private static final String TAG = "PendingExpenseStore";
+
+    private static PendingExpenseStore instance;
+
+    private final Context context;
+    private final ExecutorService writer;
+    // Aberto na primeira operação, sempre na thread escritora
+    private PendingExpenseRing ring;
+
+    // Despesas aguardando o próximo commit (protegido por lock)
+    private final Object lock = new Object();
+    private List<Entry> pending = new ArrayList<>();
+    // Limpar o ring antes de gravar o próximo grupo (clear/replaceAll)
+    private boolean clearPending;
+    private boolean commitScheduled;
+
+    // Commits (force() em disco) feitos; só a thread escritora incrementa
+    private volatile long commits;
+
+    private final Runnable commitTask = new Runnable() {
+        @Override
+        public void run() {
+            commit();
+        }
+    };
+
+    /**
+     * Página de despesas pendentes (formato JSON do app, com "id" = cursor).
+     */
+    public static final class Page {
+        public final JSONArray expenses;
+        public final long nextCursor;
+        public final boolean hasMore;
+
+        Page(JSONArray expenses, long nextCursor, boolean hasMore) {
+            this.expenses = expenses;
+            this.nextCursor = nextCursor;
+            this.hasMore = hasMore;
+        }
+    }
+
+    public interface PageCallback {
+        void onPage(Page page);
+
+        void onError(Exception e);
+    }
+
+    public interface AckCallback {
+        void onAcknowledged(int removed);
+
+        void onError(Exception e);
+    }
+
+    public interface CountCallback {
+        void onCount(int count);
+
+        void onError(Exception e);
+    }
+
+    private PendingExpenseStore(Context context) {
+        this.context = context;
+        this.writer = Executors.newSingleThreadExecutor(new WriterThreadFactory());
+    }
+
+    public static synchronized PendingExpenseStore getInstance(Context context) {
+        if (instance == null) {
+            // O ring (e a migração dos formatos antigos) é aberto na thread escritora
+            instance = new PendingExpenseStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Enfileira uma despesa para o próximo commit. Nunca bloqueia.
+     */
+    public void append(long expenseId, long timestamp, String bank, long amountCents,
+                       String description, String category, String merchantName,
+                       int installmentNumber, int installmentTotal) {
+        enqueue(new Entry(expenseId, timestamp, bank, amountCents, description, category,
+            merchantName, installmentNumber, installmentTotal, null));
+    }
+
+    /**
+     * Enfileira uma despesa no formato JSON usado pelo app (ver {@link PendingExpenseRing#appendJson}).
+     */
+    public void appendJson(JSONObject expense) {
+        enqueue(new Entry(0, 0, null, 0, null, null, null, 0, 0, expense));
+    }
+
+    /**
+     * Lê até "limit" despesas depois do cursor "afterSeq" (-1 = do início). Não remove nada:
+     * o app confirma com {@link #ack} depois de salvar.
+     */
+    public void drain(final long afterSeq, final int limit, final PageCallback callback) {
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                Page page;
+                try {
+                    commit();
+                    page = readPage(ring(), afterSeq, limit);
+                } catch (IOException e) {
+                    BudgetLog.e(TAG, "❌ Erro ao ler despesas pendentes: {}", e.getMessage());
+                    callback.onError(e);
+                    return;
+                }
+                callback.onPage(page);
+            }
+        });
+    }
+
+    /**
+     * Remove só as despesas confirmadas (pelo "id" recebido em {@link #drain}).
+     */
+    public void ack(final long[] seqs, final AckCallback callback) {
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                int removed;
+                try {
+                    commit();
+                    removed = ring().acknowledge(seqs);
+                } catch (IOException e) {
+                    BudgetLog.e(TAG, "❌ Erro ao confirmar despesas pendentes: {}", e.getMessage());
+                    if (callback != null) {
+                        callback.onError(e);
+                    }
+                    return;
+                }
+                if (callback != null) {
+                    callback.onAcknowledged(removed);
+                }
+            }
+        });
+    }
+
+    /**
+     * Substitui todas as despesas pendentes pela lista informada (um único commit).
+     */
+    public void replaceAll(JSONArray expenses) {
+        List<Entry> entries = new ArrayList<>(expenses.length());
+        for (int i = 0; i < expenses.length(); i++) {
+            JSONObject expense = expenses.optJSONObject(i);
+            if (expense != null) {
+                entries.add(new Entry(0, 0, null, 0, null, null, null, 0, 0, expense));
+            }
+        }
+        resetPending(entries);
+    }
+
+    /**
+     * Remove todas as despesas, inclusive as ainda não lidas. Prefira {@link #ack}.
+     */
+    public void clear() {
+        resetPending(new ArrayList<Entry>());
+    }
+
+    /**
+     * Roda a ação na thread escritora depois de gravar tudo o que foi enfileirado antes
+     * (ex: o replay esperando as despesas chegarem ao disco).
+     */
+    public void afterCommit(final Runnable action) {
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                commit();
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Quantos commits (cada um com um único force() em disco) já foram feitos.
+     */
+    public long getCommitCount() {
+        return commits;
+    }
+
+    /**
+     * Quantidade de despesas pendentes, contando as enfileiradas antes da chamada.
+     */
+    public void count(final CountCallback callback) {
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                int count;
+                try {
+                    commit();
+                    count = ring().size();
+                } catch (IOException e) {
+                    BudgetLog.e(TAG, "❌ Erro ao contar despesas pendentes: {}", e.getMessage());
+                    callback.onError(e);
+                    return;
+                }
+                callback.onCount(count);
+            }
+        });
+    }
+
+    // ==================== INTERNOS ====================
+
+    private void enqueue(Entry entry) {
+        synchronized (lock) {
+            pending.add(entry);
+            if (commitScheduled) {
+                return;
+            }
+            commitScheduled = true;
+        }
+        writer.execute(commitTask);
+    }
+
+    /**
+     * Descarta o que ainda não foi gravado (seria apagado de qualquer forma) e pede para o
+     * próximo commit limpar o ring antes de gravar "entries" e o que chegar depois.
+     */
+    private void resetPending(List<Entry> entries) {
+        synchronized (lock) {
+            pending = entries;
+            clearPending = true;
+            if (commitScheduled) {
+                return;
+            }
+            commitScheduled = true;
+        }
+        writer.execute(commitTask);
+    }
+
+    /**
+     * Grava o grupo acumulado e faz um único force(). Só roda na thread escritora.
+     */
+    private void commit() {
+        List<Entry> group;
+        boolean clear;
+        synchronized (lock) {
+            commitScheduled = false;
+            if (pending.isEmpty() && !clearPending) {
+                return;
+            }
+            group = pending;
+            pending = new ArrayList<>();
+            clear = clearPending;
+            clearPending = false;
+        }
+
+        PendingExpenseRing ring;
+        try {
+            ring = ring();
+        } catch (IOException e) {
+            BudgetLog.e(TAG, "❌ Erro ao abrir despesas pendentes, {} despesa(s) perdida(s): {}",
+                group.size(), e.getMessage());
+            return;
+        }
+
+        if (clear) {
+            ring.clear();
+            if (group.isEmpty()) {
+                return;
+            }
+        }
+
+        long start = System.nanoTime();
+        int overwritten = 0;
+        for (Entry entry : group) {
+            boolean overwrote = entry.json != null
+                ? ring.appendJson(entry.json)
+                : ring.append(entry.expenseId, entry.timestamp, entry.bank, entry.amountCents,
+                    entry.description, entry.category, entry.merchantName,
+                    entry.installmentNumber, entry.installmentTotal);
+            if (overwrote) {
+                overwritten++;
+            }
+        }
+        ring.sync();
+        commits++;
+        PipelineMetrics.record(PipelineMetrics.Stage.PERSIST, start);
+
+        if (overwritten > 0) {
+            BudgetLog.w(TAG, "⚠️ Limite de pendentes atingido - {} despesa(s) mais antiga(s) sobrescrita(s) (total: {})",
+                overwritten, ring.getOverwrittenCount());
+        }
+        BudgetLog.d(TAG, "💾 {} despesa(s) salva(s) nas pendentes", group.size());
+    }
+
+    private PendingExpenseRing ring() throws IOException {
+        PendingExpenseRing current = ring;
+        if (current == null) {
+            current = PendingExpenseRing.getInstance(context);
+            ring = current;
+        }
+        return current;
+    }
+
+    private static Page readPage(PendingExpenseRing ring, long afterSeq, int limit) {
+        final JSONArray expenses = new JSONArray();
+        final long[] lastSeq = { afterSeq };
+        ring.forEach(afterSeq, limit, new PendingExpenseRing.Visitor() {
+            @Override
+            public void onRecord(PendingExpenseRing.RecordView record) {
+                JSONObject expense = new JSONObject();
+                try {
+                    record.writeTo(expense);
+                    expenses.put(expense);
+                } catch (JSONException e) {
+                    BudgetLog.e(TAG, "❌ Despesa pendente inválida: {}", e.getMessage());
+                }
+                lastSeq[0] = record.getSequence();
+            }
+        });
+        return new Page(expenses, lastSeq[0], ring.hasAfter(lastSeq[0]));
+    }
+
+    /**
+     * Despesa na fila de commit: campos já separados ou o JSON do app.
+     */
+    private static final class Entry {
+        final long expenseId;
+        final long timestamp;
+        final String bank;
+        final long amountCents;
+        final String description;
+        final String category;
+        final String merchantName;
+        final int installmentNumber;
+        final int installmentTotal;
+        final JSONObject json;
+
+        Entry(long expenseId, long timestamp, String bank, long amountCents, String description,
+              String category, String merchantName, int installmentNumber, int installmentTotal,
+              JSONObject json) {
+            this.expenseId = expenseId;
+            this.timestamp = timestamp;
+            this.bank = bank;
+            this.amountCents = amountCents;
+            this.description = description;
+            this.category = category;
+            this.merchantName = merchantName;
+            this.installmentNumber = installmentNumber;
+            this.installmentTotal = installmentTotal;
+            this.json = json;
+        }
+    }
+
+    private static final class WriterThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "PendingExpenseWriter");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
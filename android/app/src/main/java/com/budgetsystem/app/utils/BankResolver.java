@@ -0,0 +1,181 @@
+package com.budgetsystem.app.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolve o banco a partir do package da notificação.
+ *
+ * 1. Trie por segmentos do package ("br.com.bradesco.next" → br → com → bradesco → next),
+ *    com regras exatas (só o package inteiro) e de prefixo (o package e tudo abaixo dele).
+ *    Vence o match mais longo: "br.com.bradesco.next" é Next, "br.com.bradesco.app" é Bradesco.
+ * 2. Fallback por palavra-chave nos segmentos, da direita para a esquerda (o segmento mais
+ *    específico primeiro). Chaves curtas ("bb", "iti", "next"...) só valem como segmento inteiro,
+ *    para "com.bbc.news" ou "com.nextdoor" não virarem banco.
+ *
+ * Resultado determinístico e O(segmentos), com cache por package. Thread-safe.
+ */
+public final class BankResolver {
+
+    // Chaves até este tamanho só casam com um segmento inteiro
+    private static final int SHORT_KEY_LENGTH = 5;
+
+    private static final int CACHE_SIZE = 128;
+    private static final String NOT_A_BANK = "";
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        String exactBank;
+        String prefixBank;
+    }
+
+    private final Node root = new Node();
+    private final String[] segmentKeys;
+    private final String[] segmentBanks;
+
+    private final Map<String, String> cache = new LinkedHashMap<String, String>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private BankResolver(Builder builder) {
+        for (String[] rule : builder.exact) {
+            node(rule[0]).exactBank = rule[1];
+        }
+        for (String[] rule : builder.prefix) {
+            node(rule[0]).prefixBank = rule[1];
+        }
+
+        // Chave mais longa primeiro (e alfabética no empate): ordem de teste determinística
+        List<String[]> keywords = new ArrayList<>(builder.keywords);
+        Collections.sort(keywords, new Comparator<String[]>() {
+            @Override
+            public int compare(String[] a, String[] b) {
+                int byLength = b[0].length() - a[0].length();
+                return byLength != 0 ? byLength : a[0].compareTo(b[0]);
+            }
+        });
+        segmentKeys = new String[keywords.size()];
+        segmentBanks = new String[keywords.size()];
+        for (int i = 0; i < keywords.size(); i++) {
+            segmentKeys[i] = keywords.get(i)[0];
+            segmentBanks[i] = keywords.get(i)[1];
+        }
+    }
+
+    /**
+     * Nome do banco do package, ou null se não for um banco conhecido.
+     */
+    public String resolve(String packageName) {
+        if (packageName == null || packageName.isEmpty()) {
+            return null;
+        }
+
+        synchronized (cache) {
+            String cached = cache.get(packageName);
+            if (cached != null) {
+                return cached == NOT_A_BANK ? null : cached;
+            }
+        }
+
+        String[] segments = packageName.toLowerCase().split("\\.");
+        String bank = resolveInTrie(segments);
+        if (bank == null) {
+            bank = resolveBySegment(segments);
+        }
+
+        synchronized (cache) {
+            cache.put(packageName, bank != null ? bank : NOT_A_BANK);
+        }
+        return bank;
+    }
+
+    private String resolveInTrie(String[] segments) {
+        String best = null;
+        Node node = root;
+        for (int i = 0; i < segments.length; i++) {
+            node = node.children.get(segments[i]);
+            if (node == null) {
+                return best;
+            }
+            if (node.prefixBank != null) {
+                best = node.prefixBank;
+            }
+        }
+        return node.exactBank != null ? node.exactBank : best;
+    }
+
+    private String resolveBySegment(String[] segments) {
+        for (int s = segments.length - 1; s >= 0; s--) {
+            String segment = segments[s];
+            for (int k = 0; k < segmentKeys.length; k++) {
+                String key = segmentKeys[k];
+                boolean matches = key.length() <= SHORT_KEY_LENGTH
+                    ? segment.equals(key)
+                    : segment.contains(key);
+                if (matches) {
+                    return segmentBanks[k];
+                }
+            }
+        }
+        return null;
+    }
+
+    private Node node(String packageName) {
+        Node node = root;
+        for (String segment : packageName.split("\\.")) {
+            Node child = node.children.get(segment);
+            if (child == null) {
+                child = new Node();
+                node.children.put(segment, child);
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Monta um resolver. Packages e chaves em minúsculas.
+     */
+    public static final class Builder {
+        private final List<String[]> exact = new ArrayList<>();
+        private final List<String[]> prefix = new ArrayList<>();
+        private final List<String[]> keywords = new ArrayList<>();
+
+        /** O package exato ("com.nu.production"). */
+        public Builder exact(String packageName, String bank) {
+            exact.add(new String[] { packageName, bank });
+            return this;
+        }
+
+        /** O package e qualquer package abaixo dele ("br.com.bb" cobre "br.com.bb.android"). */
+        public Builder prefix(String packageName, String bank) {
+            prefix.add(new String[] { packageName, bank });
+            return this;
+        }
+
+        /** Palavra-chave procurada nos segmentos quando a trie não resolve. */
+        public Builder segmentKeyword(String keyword, String bank) {
+            keywords.add(new String[] { keyword, bank });
+            return this;
+        }
+
+        public Builder segmentKeywords(String bank, String... keywords) {
+            for (String keyword : keywords) {
+                segmentKeyword(keyword, bank);
+            }
+            return this;
+        }
+
+        public BankResolver build() {
+            return new BankResolver(this);
+        }
+    }
+}
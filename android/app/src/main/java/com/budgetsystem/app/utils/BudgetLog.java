@@ -0,0 +1,203 @@
+package com.budgetsystem.app.utils;
+
+import android.util.Log;
+import com.budgetsystem.app.BuildConfig;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Fachada de log do caminho das notificações (listener, pipeline, pendentes, upload).
+ *
+ * - v/d só existem em builds de debug: no release retornam na primeira linha e, com o
+ *   minify ativo, o R8 remove as chamadas inteiras (-assumenosideeffects em proguard-rules.pro).
+ * - Formatação preguiçosa: "Valor {} em {}" com os argumentos soltos; a string só é montada
+ *   se a linha for mesmo emitida. Em d, até 3 argumentos sem alocar array. Um Throwable como
+ *   terceiro argumento de w/e é a exceção da linha, não um argumento do formato.
+ * - i/w/e/event vão sempre para um log estruturado em memória ({@link LogRingBuffer}),
+ *   exportável pelo app para casos de suporte, mesmo abaixo do nível mínimo do logcat.
+ *
+ * Dados pessoais: título, texto, comércio e descrição das notificações só em v/d.
+ * i/w/e/event aparecem no logcat do release e no log exportado.
+ */
+public final class BudgetLog {
+
+    private static final boolean DEBUG = BuildConfig.DEBUG;
+
+    private static volatile int minLevel = DEBUG ? Log.DEBUG : Log.INFO;
+
+    private static final LogRingBuffer ring = new LogRingBuffer(Constants.DIAGNOSTIC_LOG_CAPACITY);
+
+    private BudgetLog() {
+        // Classe utilitária - não instanciar
+    }
+
+    /**
+     * Nível mínimo emitido no logcat (Log.VERBOSE..Log.ERROR). Abaixo de Log.INFO só tem
+     * efeito em builds de debug.
+     */
+    public static void setMinLevel(int level) {
+        minLevel = level;
+    }
+
+    public static boolean isLoggable(int level) {
+        return level >= minLevel && (DEBUG || level >= Log.INFO);
+    }
+
+    // ==================== DEBUG (removidos no release) ====================
+
+    public static void v(String tag, String message) {
+        if (isLoggable(Log.VERBOSE)) {
+            Log.v(tag, message);
+        }
+    }
+
+    public static void v(String tag, String format, Object arg) {
+        if (isLoggable(Log.VERBOSE)) {
+            Log.v(tag, format(format, arg));
+        }
+    }
+
+    public static void d(String tag, String message) {
+        if (isLoggable(Log.DEBUG)) {
+            Log.d(tag, message);
+        }
+    }
+
+    public static void d(String tag, String format, Object arg) {
+        if (isLoggable(Log.DEBUG)) {
+            Log.d(tag, format(format, arg));
+        }
+    }
+
+    public static void d(String tag, String format, Object arg1, Object arg2) {
+        if (isLoggable(Log.DEBUG)) {
+            Log.d(tag, format(format, arg1, arg2));
+        }
+    }
+
+    public static void d(String tag, String format, Object arg1, Object arg2, Object arg3) {
+        if (isLoggable(Log.DEBUG)) {
+            Log.d(tag, format(format, arg1, arg2, arg3));
+        }
+    }
+
+    // ==================== INFO / WARN / ERROR ====================
+
+    public static void i(String tag, String message) {
+        emit(Log.INFO, tag, message, null);
+    }
+
+    public static void i(String tag, String format, Object... args) {
+        emit(Log.INFO, tag, format(format, args), null);
+    }
+
+    public static void w(String tag, String message) {
+        emit(Log.WARN, tag, message, null);
+    }
+
+    public static void w(String tag, String message, Throwable error) {
+        emit(Log.WARN, tag, message, error);
+    }
+
+    public static void w(String tag, String format, Object... args) {
+        emit(Log.WARN, tag, format(format, args), null);
+    }
+
+    public static void e(String tag, String message) {
+        emit(Log.ERROR, tag, message, null);
+    }
+
+    public static void e(String tag, String message, Throwable error) {
+        emit(Log.ERROR, tag, message, error);
+    }
+
+    public static void e(String tag, String format, Object... args) {
+        emit(Log.ERROR, tag, format(format, args), null);
+    }
+
+    /**
+     * Evento estruturado só para o log exportável (no logcat apenas em debug):
+     * event(TAG, "expense", "bank", bank, "outcome", outcome) → "expense bank=Nubank outcome=EXPENSE".
+     *
+     * @param keyValues Pares chave, valor
+     */
+    public static void event(String tag, String name, Object... keyValues) {
+        StringBuilder sb = new StringBuilder(name);
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            sb.append(' ').append(keyValues[i]).append('=').append(keyValues[i + 1]);
+        }
+        String message = sb.toString();
+        ring.add(System.currentTimeMillis(), Log.INFO, tag, message);
+        if (isLoggable(Log.DEBUG)) {
+            Log.d(tag, message);
+        }
+    }
+
+    private static void emit(int level, String tag, String message, Throwable error) {
+        String line = error != null ? message + " (" + error.getClass().getSimpleName() + ")" : message;
+        ring.add(System.currentTimeMillis(), level, tag, line);
+        if (!isLoggable(level)) {
+            return;
+        }
+        if (level == Log.ERROR) {
+            Log.e(tag, message, error);
+        } else if (level == Log.WARN) {
+            Log.w(tag, message, error);
+        } else {
+            Log.i(tag, message);
+        }
+    }
+
+    // ==================== LOG ESTRUTURADO ====================
+
+    /**
+     * { entries: [{ t, level, tag, msg }], count, dropped, debugBuild }
+     */
+    public static JSONObject export() throws JSONException {
+        JSONArray entries = ring.toJson();
+        JSONObject result = new JSONObject();
+        result.put("entries", entries);
+        result.put("count", entries.length());
+        result.put("dropped", ring.getDroppedCount());
+        result.put("debugBuild", DEBUG);
+        return result;
+    }
+
+    public static void clear() {
+        ring.clear();
+    }
+
+    // ==================== FORMATAÇÃO ====================
+
+    /**
+     * Troca cada "{}" pelo próximo argumento. "{}" sem argumento fica como está;
+     * argumentos a mais são ignorados.
+     */
+    static String format(String format, Object... args) {
+        if (format == null || args == null || args.length == 0) {
+            return format;
+        }
+        StringBuilder sb = new StringBuilder(format.length() + 16 * args.length);
+        int argIndex = 0;
+        int from = 0;
+        int at;
+        while (argIndex < args.length && (at = format.indexOf("{}", from)) >= 0) {
+            sb.append(format, from, at).append(args[argIndex++]);
+            from = at + 2;
+        }
+        sb.append(format, from, format.length());
+        return sb.toString();
+    }
+
+    static String levelName(int level) {
+        switch (level) {
+            case Log.VERBOSE: return "V";
+            case Log.DEBUG: return "D";
+            case Log.INFO: return "I";
+            case Log.WARN: return "W";
+            case Log.ERROR: return "E";
+            default: return String.valueOf(level);
+        }
+    }
+}
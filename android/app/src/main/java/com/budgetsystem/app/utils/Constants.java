@@ -62,6 +62,11 @@ public final class Constants {
     public static final String KEY_PENDING_EXPENSES = "pendingExpenses";
     public static final String KEY_LAST_EXPENSE_TIMESTAMP = "lastExpenseTimestamp";
     
+    /**
+     * Janela em que as escritas do PreferencesManager são juntadas em um único commit.
+     */
+    public static final long PREFS_WRITE_BEHIND_WINDOW_MS = 200;
+    
     // ==================== FIREBASE CLOUD FUNCTIONS ====================
     
     public static final String FIREBASE_PROJECT = "budget-system-34ef8";
@@ -74,6 +79,39 @@ public final class Constants {
     public static final String FUNCTION_SEND_INVITE_NOTIFICATION = 
         FIREBASE_FUNCTIONS_BASE_URL + "/sendInviteNotification";
     
+    // ==================== EXPENSE UPLOAD ====================
+    
+    /**
+     * Janela para agrupar despesas em um único POST para a Cloud Function.
+     */
+    public static final long UPLOAD_BATCH_WINDOW_MS = 2000;
+    public static final int UPLOAD_BATCH_MAX_ITEMS = 20;
+    public static final int UPLOAD_WORKER_THREADS = 2;
+    public static final int UPLOAD_MAX_ATTEMPTS = 5;
+    public static final long UPLOAD_RETRY_BASE_DELAY_MS = 1000;
+    public static final long UPLOAD_RETRY_MAX_DELAY_MS = 60000;
+    
+    // ==================== PENDING EXPENSES STORE ====================
+    
+    /**
+     * Gravação em disco (force) das despesas pendentes a cada N registros ou após o intervalo.
+     */
+    public static final int PENDING_SYNC_EVERY = 8;
+    public static final long PENDING_SYNC_INTERVAL_MS = 1000;
+    
+    /**
+     * Tamanho padrão de página do loadPendingExpenses({ after, limit }).
+     */
+    public static final int PENDING_PAGE_SIZE = 20;
+    
+    // ==================== PARSING RULES ====================
+    
+    /**
+     * Arquivo de regras de parsing: baixado em filesDir ou embutido em assets. Vale o de maior
+     * versão, e só se for maior que DefaultRules.VERSION (as regras embutidas no código).
+     */
+    public static final String PARSING_RULES_FILE = "parsing_rules.bin";
+    
     // ==================== LOG TAGS ====================
     
     public static final String TAG_NOTIFICATION_LISTENER = "BudgetNotifListener";
@@ -107,6 +145,60 @@ public final class Constants {
     
     // ==================== LIMITS ====================
     
-    public static final int MAX_PROCESSED_NOTIFICATIONS = 100;
-    public static final int MAX_PENDING_EXPENSES = 50;
+    public static final int MAX_PROCESSED_NOTIFICATIONS = 256;
+    
+    /**
+     * Comércios distintos lembrados pelo parser (nome de exibição + categoria).
+     */
+    public static final int MAX_CACHED_MERCHANTS = 512;
+    
+    /**
+     * Por quanto tempo uma notificação processada é lembrada (notificações ativas
+     * são revistas a cada desbloqueio enquanto não forem dispensadas).
+     */
+    public static final long PROCESSED_NOTIFICATION_WINDOW_MS = 24 * 60 * 60 * 1000L;
+    
+    /**
+     * Mesma compra (valor, local, banco) com postTime a até esta distância é considerada
+     * duplicada (re-post da notificação). Curta para não juntar duas compras iguais de verdade.
+     */
+    public static final long EXPENSE_DUPLICATE_WINDOW_MS = 2 * 60 * 1000L;
+    public static final int MAX_PENDING_EXPENSES = 50; // capacidade do PendingExpenseRing
+    
+    /**
+     * Capacidade da fila de notificações aguardando processamento em background.
+     * Acima disso a mais antiga é descartada.
+     */
+    public static final int NOTIFICATION_QUEUE_CAPACITY = 64;
+    
+    /**
+     * Notificações processadas e comércios são gravados em disco uma vez por rajada, até este
+     * tempo depois do primeiro item (e em onDestroy do listener, esperando no máximo o timeout).
+     */
+    public static final long PROCESSOR_FLUSH_DELAY_MS = 2000;
+    public static final long PROCESSOR_FLUSH_TIMEOUT_MS = 1000;
+    
+    /**
+     * Despesas enviadas ao JavaScript em lote (evento "bankExpenses"): o primeiro item abre
+     * uma janela e tudo que chegar até ela fechar vai no mesmo evento. Lote cheio é enviado na hora.
+     */
+    public static final long EXPENSE_EVENT_BATCH_WINDOW_MS = 250;
+    public static final int EXPENSE_EVENT_BATCH_MAX = 20;
+    
+    /**
+     * Intervalo do resumo das métricas do pipeline no log (p50/p99 por etapa).
+     */
+    public static final long PIPELINE_METRICS_DUMP_INTERVAL_MS = 15 * 60 * 1000L;
+    
+    /**
+     * O modelo do CategoryClassifier é gravado em uma thread própria até este tempo depois da
+     * primeira correção: várias correções seguidas viram uma única gravação.
+     */
+    public static final long CLASSIFIER_SAVE_DELAY_MS = 3000;
+    
+    /**
+     * Linhas guardadas no log estruturado exportável (BudgetLog). As mais antigas são
+     * sobrescritas.
+     */
+    public static final int DIAGNOSTIC_LOG_CAPACITY = 300;
 }
@@ -1,13 +1,14 @@
 package com.budgetsystem.app.utils;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Arrays;
-import java.util.List;
+import com.budgetsystem.app.parsing.CategoryClassifier;
+import com.budgetsystem.app.parsing.ParsingRules;
 
 /**
- * Categoriza despesas baseado em palavras-chave encontradas no texto.
- * Centraliza a lógica de categorização que estava inline no código.
+ * Categoriza despesas a partir do texto (título, descrição ou nome do comércio).
+ *
+ * Usa as mesmas fontes do parser, para as duas categorizações não divergirem:
+ * 1. {@link CategoryClassifier}, aprendido com as categorias escolhidas pelo usuário
+ * 2. Palavras-chave das regras de parsing em uso ({@link ParsingRules})
  */
 public final class ExpenseCategorizer {
     
@@ -16,98 +17,31 @@ public final class ExpenseCategorizer {
     }
     
     /**
-     * Mapeamento de categoria para lista de palavras-chave.
+     * Categoriza o texto da despesa só pelas palavras-chave.
+     * 
+     * @param text Texto para categorizar (título ou descrição da notificação)
+     * @return Categoria identificada ou "Outros" se não identificada
      */
-    private static final Map<String, List<String>> CATEGORY_KEYWORDS = new HashMap<>();
-    
-    static {
-        // Alimentação
-        CATEGORY_KEYWORDS.put(Constants.CATEGORY_FOOD, Arrays.asList(
-            "alimentação", "alimentacao", "restaurante", "lanchonete",
-            "ifood", "rappi", "uber eats", "ubereats", "99food",
-            "mcdonald", "burger king", "subway", "pizza", "sushi",
-            "padaria", "mercado", "supermercado", "açougue", "acougue",
-            "café", "cafe", "cafeteria", "bar", "boteco",
-            "food", "refeição", "refeicao", "almoço", "almoco",
-            "jantar", "lanche", "delivery", "comida"
-        ));
-        
-        // Transporte
-        CATEGORY_KEYWORDS.put(Constants.CATEGORY_TRANSPORT, Arrays.asList(
-            "transporte", "uber", "99", "cabify", "taxi", "táxi",
-            "combustível", "combustivel", "gasolina", "etanol", "diesel",
-            "posto", "shell", "ipiranga", "br distribuidora", "ale",
-            "estacionamento", "parking", "pedágio", "pedagio",
-            "ônibus", "onibus", "metrô", "metro", "trem",
-            "passagem", "bilhete", "mobilidade"
-        ));
-        
-        // Entretenimento
-        CATEGORY_KEYWORDS.put(Constants.CATEGORY_ENTERTAINMENT, Arrays.asList(
-            "entretenimento", "cinema", "cinemark", "uci", "kinoplex",
-            "netflix", "spotify", "amazon prime", "disney", "hbo",
-            "youtube", "twitch", "gaming", "game", "jogo",
-            "show", "teatro", "museu", "parque", "diversão", "diversao",
-            "ingresso", "evento", "festa", "balada", "bar"
-        ));
-        
-        // Compras
-        CATEGORY_KEYWORDS.put(Constants.CATEGORY_SHOPPING, Arrays.asList(
-            "compras", "shopping", "loja", "magazine", "americanas",
-            "amazon", "mercado livre", "shopee", "aliexpress", "shein",
-            "renner", "riachuelo", "c&a", "marisa", "zara",
-            "roupas", "calçados", "calcados", "acessórios", "acessorios",
-            "eletrônicos", "eletronicos", "celular", "notebook"
-        ));
-        
-        // Serviços
-        CATEGORY_KEYWORDS.put(Constants.CATEGORY_SERVICES, Arrays.asList(
-            "serviços", "servicos", "serviço", "servico",
-            "internet", "telefone", "celular", "luz", "energia",
-            "água", "agua", "gás", "gas", "condomínio", "condominio",
-            "aluguel", "assinatura", "mensalidade", "fatura",
-            "conta", "boleto", "taxa", "tarifa"
-        ));
-        
-        // Saúde
-        CATEGORY_KEYWORDS.put(Constants.CATEGORY_HEALTH, Arrays.asList(
-            "saúde", "saude", "farmácia", "farmacia", "drogaria",
-            "droga raia", "drogasil", "pague menos", "panvel",
-            "médico", "medico", "consulta", "exame", "laboratório", "laboratorio",
-            "hospital", "clínica", "clinica", "dentista", "odonto",
-            "remédio", "remedio", "medicamento", "plano de saúde", "plano de saude"
-        ));
+    public static String categorize(String text) {
+        return categorize(text, null);
     }
     
     /**
-     * Categoriza o texto da despesa.
+     * Categoriza o texto, consultando primeiro o classificador aprendido (se confiante).
      * 
-     * @param text Texto para categorizar (título ou descrição da notificação)
+     * @param classifier Classificador do usuário, pode ser null
      * @return Categoria identificada ou "Outros" se não identificada
      */
-    public static String categorize(String text) {
+    public static String categorize(String text, CategoryClassifier classifier) {
         if (text == null || text.isEmpty()) {
             return Constants.CATEGORY_OTHER;
         }
         
-        String lowerText = text.toLowerCase();
-        
-        for (Map.Entry<String, List<String>> entry : CATEGORY_KEYWORDS.entrySet()) {
-            for (String keyword : entry.getValue()) {
-                if (lowerText.contains(keyword)) {
-                    return entry.getKey();
-                }
-            }
+        String category = classifier != null ? classifier.predict(text) : null;
+        if (category == null) {
+            category = ParsingRules.current().categorize(text);
         }
-        
-        return Constants.CATEGORY_OTHER;
-    }
-    
-    /**
-     * Retorna as palavras-chave de uma categoria específica.
-     */
-    public static List<String> getKeywordsForCategory(String category) {
-        return CATEGORY_KEYWORDS.getOrDefault(category, Arrays.asList());
+        return category != null ? category : Constants.CATEGORY_OTHER;
     }
     
     /**
@@ -115,15 +49,6 @@ public final class ExpenseCategorizer {
      */
     public static boolean matchesCategory(String text, String category) {
         if (text == null || category == null) return false;
-        
-        List<String> keywords = getKeywordsForCategory(category);
-        String lowerText = text.toLowerCase();
-        
-        for (String keyword : keywords) {
-            if (lowerText.contains(keyword)) {
-                return true;
-            }
-        }
-        return false;
+        return category.equals(ParsingRules.current().categorize(text));
     }
 }
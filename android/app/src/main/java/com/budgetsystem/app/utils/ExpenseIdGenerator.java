@@ -0,0 +1,98 @@
+package com.budgetsystem.app.utils;
+
+import java.security.SecureRandom;
+
+/**
+ * Gera o id de cada despesa detectada, no estilo Snowflake (63 bits, sempre positivo):
+ *
+ *   [41 bits ms desde 2024-01-01][10 bits nó][12 bits sequência]
+ *
+ * - Ordenado pelo tempo: ids mais novos são maiores (relógio voltando não gera id menor).
+ * - Nó aleatório por processo: dois processos no mesmo ms não colidem na prática.
+ * - Até 4096 ids por ms; além disso, "empresta" o ms seguinte.
+ *
+ * O mesmo id acompanha a despesa no evento do plugin, nas despesas pendentes e no POST da
+ * Cloud Function, para cada camada descartar repetidas em O(1) e retries serem seguros.
+ * No JSON vai como String ({@link #format(long)}): o number do JavaScript só tem 53 bits.
+ */
+public final class ExpenseIdGenerator {
+
+    // 2024-01-01T00:00:00Z
+    static final long EPOCH_MS = 1704067200000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    private static final long NODE_MASK = (1L << NODE_BITS) - 1;
+
+    // Base 36 com largura fixa: a ordem das strings é a mesma dos números
+    private static final int FORMATTED_LENGTH = 13;
+
+    private static final long node = new SecureRandom().nextInt() & NODE_MASK;
+    private static long lastTime = -1;
+    private static long sequence;
+
+    private ExpenseIdGenerator() {
+        // Classe utilitária - não instanciar
+    }
+
+    /**
+     * Próximo id, com o horário atual.
+     */
+    public static long next() {
+        return next(System.currentTimeMillis());
+    }
+
+    /**
+     * Próximo id para o horário informado (ex: despesa migrada com timestamp antigo).
+     * Nunca menor que o último id gerado com horário igual ou posterior.
+     */
+    public static synchronized long next(long timeMs) {
+        long time = Math.max(timeMs - EPOCH_MS, 0);
+        if (time <= lastTime) {
+            time = lastTime;
+            sequence++;
+            if (sequence > MAX_SEQUENCE) {
+                time++;
+                sequence = 0;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTime = time;
+        return (time << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * Horário (ms desde 1970) embutido no id.
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MS;
+    }
+
+    /**
+     * Id como String de 13 caracteres (base 36, com zeros à esquerda).
+     */
+    public static String format(long id) {
+        String digits = Long.toString(id, 36);
+        StringBuilder sb = new StringBuilder(FORMATTED_LENGTH);
+        for (int i = digits.length(); i < FORMATTED_LENGTH; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    /**
+     * Id a partir de {@link #format(long)}, ou 0 se a String for nula ou inválida.
+     */
+    public static long parse(String formatted) {
+        if (formatted == null || formatted.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(formatted, 36);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.budgetsystem.app.utils;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Últimas N linhas do log estruturado do {@link BudgetLog}, em memória, para exportar em
+ * casos de suporte (NotificationPlugin.exportDiagnosticLog).
+ *
+ * Arrays paralelos de tamanho fixo: a mais antiga é sobrescrita e nada é alocado por linha
+ * além da própria mensagem. Não sobrevive à morte do processo.
+ */
+public final class LogRingBuffer {
+
+    private final long[] timestamps;
+    private final int[] levels;
+    private final String[] tags;
+    private final String[] messages;
+
+    private int next;
+    private int size;
+    private long dropped;
+
+    public LogRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva: " + capacity);
+        }
+        timestamps = new long[capacity];
+        levels = new int[capacity];
+        tags = new String[capacity];
+        messages = new String[capacity];
+    }
+
+    public synchronized void add(long timestamp, int level, String tag, String message) {
+        if (size == timestamps.length) {
+            dropped++;
+        } else {
+            size++;
+        }
+        timestamps[next] = timestamp;
+        levels[next] = level;
+        tags[next] = tag;
+        messages[next] = message;
+        next = (next + 1) % timestamps.length;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Linhas sobrescritas por falta de espaço desde o último {@link #clear()}.
+     */
+    public synchronized long getDroppedCount() {
+        return dropped;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = null;
+            messages[i] = null;
+        }
+        next = 0;
+        size = 0;
+        dropped = 0;
+    }
+
+    /**
+     * Linhas da mais antiga para a mais nova: [{ t, level, tag, msg }].
+     */
+    public synchronized JSONArray toJson() throws JSONException {
+        JSONArray entries = new JSONArray();
+        int start = (next - size + timestamps.length) % timestamps.length;
+        for (int i = 0; i < size; i++) {
+            int index = (start + i) % timestamps.length;
+            JSONObject entry = new JSONObject();
+            entry.put("t", timestamps[index]);
+            entry.put("level", BudgetLog.levelName(levels[index]));
+            entry.put("tag", tags[index]);
+            entry.put("msg", messages[index]);
+            entries.put(entry);
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,118 @@
+package com.budgetsystem.app.utils;
+
+import java.util.Locale;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Tempo gasto em cada etapa do processamento de notificações, em histogramas
+ * ({@link LatencyHistogram}) por etapa, desde o início do processo.
+ *
+ * Custo por amostra: dois System.nanoTime() e alguns incrementos atômicos, sem alocação
+ * e sem log. Lido pelo NotificationPlugin.getPipelineStats e pelo resumo periódico do
+ * NotificationPipeline.
+ */
+public final class PipelineMetrics {
+
+    /**
+     * Etapas medidas.
+     */
+    public enum Stage {
+        /** Prefiltro + snapshot, na thread do listener */
+        FILTER("filter"),
+        /** Parse (sem a categorização) */
+        PARSE("parse"),
+        CATEGORIZE("categorize"),
+        /** Cada gravação em disco (processadas, comércios, commit das pendentes) */
+        PERSIST("persist"),
+        /** Entrega da despesa ao NotificationPlugin */
+        PLUGIN("plugin"),
+        /** Cada POST de lote para a Cloud Function */
+        UPLOAD("upload");
+
+        final String key;
+
+        Stage(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final LatencyHistogram[] histograms = new LatencyHistogram[Stage.values().length];
+
+    static {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    private PipelineMetrics() {
+        // Classe utilitária - não instanciar
+    }
+
+    /**
+     * Registra a duração de uma etapa que começou em startNanos (System.nanoTime()).
+     */
+    public static void record(Stage stage, long startNanos) {
+        histograms[stage.ordinal()].recordNanos(System.nanoTime() - startNanos);
+    }
+
+    public static void recordNanos(Stage stage, long nanos) {
+        histograms[stage.ordinal()].recordNanos(nanos);
+    }
+
+    public static LatencyHistogram histogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    /**
+     * Por etapa: { count, p50Us, p90Us, p99Us, maxUs, meanUs }.
+     */
+    public static JSONObject toJson() throws JSONException {
+        JSONObject stages = new JSONObject();
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = histograms[stage.ordinal()];
+            JSONObject json = new JSONObject();
+            json.put("count", histogram.getCount());
+            json.put("p50Us", histogram.valueAtPercentile(50));
+            json.put("p90Us", histogram.valueAtPercentile(90));
+            json.put("p99Us", histogram.valueAtPercentile(99));
+            json.put("maxUs", histogram.getMaxMicros());
+            json.put("meanUs", histogram.getMeanMicros());
+            stages.put(stage.key, json);
+        }
+        return stages;
+    }
+
+    /**
+     * Uma linha com as etapas que têm amostras, ex:
+     * "filter n=812 p50=9µs p99=61µs | parse n=40 p50=210µs p99=1.9ms | ..."
+     */
+    public static String compactSummary() {
+        StringBuilder sb = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = histograms[stage.ordinal()];
+            long count = histogram.getCount();
+            if (count == 0) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(" | ");
+            }
+            sb.append(stage.key)
+                .append(" n=").append(count)
+                .append(" p50=").append(formatMicros(histogram.valueAtPercentile(50)))
+                .append(" p99=").append(formatMicros(histogram.valueAtPercentile(99)));
+        }
+        return sb.length() > 0 ? sb.toString() : "sem amostras";
+    }
+
+    static String formatMicros(long micros) {
+        if (micros < 1000) {
+            return micros + "µs";
+        }
+        if (micros < 1000000) {
+            return String.format(Locale.ROOT, "%.1fms", micros / 1000.0);
+        }
+        return String.format(Locale.ROOT, "%.1fs", micros / 1000000.0);
+    }
+}
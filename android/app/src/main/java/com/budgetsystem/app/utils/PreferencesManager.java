@@ -2,14 +2,16 @@ package com.budgetsystem.app.utils;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.util.Log;
+import com.budgetsystem.app.storage.PendingExpenseStore;
 import org.json.JSONArray;
-import org.json.JSONException;
 import org.json.JSONObject;
 
 /**
  * Centraliza todo o acesso às SharedPreferences.
  * Evita duplicação de código e inconsistências nos nomes de chaves.
+ *
+ * As escritas passam pelo {@link PreferencesWriteBehind}: são juntadas por uma janela curta
+ * e gravadas com um único commit() fora da main thread (chamar {@link #flush(Context)} em onDestroy).
  */
 public final class PreferencesManager {
     
@@ -20,6 +22,8 @@ public final class PreferencesManager {
     }
     
     // ==================== SHARED PREFERENCES INSTANCES ====================
+    // Acesso direto, sem o write-behind: não enxerga escritas ainda pendentes. Para ler
+    // chaves gravadas por esta classe, use os getters abaixo (ou getString).
     
     /**
      * Obtém as preferências gerais do app.
@@ -50,34 +54,28 @@ public final class PreferencesManager {
      */
     public static String getUserId(Context context) {
         // Tenta obter do Capacitor primeiro (formato JSON)
-        String capacitorValue = getCapacitorPrefs(context).getString(Constants.KEY_USER_ID, null);
+        String capacitorValue = writes(context).getString(Constants.PREFS_CAPACITOR, Constants.KEY_USER_ID, null);
         if (capacitorValue != null) {
             // Remove aspas se estiver em formato JSON
             return capacitorValue.replace("\"", "");
         }
         
         // Fallback para prefs do Budget
-        return getBudgetPrefs(context).getString(Constants.KEY_USER_ID, null);
+        return writes(context).getString(Constants.PREFS_BUDGET, Constants.KEY_USER_ID, null);
     }
     
     /**
      * Salva o ID do usuário.
      */
     public static void setUserId(Context context, String userId) {
-        getBudgetPrefs(context)
-            .edit()
-            .putString(Constants.KEY_USER_ID, userId)
-            .apply();
+        writes(context).putString(Constants.PREFS_BUDGET, Constants.KEY_USER_ID, userId);
     }
     
     /**
      * Remove o ID do usuário (logout).
      */
     public static void clearUserId(Context context) {
-        getBudgetPrefs(context)
-            .edit()
-            .remove(Constants.KEY_USER_ID)
-            .apply();
+        writes(context).remove(Constants.PREFS_BUDGET, Constants.KEY_USER_ID);
     }
     
     // ==================== FCM TOKEN ====================
@@ -86,72 +84,55 @@ public final class PreferencesManager {
      * Obtém o token FCM salvo.
      */
     public static String getFcmToken(Context context) {
-        return getBudgetPrefs(context).getString(Constants.KEY_FCM_TOKEN, null);
+        return writes(context).getString(Constants.PREFS_BUDGET, Constants.KEY_FCM_TOKEN, null);
     }
     
     /**
      * Salva o token FCM.
      */
     public static void setFcmToken(Context context, String token) {
-        getBudgetPrefs(context)
-            .edit()
-            .putString(Constants.KEY_FCM_TOKEN, token)
-            .apply();
+        writes(context).putString(Constants.PREFS_BUDGET, Constants.KEY_FCM_TOKEN, token);
     }
     
     // ==================== PENDING EXPENSES ====================
     
     /**
-     * Obtém a lista de despesas pendentes como JSONArray.
+     * Obtém todas as despesas pendentes (assíncrono, na thread do PendingExpenseStore,
+     * incluindo as ainda enfileiradas).
      */
-    public static JSONArray getPendingExpenses(Context context) {
-        String json = getPendingPrefs(context).getString(Constants.KEY_PENDING_EXPENSES, "[]");
-        try {
-            return new JSONArray(json);
-        } catch (JSONException e) {
-            Log.e(TAG, "Erro ao parsear despesas pendentes: " + e.getMessage());
-            return new JSONArray();
-        }
+    public static void getPendingExpenses(Context context, PendingExpenseStore.PageCallback callback) {
+        PendingExpenseStore.getInstance(context).drain(-1, Integer.MAX_VALUE, callback);
     }
     
     /**
-     * Adiciona uma nova despesa pendente.
+     * Adiciona uma nova despesa pendente (assíncrono, pelo PendingExpenseStore).
+     * Com o limite atingido, a mais antiga é sobrescrita.
      */
     public static void addPendingExpense(Context context, JSONObject expense) {
-        JSONArray expenses = getPendingExpenses(context);
-        expenses.put(expense);
-        savePendingExpenses(context, expenses);
-        
-        Log.d(TAG, "💾 Despesa pendente salva. Total: " + expenses.length());
+        PendingExpenseStore.getInstance(context).appendJson(expense);
+        BudgetLog.d(TAG, "💾 Despesa pendente enviada para o store");
     }
     
     /**
-     * Salva a lista completa de despesas pendentes.
+     * Substitui a lista completa de despesas pendentes (assíncrono).
      */
     public static void savePendingExpenses(Context context, JSONArray expenses) {
-        getPendingPrefs(context)
-            .edit()
-            .putString(Constants.KEY_PENDING_EXPENSES, expenses.toString())
-            .apply();
+        PendingExpenseStore.getInstance(context).replaceAll(expenses);
     }
     
     /**
-     * Limpa todas as despesas pendentes.
+     * Limpa todas as despesas pendentes (assíncrono).
      */
     public static void clearPendingExpenses(Context context) {
-        getPendingPrefs(context)
-            .edit()
-            .remove(Constants.KEY_PENDING_EXPENSES)
-            .apply();
-        
-        Log.d(TAG, "🗑️ Despesas pendentes limpas");
+        PendingExpenseStore.getInstance(context).clear();
+        BudgetLog.d(TAG, "🗑️ Limpeza das despesas pendentes enviada para o store");
     }
     
     /**
-     * Retorna a quantidade de despesas pendentes.
+     * Quantidade de despesas pendentes (assíncrono, pelo PendingExpenseStore).
      */
-    public static int getPendingExpensesCount(Context context) {
-        return getPendingExpenses(context).length();
+    public static void getPendingExpensesCount(Context context, PendingExpenseStore.CountCallback callback) {
+        PendingExpenseStore.getInstance(context).count(callback);
     }
     
     // ==================== EXPENSE TIMESTAMP (DUPLICATE DETECTION) ====================
@@ -161,17 +142,14 @@ public final class PreferencesManager {
      * Usado para evitar duplicatas.
      */
     public static long getLastExpenseTimestamp(Context context) {
-        return getBudgetPrefs(context).getLong(Constants.KEY_LAST_EXPENSE_TIMESTAMP, 0);
+        return writes(context).getLong(Constants.PREFS_BUDGET, Constants.KEY_LAST_EXPENSE_TIMESTAMP, 0);
     }
     
     /**
      * Salva o timestamp da última despesa processada.
      */
     public static void setLastExpenseTimestamp(Context context, long timestamp) {
-        getBudgetPrefs(context)
-            .edit()
-            .putLong(Constants.KEY_LAST_EXPENSE_TIMESTAMP, timestamp)
-            .apply();
+        writes(context).putLong(Constants.PREFS_BUDGET, Constants.KEY_LAST_EXPENSE_TIMESTAMP, timestamp);
     }
     
     /**
@@ -188,37 +166,47 @@ public final class PreferencesManager {
      * Obtém um valor string de qualquer preferência.
      */
     public static String getString(Context context, String prefsName, String key, String defaultValue) {
-        return context.getSharedPreferences(prefsName, Context.MODE_PRIVATE)
-            .getString(key, defaultValue);
+        return writes(context).getString(prefsName, key, defaultValue);
     }
     
     /**
      * Salva um valor string em qualquer preferência.
      */
     public static void setString(Context context, String prefsName, String key, String value) {
-        context.getSharedPreferences(prefsName, Context.MODE_PRIVATE)
-            .edit()
-            .putString(key, value)
-            .apply();
+        writes(context).putString(prefsName, key, value);
     }
     
     /**
      * Remove uma chave de qualquer preferência.
      */
     public static void remove(Context context, String prefsName, String key) {
-        context.getSharedPreferences(prefsName, Context.MODE_PRIVATE)
-            .edit()
-            .remove(key)
-            .apply();
+        writes(context).remove(prefsName, key);
     }
     
     /**
      * Limpa todas as preferências de um arquivo.
      */
     public static void clearAll(Context context, String prefsName) {
-        context.getSharedPreferences(prefsName, Context.MODE_PRIVATE)
-            .edit()
-            .clear()
-            .apply();
+        writes(context).clear(prefsName);
+    }
+    
+    // ==================== WRITE-BEHIND ====================
+    
+    /**
+     * Grava agora as escritas ainda pendentes. Chamar em onDestroy de services/activity.
+     */
+    public static void flush(Context context) {
+        writes(context).flush();
+    }
+    
+    /**
+     * Quantas escritas foram juntadas a outras em vez de gerar um commit próprio.
+     */
+    public static long getCoalescedWriteCount(Context context) {
+        return writes(context).getCoalescedWriteCount();
+    }
+    
+    private static PreferencesWriteBehind writes(Context context) {
+        return PreferencesWriteBehind.getInstance(context);
     }
 }
@@ -0,0 +1,257 @@
+package com.budgetsystem.app.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Camada write-behind das SharedPreferences usada pelo {@link PreferencesManager}.
+ *
+ * - As alterações ficam em memória por até {@link Constants#PREFS_WRITE_BEHIND_WINDOW_MS} e
+ *   viram um único commit() por arquivo de preferências (várias escritas, um flush em disco).
+ * - O commit() roda em uma thread própria: nada entra na QueuedWork do apply(), que o Android
+ *   espera na main thread em onPause/onStop e no fim de services.
+ * - Leituras pelo PreferencesManager enxergam as alterações ainda não gravadas.
+ * - {@link #flush()} grava tudo na hora (chamar em onDestroy).
+ */
+public final class PreferencesWriteBehind {
+    private static final String TAG = "PreferencesWriteBehind";
+
+    // Marca de chave removida (diferente de "sem alteração pendente")
+    private static final Object REMOVED = new Object();
+
+    private static PreferencesWriteBehind instance;
+
+    private final Context context;
+    private final ScheduledThreadPoolExecutor executor;
+
+    // Alterações pendentes por arquivo de preferências (protegido por lock)
+    private final Object lock = new Object();
+    private Map<String, PendingEdits> pending = new HashMap<>();
+    // Lote sendo gravado agora: continua visível para leitura até o commit terminar
+    private Map<String, PendingEdits> inFlight;
+    private ScheduledFuture<?> scheduledFlush;
+
+    // Um flush por vez, para lotes não serem gravados fora de ordem
+    private final Object writeLock = new Object();
+
+    private long requestedWrites;
+    private long commits;
+
+    private PreferencesWriteBehind(Context context) {
+        this.context = context.getApplicationContext();
+        this.executor = new ScheduledThreadPoolExecutor(1, new WriterThreadFactory());
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    public static synchronized PreferencesWriteBehind getInstance(Context context) {
+        if (instance == null) {
+            instance = new PreferencesWriteBehind(context);
+        }
+        return instance;
+    }
+
+    public void putString(String prefsName, String key, String value) {
+        put(prefsName, key, value != null ? value : REMOVED);
+    }
+
+    public void putLong(String prefsName, String key, long value) {
+        put(prefsName, key, value);
+    }
+
+    public void remove(String prefsName, String key) {
+        put(prefsName, key, REMOVED);
+    }
+
+    /**
+     * Limpa o arquivo inteiro (alterações pendentes anteriores são descartadas).
+     */
+    public void clear(String prefsName) {
+        synchronized (lock) {
+            PendingEdits edits = editsLocked(prefsName);
+            edits.clear = true;
+            edits.values.clear();
+            requestedWrites++;
+            scheduleLocked();
+        }
+    }
+
+    public String getString(String prefsName, String key, String defaultValue) {
+        Object value = lookup(prefsName, key);
+        if (value == null) {
+            return prefs(prefsName).getString(key, defaultValue);
+        }
+        return value instanceof String ? (String) value : defaultValue;
+    }
+
+    public long getLong(String prefsName, String key, long defaultValue) {
+        Object value = lookup(prefsName, key);
+        if (value == null) {
+            return prefs(prefsName).getLong(key, defaultValue);
+        }
+        return value instanceof Long ? (Long) value : defaultValue;
+    }
+
+    /**
+     * Grava agora, na thread chamadora, tudo o que está pendente. Para onDestroy de
+     * services/activity, quando o processo pode morrer antes da janela terminar.
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            Map<String, PendingEdits> batch = takePending();
+            if (batch == null) {
+                return;
+            }
+            try {
+                write(batch);
+            } finally {
+                synchronized (lock) {
+                    inFlight = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Escritas pedidas que não viraram um commit próprio (juntadas a outras).
+     */
+    public long getCoalescedWriteCount() {
+        synchronized (lock) {
+            return requestedWrites - commits;
+        }
+    }
+
+    public long getRequestedWriteCount() {
+        synchronized (lock) {
+            return requestedWrites;
+        }
+    }
+
+    public long getCommitCount() {
+        synchronized (lock) {
+            return commits;
+        }
+    }
+
+    // ==================== INTERNOS ====================
+
+    private void put(String prefsName, String key, Object value) {
+        synchronized (lock) {
+            editsLocked(prefsName).values.put(key, value);
+            requestedWrites++;
+            scheduleLocked();
+        }
+    }
+
+    /**
+     * Valor ainda não gravado: o valor, {@link #REMOVED} (removido/limpo) ou null (ler do disco).
+     */
+    private Object lookup(String prefsName, String key) {
+        synchronized (lock) {
+            Object value = lookupIn(pending, prefsName, key);
+            if (value == null && inFlight != null) {
+                value = lookupIn(inFlight, prefsName, key);
+            }
+            return value;
+        }
+    }
+
+    private static Object lookupIn(Map<String, PendingEdits> edits, String prefsName, String key) {
+        PendingEdits file = edits.get(prefsName);
+        if (file == null) {
+            return null;
+        }
+        if (file.values.containsKey(key)) {
+            return file.values.get(key);
+        }
+        return file.clear ? REMOVED : null;
+    }
+
+    private PendingEdits editsLocked(String prefsName) {
+        PendingEdits edits = pending.get(prefsName);
+        if (edits == null) {
+            edits = new PendingEdits();
+            pending.put(prefsName, edits);
+        }
+        return edits;
+    }
+
+    private void scheduleLocked() {
+        if (scheduledFlush != null) {
+            return;
+        }
+        scheduledFlush = executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, Constants.PREFS_WRITE_BEHIND_WINDOW_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private Map<String, PendingEdits> takePending() {
+        synchronized (lock) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (pending.isEmpty()) {
+                return null;
+            }
+            Map<String, PendingEdits> batch = pending;
+            pending = new HashMap<>();
+            inFlight = batch;
+            commits += batch.size();
+            return batch;
+        }
+    }
+
+    /**
+     * Um commit() por arquivo, com todas as alterações juntas.
+     */
+    private void write(Map<String, PendingEdits> batch) {
+        for (Map.Entry<String, PendingEdits> entry : batch.entrySet()) {
+            PendingEdits edits = entry.getValue();
+            SharedPreferences.Editor editor = prefs(entry.getKey()).edit();
+            if (edits.clear) {
+                editor.clear();
+            }
+            for (Map.Entry<String, Object> value : edits.values.entrySet()) {
+                Object v = value.getValue();
+                if (v == REMOVED) {
+                    editor.remove(value.getKey());
+                } else if (v instanceof Long) {
+                    editor.putLong(value.getKey(), (Long) v);
+                } else {
+                    editor.putString(value.getKey(), (String) v);
+                }
+            }
+            if (!editor.commit()) {
+                BudgetLog.e(TAG, "❌ Falha ao gravar preferências '{}'", entry.getKey());
+            }
+        }
+        BudgetLog.d(TAG, "💾 Preferências gravadas ({} escritas juntadas até agora)", getCoalescedWriteCount());
+    }
+
+    private SharedPreferences prefs(String prefsName) {
+        return context.getSharedPreferences(prefsName, Context.MODE_PRIVATE);
+    }
+
+    private static final class PendingEdits {
+        boolean clear;
+        final Map<String, Object> values = new HashMap<>();
+    }
+
+    private static final class WriterThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "PreferencesWriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.budgetsystem.app.parsing;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para BrlAmountParser
+ *
+ * Verifica os formatos de valor em reais e o resultado exato em centavos.
+ */
+public class BrlAmountParserTest {
+
+    @Test
+    public void testCommonFormats() {
+        assertEquals("Com milhar", 123456, BrlAmountParser.parseCents("Compra de R$ 1.234,56 aprovada"));
+        assertEquals("Sem espaço e sem milhar", 123456, BrlAmountParser.parseCents("R$1234,56"));
+        assertEquals("Uma casa decimal", 123450, BrlAmountParser.parseCents("R$1234,5"));
+        assertEquals("Sem centavos", 5000, BrlAmountParser.parseCents("Pix de R$ 50 recebido"));
+        assertEquals("Minúsculo", 1099, BrlAmountParser.parseCents("compra de r$ 10,99"));
+        assertEquals("Espaço não separável", 4590, BrlAmountParser.parseCents("R$\u00A045,90"));
+        assertEquals("Milhões", 123456789, BrlAmountParser.parseCents("R$ 1.234.567,89"));
+    }
+
+    @Test
+    public void testPunctuationAfterAmountIsIgnored() {
+        assertEquals("Ponto final", 5000, BrlAmountParser.parseCents("Valor: R$ 50. Obrigado"));
+        assertEquals("Vírgula de frase", 2500, BrlAmountParser.parseCents("R$ 25,00, no cartão final 1234"));
+    }
+
+    @Test
+    public void testNegativeAndRefund() {
+        assertEquals("Sinal antes", -1000, BrlAmountParser.parseCents("-R$ 10,00"));
+        assertEquals("Sinal depois", -1000, BrlAmountParser.parseCents("R$ -10,00"));
+        assertEquals("Traço como pontuação", 1000, BrlAmountParser.parseCents("Compra aprovada - R$ 10,00"));
+        assertEquals("Estorno", -3990, BrlAmountParser.parseCents("Estorno de R$ 39,90 na loja"));
+    }
+
+    @Test
+    public void testNotFound() {
+        assertEquals("Sem R$", BrlAmountParser.NOT_FOUND, BrlAmountParser.parseCents("Você tem 3 mensagens"));
+        assertEquals("R$ sem número", BrlAmountParser.NOT_FOUND, BrlAmountParser.parseCents("Valor em R$"));
+        assertEquals("Nulo", BrlAmountParser.NOT_FOUND, BrlAmountParser.parseCents(null));
+    }
+
+    @Test
+    public void testSkipsInvalidCurrencyMarker() {
+        assertEquals("Usa o primeiro R$ válido", 700, BrlAmountParser.parseCents("R$ --- depois R$ 7,00"));
+    }
+
+    @Test
+    public void testPlainAmounts() {
+        assertEquals("Ponto decimal", 12345, BrlAmountParser.parsePlainCents("123.45"));
+        assertEquals("Vírgula decimal", 12345, BrlAmountParser.parsePlainCents("123,45"));
+        assertEquals("Inteiro", 5000, BrlAmountParser.parsePlainCents("50"));
+        assertEquals("Negativo", -250, BrlAmountParser.parsePlainCents("-2,50"));
+        assertEquals("Lixo no fim", BrlAmountParser.NOT_FOUND, BrlAmountParser.parsePlainCents("12abc"));
+    }
+}
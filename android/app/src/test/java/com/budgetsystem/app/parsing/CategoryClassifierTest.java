@@ -0,0 +1,140 @@
+package com.budgetsystem.app.parsing;
+
+import com.budgetsystem.app.utils.ExpenseCategorizer;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para CategoryClassifier
+ *
+ * Verifica:
+ * - Aprendizado com as escolhas do usuário e ausência de palpite sem evidência
+ * - Persistência do modelo
+ * - Prioridade sobre as palavras-chave no parser e no ExpenseCategorizer
+ */
+public class CategoryClassifierTest {
+
+    private CategoryClassifier classifier;
+
+    @Before
+    public void setUp() {
+        classifier = new CategoryClassifier();
+    }
+
+    @Test
+    public void testUntrainedModelHasNoOpinion() {
+        assertNull("Sem exemplos", classifier.predict("Padaria Central"));
+    }
+
+    @Test
+    public void testLearnsFromCorrections() {
+        classifier.train("Padaria Central", "Café da manhã");
+        classifier.train("Padaria Pão Quente", "Café da manhã");
+        classifier.train("Posto Shell", "Carro");
+        classifier.train("Posto Ipiranga", "Carro");
+
+        assertEquals("Padaria nova", "Café da manhã", classifier.predict("Padaria Bom Dia"));
+        assertEquals("Posto novo", "Carro", classifier.predict("Posto Ale Centro"));
+        assertNull("Nenhum token conhecido", classifier.predict("Livraria Cultura"));
+        assertNull("Só dígitos e stop words", classifier.predict("Compra 1234"));
+        assertEquals("Exemplos", 4, classifier.getExampleCount());
+    }
+
+    @Test
+    public void testAmbiguousTextIsNotClassified() {
+        classifier.train("Mercado Livre", "Compras");
+        classifier.train("Mercado Extra", "Mercado");
+
+        assertNull("Empate entre duas classes", classifier.predict("Mercado"));
+    }
+
+    @Test
+    public void testForgottenCategoryIsNoLongerPredicted() {
+        classifier.train("Posto Shell", "Carro");
+        classifier.train("Padaria Central", "Café da manhã");
+
+        assertTrue("Categoria conhecida", classifier.forget("Carro"));
+        assertFalse("Já esquecida", classifier.forget("Carro"));
+        assertNull("Budget apagado não é mais previsto", classifier.predict("Posto Ipiranga"));
+        assertEquals("Outras categorias continuam", "Café da manhã", classifier.predict("Padaria Bom Dia"));
+        assertEquals("Exemplos da categoria esquecida descontados", 1, classifier.getExampleCount());
+    }
+
+    @Test
+    public void testFullModelEvictsWeakestCategory() {
+        for (int c = 0; c < CategoryClassifier.MAX_CLASSES; c++) {
+            classifier.train("Loja" + c, "Budget " + c);
+            if (c != 5) {
+                classifier.train("Loja" + c, "Budget " + c);
+            }
+        }
+        assertEquals("Exemplos antes", 2 * CategoryClassifier.MAX_CLASSES - 1, classifier.getExampleCount());
+
+        assertTrue("Categoria nova ainda é aprendida", classifier.train("Academia", "Academia"));
+        assertNull("A categoria com menos exemplos foi descartada", classifier.predict("Loja5"));
+        assertEquals("Exemplo descartado sai da contagem", 2 * CategoryClassifier.MAX_CLASSES - 1,
+            classifier.getExampleCount());
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        File file = File.createTempFile("category_model", ".bin");
+        try {
+            classifier.train("Netflix", "Assinaturas");
+            classifier.save(file);
+
+            CategoryClassifier restored = new CategoryClassifier();
+            restored.load(file);
+            assertEquals("Modelo restaurado", "Assinaturas", restored.predict("NETFLIX.COM"));
+            assertEquals("Exemplos restaurados", 1, restored.getExampleCount());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testLearnDefersSaveUntilFlush() throws IOException {
+        File file = File.createTempFile("category_model", ".bin");
+        file.delete();
+        try {
+            classifier.file = file;
+            classifier.learn("Padaria Central", "Café da manhã");
+            classifier.learn("Posto Shell", "Carro");
+            assertFalse("learn não grava na thread chamadora", file.exists());
+
+            classifier.flush();
+            CategoryClassifier restored = new CategoryClassifier();
+            restored.load(file);
+            assertEquals("As duas correções numa gravação", 2, restored.getExampleCount());
+        } finally {
+            classifier.flush();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testParserPrefersLearnedCategory() {
+        classifier.train("Ifood Restaurante", "Delivery");
+        NotificationParser parser = new NotificationParser(new MerchantNameCache(8), classifier);
+
+        ParsedNotification parsed = parser.parse("Compra",
+            "Compra em IFOOD *RESTAURANTE no valor de R$ 30,00", null);
+        assertEquals("Categoria aprendida vence palavra-chave", "Delivery", parsed.getCategory());
+
+        parsed = parser.parse("Compra", "Compra em FARMACIA SAO JOAO no valor de R$ 30,00", null);
+        assertEquals("Sem evidência: palavras-chave", "Saúde", parsed.getCategory());
+    }
+
+    @Test
+    public void testExpenseCategorizerUsesSameRulesAsParser() {
+        assertEquals("Mesma categoria do parser", "Mercado", ExpenseCategorizer.categorize("Supermercado Extra"));
+        assertEquals("Sem palavra-chave", "Outros", ExpenseCategorizer.categorize("Livraria"));
+
+        classifier.train("Supermercado Extra", "Casa");
+        assertEquals("Com classificador", "Casa", ExpenseCategorizer.categorize("Supermercado Extra", classifier));
+    }
+}
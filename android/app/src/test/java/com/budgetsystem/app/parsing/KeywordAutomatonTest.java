@@ -0,0 +1,77 @@
+package com.budgetsystem.app.parsing;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para KeywordAutomaton (Aho-Corasick)
+ *
+ * Verifica:
+ * - Todas as ocorrências, inclusive sobrepostas, em uma passada
+ * - Busca case-insensitive com acentos
+ * - Máscara de grupos e prioridade
+ */
+public class KeywordAutomatonTest {
+
+    private KeywordAutomaton automaton;
+
+    @Before
+    public void setUp() {
+        automaton = new KeywordAutomaton(
+            new String[] { "uber", "uber eats", "eats", "farmácia", "pix" },
+            new int[] { 2, 1, 1, 3, 0 });
+    }
+
+    @Test
+    public void testScanReportsOverlappingMatches() {
+        final List<String> found = new ArrayList<>();
+        automaton.scan("Compra UBER EATS aprovada", new KeywordAutomaton.MatchListener() {
+            @Override
+            public boolean onMatch(int keywordId, int end) {
+                found.add(automaton.keyword(keywordId) + "@" + end);
+                return true;
+            }
+        });
+
+        assertEquals("Deve encontrar 3 ocorrências", 3, found.size());
+        assertTrue("Deve encontrar uber", found.contains("uber@11"));
+        assertTrue("Deve encontrar uber eats", found.contains("uber eats@16"));
+        assertTrue("Deve encontrar eats", found.contains("eats@16"));
+    }
+
+    @Test
+    public void testMatchGroupsIsCaseInsensitiveWithAccents() {
+        long mask = automaton.matchGroups("Compra na FARMÁCIA central");
+
+        assertEquals("Só o grupo 3", KeywordAutomaton.groupBit(3), mask);
+    }
+
+    @Test
+    public void testFirstGroupRespectsPriority() {
+        long mask = automaton.matchGroups("Pix para uber");
+
+        assertEquals("Grupo 0 tem prioridade", 0, KeywordAutomaton.firstGroup(mask));
+        assertEquals("Máscara vazia", -1, KeywordAutomaton.firstGroup(0L));
+    }
+
+    @Test
+    public void testMatchGroupsAcrossTwoParts() {
+        // "uber" no fim do primeiro trecho + "eats" no segundo = "uber eats"
+        long mask = automaton.matchGroups("corrida uber", "eats");
+
+        assertTrue("Deve encontrar grupo 1 cruzando o separador",
+                   (mask & KeywordAutomaton.groupBit(1)) != 0);
+    }
+
+    @Test
+    public void testContainsAny() {
+        assertTrue("Deve conter pix", automaton.containsAny("Recebeu um PIX", KeywordAutomaton.groupBit(0)));
+        assertFalse("Não deve conter farmácia", automaton.containsAny("Recebeu um PIX", KeywordAutomaton.groupBit(3)));
+        assertFalse("Texto null", automaton.containsAny(null, -1L));
+    }
+}
@@ -0,0 +1,91 @@
+package com.budgetsystem.app.parsing;
+
+import java.io.File;
+import java.io.IOException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para MerchantNameCache
+ *
+ * Verifica:
+ * - Descarte LRU e esvaziamento quando a versão das regras muda
+ * - Persistência em arquivo
+ * - Uso pelo parser (mesma instância de String, categoria pelo comércio)
+ */
+public class MerchantNameCacheTest {
+
+    @Test
+    public void testLruEviction() {
+        MerchantNameCache cache = new MerchantNameCache(2);
+        cache.put("a", "A", null);
+        cache.put("b", "B", null);
+        cache.get("a");
+        cache.put("c", "C", null);
+
+        assertNotNull("Usada recentemente", cache.get("a"));
+        assertNull("Mais antiga descartada", cache.get("b"));
+        assertEquals("Tamanho limitado", 2, cache.size());
+    }
+
+    @Test
+    public void testRulesVersionChangeClears() {
+        MerchantNameCache cache = new MerchantNameCache(4);
+        cache.put("uber *trip", "Uber Trip", "Transporte");
+        cache.checkRulesVersion(DefaultRules.VERSION);
+        assertEquals("Mesma versão mantém", 1, cache.size());
+        cache.checkRulesVersion(DefaultRules.VERSION + 3);
+        assertEquals("Versão nova esvazia", 0, cache.size());
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        File file = File.createTempFile("merchants", ".bin");
+        try {
+            MerchantNameCache cache = new MerchantNameCache(4);
+            cache.put("uber *trip", "Uber Trip", "Transporte");
+            cache.put("padaria", "Padaria", null);
+            assertTrue("Sujo após put", cache.isDirty());
+            cache.save(file);
+            assertFalse("Limpo após save", cache.isDirty());
+
+            MerchantNameCache restored = new MerchantNameCache(4);
+            assertEquals("Entradas carregadas", 2, restored.load(file, DefaultRules.VERSION));
+            assertEquals("Nome", "Uber Trip", restored.get("uber *trip").displayName);
+            assertEquals("Categoria", "Transporte", restored.get("uber *trip").category);
+            assertNull("Sem categoria", restored.get("padaria").category);
+
+            MerchantNameCache otherRules = new MerchantNameCache(4);
+            assertEquals("Outra versão de regras descarta", 0, otherRules.load(file, DefaultRules.VERSION + 5));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testParserReusesCachedMerchant() {
+        MerchantNameCache cache = new MerchantNameCache(8);
+        NotificationParser parser = new NotificationParser(cache, null);
+
+        ParsedNotification first = parser.parse("Compra", "Compra em IFOOD *RESTAURANTE no valor de R$ 30,00", null);
+        ParsedNotification second = parser.parse("Compra", "Compra em IFOOD *RESTAURANTE no valor de R$ 45,00", null);
+
+        assertEquals("Nome normalizado", "Ifood Restaurante", first.getMerchantName());
+        assertSame("Mesma instância", first.getMerchantName(), second.getMerchantName());
+        assertEquals("Uma entrada", 1, cache.size());
+        assertEquals("Categoria pelo texto", "Alimentação", second.getCategory());
+    }
+
+    @Test
+    public void testCategoryFromMerchantWhenTextHasNone() {
+        MerchantNameCache cache = new MerchantNameCache(8);
+        cache.put("posto centro", "Posto Centro", "Transporte");
+        NotificationParser parser = new NotificationParser(cache, null);
+
+        ParsedNotification parsed = parser.parse("Compra", "Compra em POSTO CENTRO no valor de R$ 100,00", null);
+
+        assertEquals("Nome do cache", "Posto Centro", parsed.getMerchantName());
+        assertEquals("Categoria do comércio", "Transporte", parsed.getCategory());
+    }
+}
@@ -0,0 +1,137 @@
+package com.budgetsystem.app.parsing;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para NotificationParser
+ *
+ * Verifica:
+ * - Detecção de notificação bancária e extração de valor
+ * - Extração de comércio, descrição e parcelas
+ * - Reuso da mesma instância entre notificações (Matchers com reset)
+ * - Templates por banco (RuleSet) com fallback para a cascata genérica
+ */
+public class NotificationParserTest {
+
+    private NotificationParser parser;
+
+    @Before
+    public void setUp() {
+        parser = new NotificationParser();
+    }
+
+    @Test
+    public void testNonBankNotificationIsIgnored() {
+        ParsedNotification parsed = parser.parse("Maria", "Oi, tudo bem?", null);
+
+        assertFalse("Mensagem comum não é bancária", parsed.isBankNotification());
+        assertFalse("Mensagem comum não tem valor", parsed.hasAmount());
+    }
+
+    @Test
+    public void testBankNotificationWithoutAmount() {
+        ParsedNotification parsed = parser.parse("Pix", "Seu Pix foi agendado", null);
+
+        assertTrue("Deve ser bancária", parsed.isBankNotification());
+        assertFalse("Não deve ter valor", parsed.hasAmount());
+    }
+
+    @Test
+    public void testPurchaseWithThousandsSeparator() {
+        ParsedNotification parsed = parser.parse(
+            "Compra aprovada",
+            "Compra de R$ 1.234,56 APROVADA em MAGAZINE LUIZA.",
+            null);
+
+        assertTrue("Deve ter valor", parsed.hasAmount());
+        assertEquals("Valor com milhar", 1234.56, parsed.getAmount(), 0.001);
+        assertEquals("Valor exato em centavos", 123456, parsed.getAmountCents());
+        assertEquals("Comércio", "Magazine Luiza", parsed.getMerchantName());
+        assertFalse("Não é parcelado", parsed.hasInstallments());
+    }
+
+    @Test
+    public void testInstallments() {
+        ParsedNotification parsed = parser.parse(
+            "Compra aprovada",
+            "Compra em LOJA X no valor de R$ 100,00 parcela 3 de 10",
+            null);
+
+        assertTrue("Deve ser parcelado", parsed.hasInstallments());
+        assertEquals("Parcela atual", 3, parsed.getInstallmentNumber());
+        assertEquals("Total de parcelas", 10, parsed.getInstallmentTotal());
+    }
+
+    @Test
+    public void testPixCategoryAndDescription() {
+        ParsedNotification parsed = parser.parse(
+            "Pix recebido",
+            "Você recebeu um Pix de JOAO DA SILVA no valor de R$ 50,00",
+            null);
+
+        assertEquals("Valor", 50.0, parsed.getAmount(), 0.001);
+        assertEquals("Categoria", "Transferência", parsed.getCategory());
+        assertEquals("Descrição", "Recebido de Joao Da Silva", parsed.getDescription());
+    }
+
+    @Test
+    public void testParserInstanceIsReusable() {
+        ParsedNotification first = parser.parse("Compra", "Compra de R$ 10,00 aprovada em PADARIA", null);
+        ParsedNotification second = parser.parse("Compra", "Compra de R$ 20,00 aprovada em FARMACIA", null);
+
+        assertEquals("Primeiro valor", 10.0, first.getAmount(), 0.001);
+        assertEquals("Segundo valor", 20.0, second.getAmount(), 0.001);
+        assertEquals("Primeiro comércio", "Padaria", first.getMerchantName());
+        assertEquals("Segundo comércio", "Farmacia", second.getMerchantName());
+    }
+
+    @Test
+    public void testBankProfileTemplate() {
+        ParsedNotification parsed = parser.parse("C6 Bank",
+            "Compra aprovada",
+            "Compra aprovada no C6 final 1234 - POSTO SHELL - R$ 30,00",
+            null);
+
+        assertEquals("Valor", 3000, parsed.getAmountCents());
+        assertEquals("Comércio pelo template do C6", "Posto Shell", parsed.getMerchantName());
+        assertEquals("Descrição pelo template do C6", "Compra em Posto Shell", parsed.getDescription());
+    }
+
+    @Test
+    public void testBankProfileFallsBackToGenericCascade() {
+        ParsedNotification parsed = parser.parse("Nubank",
+            "Compra", "Compra de R$ 10,00 aprovada em PADARIA", null);
+        assertEquals("Sem template: cascata genérica", "Padaria", parsed.getMerchantName());
+
+        parsed = parser.parse("Outro", "Compra", "Compra de R$ 20,00 aprovada em FARMACIA", null);
+        assertEquals("Banco sem perfil", "Farmacia", parsed.getMerchantName());
+    }
+
+    @Test
+    public void testNubankProfile() {
+        ParsedNotification parsed = parser.parse("Nubank",
+            "Compra no crédito aprovada",
+            "Compra de R$ 25,90 APROVADA em PADARIA DO JOAO para o cartão com final 1234.",
+            null);
+
+        assertEquals("Comércio", "Padaria Do Joao", parsed.getMerchantName());
+        assertEquals("Descrição", "Compra em Padaria Do Joao", parsed.getDescription());
+    }
+
+    @Test
+    public void testLongDescriptionIsTruncated() {
+        StringBuilder longText = new StringBuilder("Boleto pago com sucesso ");
+        for (int i = 0; i < 20; i++) {
+            longText.append("texto longo ");
+        }
+        longText.append("r$ 10,00");
+
+        ParsedNotification parsed = parser.parse(null, longText.toString(), null);
+
+        assertTrue("Descrição deve ter no máximo 103 caracteres",
+                   parsed.getDescription().length() <= 103);
+    }
+}
@@ -0,0 +1,83 @@
+package com.budgetsystem.app.parsing;
+
+import android.content.Context;
+import com.budgetsystem.app.utils.Constants;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para ParsingRulesLoader
+ *
+ * Verifica a escolha por versão entre as regras embutidas e o arquivo baixado:
+ * - Arquivo baixado mais novo que o APK é usado
+ * - Arquivo baixado antigo (ou da mesma versão) não sobrepõe as regras embutidas
+ * - Arquivo inválido é ignorado
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class ParsingRulesLoaderTest {
+
+    private Context context;
+    private File downloaded;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        downloaded = new File(context.getFilesDir(), Constants.PARSING_RULES_FILE);
+    }
+
+    @After
+    public void tearDown() {
+        downloaded.delete();
+        ParsingRules.install(RuleSet.compile(DefaultRules.spec()));
+    }
+
+    @Test
+    public void testNewerDownloadedRulesWin() throws IOException {
+        write(new RuleSpec(DefaultRules.VERSION + 1).detection("compra"));
+
+        assertEquals("Versão baixada", DefaultRules.VERSION + 1, ParsingRulesLoader.load(context));
+        assertEquals("Instalada", DefaultRules.VERSION + 1, ParsingRules.current().getVersion());
+    }
+
+    @Test
+    public void testOlderDownloadedRulesDoNotOverrideBuiltIn() throws IOException {
+        write(new RuleSpec(DefaultRules.VERSION - 1).detection("compra"));
+        assertEquals("Antiga ignorada", DefaultRules.VERSION, ParsingRulesLoader.load(context));
+
+        write(new RuleSpec(DefaultRules.VERSION).detection("compra"));
+        assertEquals("Empate fica com as embutidas", DefaultRules.VERSION, ParsingRulesLoader.load(context));
+        assertNotNull("Regras embutidas completas", ParsingRules.current().profileFor("C6 Bank"));
+    }
+
+    @Test
+    public void testInvalidDownloadedFileIsIgnored() throws IOException {
+        FileOutputStream output = new FileOutputStream(downloaded);
+        try {
+            output.write(new byte[] { 1, 2, 3 });
+        } finally {
+            output.close();
+        }
+
+        assertEquals("Vale a embutida", DefaultRules.VERSION, ParsingRulesLoader.load(context));
+    }
+
+    private void write(RuleSpec spec) throws IOException {
+        FileOutputStream output = new FileOutputStream(downloaded);
+        try {
+            RuleFile.write(spec, output);
+        } finally {
+            output.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.budgetsystem.app.parsing;
+
+import com.budgetsystem.app.utils.BankIdentifier;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para RuleFile / RuleSet / ParsingRules
+ *
+ * Verifica:
+ * - Ida e volta do formato binário
+ * - Rejeição de arquivo corrompido ou truncado
+ * - Troca das regras em uso (bancos e templates novos sem novo APK)
+ */
+public class RuleFileTest {
+
+    @After
+    public void tearDown() {
+        ParsingRules.install(RuleSet.compile(DefaultRules.spec()));
+    }
+
+    private static byte[] encode(RuleSpec spec) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        RuleFile.write(spec, output);
+        return output.toByteArray();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        RuleSpec original = DefaultRules.spec();
+        RuleSpec read = RuleFile.read(ByteBuffer.wrap(encode(original)));
+
+        assertEquals("Versão", original.getVersion(), read.getVersion());
+        assertEquals("Detecção", original.getDetectionKeywords(), read.getDetectionKeywords());
+        assertEquals("Categorias", original.getCategories().size(), read.getCategories().size());
+        assertEquals("Palavras da categoria", original.getCategories().get(2).keywords,
+            read.getCategories().get(2).keywords);
+        assertEquals("Regras de package", original.getPackageRules().size(), read.getPackageRules().size());
+        assertEquals("Templates", original.getTemplates().size(), read.getTemplates().size());
+        assertEquals("Regex com acento", original.getTemplates().get(0).regex, read.getTemplates().get(0).regex);
+
+        RuleSet rules = RuleSet.compile(read);
+        assertEquals("Resolver compilado", "Nubank", rules.getBankResolver().resolve("com.nu.production"));
+        assertNotNull("Perfil compilado", rules.profileFor("C6 Bank"));
+    }
+
+    @Test
+    public void testCorruptedFileIsRejected() throws IOException {
+        byte[] data = encode(DefaultRules.spec());
+        data[data.length / 2] ^= 0x01;
+        try {
+            RuleFile.read(ByteBuffer.wrap(data));
+            fail("CRC inválido deve ser rejeitado");
+        } catch (IOException expected) {
+            // ok
+        }
+
+        byte[] truncated = Arrays.copyOf(encode(DefaultRules.spec()), 10);
+        try {
+            RuleFile.read(ByteBuffer.wrap(truncated));
+            fail("Arquivo truncado deve ser rejeitado");
+        } catch (IOException expected) {
+            // ok
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRegexFailsCompile() {
+        RuleSet.compile(new RuleSpec(1).detection("compra").templates("Banco X", "([a-z", "Compra em "));
+    }
+
+    @Test
+    public void testInstalledRulesAreUsedByParserAndIdentifier() throws IOException {
+        NotificationParser parser = new NotificationParser();
+        parser.parse("C6 Bank", "Compra", "Compra aprovada no C6 final 1234 - LOJA - R$ 30,00", null);
+
+        RuleSpec spec = DefaultRules.spec();
+        RuleSpec updated = new RuleSpec(7);
+        for (String keyword : spec.getDetectionKeywords()) {
+            updated.detection(keyword);
+        }
+        updated.category("Lazer", "cinema")
+            .prefixPackage("br.com.bancoxyz", "Banco XYZ")
+            .templates("Banco XYZ", "gasto\\s+em\\s+([^\\n\\r.,]+?)\\s+de\\s+r\\$", "Gasto em ");
+        ParsingRules.install(RuleSet.compile(RuleFile.read(ByteBuffer.wrap(encode(updated)))));
+
+        assertEquals("Versão em uso", 7, ParsingRules.current().getVersion());
+        assertEquals("Banco novo", "Banco XYZ", BankIdentifier.identifyBank("br.com.bancoxyz.app"));
+
+        ParsedNotification parsed = parser.parse("Banco XYZ", "Compra",
+            "Compra: gasto em CINEMA CENTRO de R$ 40,00", null);
+        assertEquals("Template novo", "Cinema Centro", parsed.getMerchantName());
+        assertEquals("Descrição do template", "Gasto em Cinema Centro", parsed.getDescription());
+        assertEquals("Categoria nova", "Lazer", parsed.getCategory());
+    }
+}
@@ -0,0 +1,72 @@
+package com.budgetsystem.app.pipeline;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para ExpenseFingerprintIndex
+ *
+ * Verifica que a mesma compra vinda de notificações diferentes é detectada,
+ * sem confundir compras diferentes (nem compras iguais minutos depois).
+ */
+public class ExpenseFingerprintIndexTest {
+
+    private static final long WINDOW = 2 * 60 * 1000L;
+    private static final long T0 = 1700000000000L;
+
+    @Test
+    public void testRepostedNotificationIsDuplicate() {
+        ExpenseFingerprintIndex index = new ExpenseFingerprintIndex(32, WINDOW);
+        assertFalse("Primeira vez", index.checkAndAdd(4590, "Padaria São João", "Nubank", T0));
+        assertTrue("Re-post com outro postTime",
+            index.checkAndAdd(4590, "PADARIA SAO JOAO", "Nubank", T0 + 30000));
+    }
+
+    @Test
+    public void testOutOfOrderRepostIsDuplicate() {
+        ExpenseFingerprintIndex index = new ExpenseFingerprintIndex(32, WINDOW);
+        index.checkAndAdd(1000, "Uber", "Itaú", T0);
+        assertTrue("postTime um pouco anterior", index.checkAndAdd(1000, "Uber", "Itaú", T0 - 20000));
+    }
+
+    @Test
+    public void testSamePurchaseMinutesApartIsKept() {
+        ExpenseFingerprintIndex index = new ExpenseFingerprintIndex(32, WINDOW);
+        assertFalse("Primeiro café", index.checkAndAdd(750, "Café Central", "Nubank", T0));
+        assertFalse("Segundo café 5 minutos depois",
+            index.checkAndAdd(750, "Café Central", "Nubank", T0 + 5 * 60 * 1000L));
+        assertTrue("Re-post do segundo café",
+            index.checkAndAdd(750, "Café Central", "Nubank", T0 + 5 * 60 * 1000L + 10000));
+    }
+
+    @Test
+    public void testRepostsDoNotStretchTheWindow() {
+        ExpenseFingerprintIndex index = new ExpenseFingerprintIndex(32, WINDOW);
+        index.checkAndAdd(750, "Café Central", "Nubank", T0);
+        assertTrue("Re-post 1 minuto depois", index.checkAndAdd(750, "Café Central", "Nubank", T0 + 60000));
+        assertFalse("Outra compra 2,5 minutos depois da original",
+            index.checkAndAdd(750, "Café Central", "Nubank", T0 + 150000));
+    }
+
+    @Test
+    public void testDifferentPurchasesAreNotDuplicates() {
+        ExpenseFingerprintIndex index = new ExpenseFingerprintIndex(32, WINDOW);
+        index.checkAndAdd(1000, "Uber", "Itaú", T0);
+
+        assertFalse("Outro valor", index.checkAndAdd(1001, "Uber", "Itaú", T0));
+        assertFalse("Outro local", index.checkAndAdd(1000, "99", "Itaú", T0));
+        assertFalse("Outro banco", index.checkAndAdd(1000, "Uber", "Nubank", T0));
+        assertFalse("Muito depois", index.checkAndAdd(1000, "Uber", "Itaú", T0 + 3 * WINDOW));
+    }
+
+    @Test
+    public void testOldestEntryIsForgottenWhenFull() {
+        ExpenseFingerprintIndex index = new ExpenseFingerprintIndex(2, WINDOW);
+        index.checkAndAdd(1, "A", "Nubank", T0);
+        index.checkAndAdd(2, "B", "Nubank", T0);
+        index.checkAndAdd(3, "C", "Nubank", T0);
+        assertEquals("Limitado à capacidade", 2, index.size());
+        assertFalse("A mais antiga foi descartada", index.checkAndAdd(1, "A", "Nubank", T0));
+    }
+}
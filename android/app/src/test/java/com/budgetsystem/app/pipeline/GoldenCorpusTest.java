@@ -0,0 +1,233 @@
+package com.budgetsystem.app.pipeline;
+
+import com.budgetsystem.app.parsing.NotificationParser;
+import com.budgetsystem.app.parsing.ParsedNotification;
+import com.budgetsystem.app.utils.BankIdentifier;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * Regressão do parsing contra um corpus "golden" de notificações reais anonimizadas
+ * (golden/notifications.jsonl): cada linha traz package, title, text, bigText e o que
+ * deveria ser extraído (expense, bank, cents, merchant, category, installments).
+ *
+ * Roda o mesmo caminho do app (prefiltro → banco pelo package → parse) e compara com
+ * golden/baseline.json:
+ * - Acurácia por campo não pode cair abaixo da registrada
+ * - Notificações por segundo não podem cair abaixo do piso registrado
+ *
+ * O corpus inclui casos que o parser ainda erra: a baseline registra a acurácia atual.
+ * Quando uma melhoria sobe a acurácia, o teste imprime os novos valores para atualizar
+ * a baseline (e travar o ganho).
+ *
+ * Robolectric só para o org.json de verdade; o parsing em si não usa o Android.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class GoldenCorpusTest {
+
+    private static final String CORPUS = "/golden/notifications.jsonl";
+    private static final String BASELINE = "/golden/baseline.json";
+
+    private static final String[] FIELDS = { "expense", "bank", "cents", "merchant", "category", "installments" };
+
+    // Folga para comparar frações (ex: 41/48 gravado com 4 casas)
+    private static final double ACCURACY_EPSILON = 0.0001;
+
+    private static final int THROUGHPUT_WARMUP_ROUNDS = 200;
+    private static final int THROUGHPUT_ROUNDS = 500;
+
+    private static List<Sample> corpus;
+    private static JSONObject baseline;
+
+    private static final class Sample {
+        final int line;
+        final String packageName;
+        final String title;
+        final String text;
+        final String bigText;
+        final JSONObject expected;
+
+        Sample(int line, JSONObject json) throws JSONException {
+            this.line = line;
+            this.packageName = json.getString("package");
+            this.title = json.optString("title", "");
+            this.text = json.optString("text", "");
+            this.bigText = json.optString("bigText", "");
+            this.expected = json.getJSONObject("expected");
+        }
+    }
+
+    @BeforeClass
+    public static void loadCorpus() throws IOException, JSONException {
+        corpus = new ArrayList<>();
+        int line = 0;
+        for (String row : readLines(CORPUS)) {
+            line++;
+            if (!row.trim().isEmpty()) {
+                corpus.add(new Sample(line, new JSONObject(row)));
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String row : readLines(BASELINE)) {
+            sb.append(row).append('\n');
+        }
+        baseline = new JSONObject(sb.toString());
+    }
+
+    @Test
+    public void testAccuracyDoesNotRegress() throws JSONException {
+        NotificationParser parser = new NotificationParser();
+        int[] hits = new int[FIELDS.length];
+        int[] totals = new int[FIELDS.length];
+        StringBuilder misses = new StringBuilder();
+
+        for (Sample sample : corpus) {
+            ParsedNotification parsed = extract(parser, sample);
+            for (int f = 0; f < FIELDS.length; f++) {
+                String field = FIELDS[f];
+                if (!sample.expected.has(field)) {
+                    continue;
+                }
+                String expected = String.valueOf(sample.expected.get(field));
+                String actual = actual(field, sample, parsed);
+                totals[f]++;
+                if (expected.equals(actual)) {
+                    hits[f]++;
+                } else {
+                    misses.append(String.format(Locale.ROOT, "  linha %d %s: esperado '%s', obtido '%s'%n",
+                        sample.line, field, expected, actual));
+                }
+            }
+        }
+
+        JSONObject minimums = baseline.getJSONObject("accuracy");
+        StringBuilder report = new StringBuilder("📊 Acurácia por campo (" + corpus.size() + " notificações):\n");
+        StringBuilder regressions = new StringBuilder();
+        JSONObject updated = new JSONObject();
+        boolean improved = false;
+        for (int f = 0; f < FIELDS.length; f++) {
+            double accuracy = totals[f] == 0 ? 1.0 : (double) hits[f] / totals[f];
+            double minimum = minimums.getDouble(FIELDS[f]);
+            report.append(String.format(Locale.ROOT, "  %-12s %3d/%-3d %.4f (baseline %.4f)%n",
+                FIELDS[f], hits[f], totals[f], accuracy, minimum));
+            updated.put(FIELDS[f], Math.floor(accuracy * 10000) / 10000);
+            if (accuracy < minimum - ACCURACY_EPSILON) {
+                regressions.append(FIELDS[f]).append(' ');
+            } else if (accuracy > minimum + ACCURACY_EPSILON) {
+                improved = true;
+            }
+        }
+        System.out.print(report);
+        System.out.print("Erros:\n" + misses);
+        if (improved) {
+            System.out.println("✅ Acurácia melhorou - atualize \"accuracy\" em " + BASELINE + ": " + updated);
+        }
+
+        assertTrue("Acurácia abaixo da baseline em: " + regressions + "\n" + report + misses,
+            regressions.length() == 0);
+    }
+
+    @Test
+    public void testThroughputDoesNotRegress() throws JSONException {
+        NotificationParser parser = new NotificationParser();
+        int expenses = 0;
+        for (int round = 0; round < THROUGHPUT_WARMUP_ROUNDS; round++) {
+            expenses += runCorpus(parser);
+        }
+
+        long start = System.nanoTime();
+        for (int round = 0; round < THROUGHPUT_ROUNDS; round++) {
+            expenses += runCorpus(parser);
+        }
+        long elapsedNs = System.nanoTime() - start;
+
+        double perSecond = (double) THROUGHPUT_ROUNDS * corpus.size() * 1_000_000_000L / elapsedNs;
+        double minimum = baseline.getDouble("minNotificationsPerSecond");
+        System.out.println(String.format(Locale.ROOT, "⚡ %.0f notificações/s (piso %.0f, %d despesas)",
+            perSecond, minimum, expenses));
+
+        assertTrue(String.format(Locale.ROOT, "Vazão abaixo do piso: %.0f < %.0f notificações/s", perSecond, minimum),
+            perSecond >= minimum);
+    }
+
+    // ==================== AUXILIARES ====================
+
+    /**
+     * Caminho do NotificationListenerService/NotificationProcessor: null se a notificação
+     * foi descartada pelo prefiltro.
+     */
+    private static ParsedNotification extract(NotificationParser parser, Sample sample) {
+        if (!NotificationPrefilter.acceptsPackage(sample.packageName)
+                || !NotificationPrefilter.acceptsContent(sample.packageName, sample.text, sample.bigText)) {
+            return null;
+        }
+        String bank = BankIdentifier.identifyBankOrUnknown(sample.packageName);
+        return parser.parse(bank, sample.title, sample.text, sample.bigText);
+    }
+
+    private static int runCorpus(NotificationParser parser) {
+        int expenses = 0;
+        for (Sample sample : corpus) {
+            if (isExpense(extract(parser, sample))) {
+                expenses++;
+            }
+        }
+        return expenses;
+    }
+
+    private static boolean isExpense(ParsedNotification parsed) {
+        return parsed != null && parsed.isBankNotification() && parsed.hasAmount();
+    }
+
+    private static String actual(String field, Sample sample, ParsedNotification parsed) {
+        if (field.equals("expense")) {
+            return String.valueOf(isExpense(parsed));
+        }
+        if (!isExpense(parsed)) {
+            return null;
+        }
+        switch (field) {
+            case "bank":
+                return BankIdentifier.identifyBankOrUnknown(sample.packageName);
+            case "cents":
+                return String.valueOf(parsed.getAmountCents());
+            case "merchant":
+                return parsed.getMerchantName();
+            case "category":
+                return parsed.getCategory();
+            case "installments":
+                return parsed.getInstallmentNumber() + "/" + parsed.getInstallmentTotal();
+            default:
+                throw new IllegalArgumentException("Campo desconhecido: " + field);
+        }
+    }
+
+    private static List<String> readLines(String resource) throws IOException {
+        InputStream input = GoldenCorpusTest.class.getResourceAsStream(resource);
+        assertNotNull("Recurso de teste não encontrado: " + resource, input);
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,39 @@
+package com.budgetsystem.app.pipeline;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para NotificationPrefilter
+ *
+ * Verifica os dois estágios do filtro (package e conteúdo).
+ */
+public class NotificationPrefilterTest {
+
+    @Test
+    public void testAcceptsBankSmsAndEmailPackages() {
+        assertTrue("Nubank", NotificationPrefilter.acceptsPackage("com.nu.production"));
+        assertTrue("Itaú", NotificationPrefilter.acceptsPackage("com.itau"));
+        assertTrue("SMS", NotificationPrefilter.acceptsPackage("com.google.android.apps.messaging"));
+        assertTrue("Gmail", NotificationPrefilter.acceptsPackage("com.google.android.gm.gmail"));
+    }
+
+    @Test
+    public void testRejectsUnrelatedPackages() {
+        assertFalse("Instagram", NotificationPrefilter.acceptsPackage("com.instagram.android"));
+        assertFalse("Spotify", NotificationPrefilter.acceptsPackage("com.spotify.music"));
+        assertFalse("Nulo", NotificationPrefilter.acceptsPackage(null));
+    }
+
+    @Test
+    public void testContentScanWorksOnAnyCharSequence() {
+        StringBuilder text = new StringBuilder("COMPRA APROVADA no valor de R$ 10,00");
+        assertTrue("Palavra-chave em maiúsculas",
+            NotificationPrefilter.acceptsContent("com.nu.production", text, null));
+        assertFalse("Sem palavra-chave",
+            NotificationPrefilter.acceptsContent("com.nu.production", "Seu extrato está disponível no app", null));
+        assertTrue("Email passa para o processor",
+            NotificationPrefilter.acceptsContent("com.google.android.gm.gmail", "Bem-vindo", null));
+    }
+}
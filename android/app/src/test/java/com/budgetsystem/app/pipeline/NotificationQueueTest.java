@@ -0,0 +1,98 @@
+package com.budgetsystem.app.pipeline;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para NotificationQueue
+ *
+ * Verifica as políticas de backpressure:
+ * - Coalescência de re-posts da mesma notificação (package + id + postTime/texto)
+ * - Compras diferentes com o mesmo id não são coalescidas
+ * - Descarte da mais antiga quando cheia
+ */
+public class NotificationQueueTest {
+
+    private static final long T0 = 1700000000000L;
+
+    private static RawNotification notification(String packageName, int id, String text) {
+        return notification(packageName, id, T0, text);
+    }
+
+    private static RawNotification notification(String packageName, int id, long postTime, String text) {
+        return new RawNotification(packageName, id, postTime, "Título", text, null, false);
+    }
+
+    @Test
+    public void testFifoOrder() {
+        NotificationQueue queue = new NotificationQueue(4);
+        queue.offer(notification("com.nu.production", 1, "a"));
+        queue.offer(notification("com.nu.production", 2, "b"));
+
+        assertEquals("Primeiro a sair", "a", queue.poll().getText());
+        assertEquals("Segundo a sair", "b", queue.poll().getText());
+        assertNull("Fila vazia", queue.poll());
+    }
+
+    @Test
+    public void testSameNotificationIsCoalesced() {
+        NotificationQueue queue = new NotificationQueue(4);
+        queue.offer(notification("com.nu.production", 1, "antiga"));
+        queue.offer(notification("com.itau", 1, "outro app"));
+
+        NotificationQueue.OfferResult result = queue.offer(notification("com.nu.production", 1, "nova"));
+
+        assertEquals("Deve coalescer", NotificationQueue.OfferResult.COALESCED, result);
+        assertEquals("Não ocupa espaço extra", 2, queue.size());
+        assertEquals("Mantém a posição com o conteúdo novo", "nova", queue.poll().getText());
+        assertEquals("Contador de coalescência", 1, queue.getCoalescedCount());
+    }
+
+    @Test
+    public void testRepostWithSameTextIsCoalesced() {
+        NotificationQueue queue = new NotificationQueue(4);
+        queue.offer(notification("com.nu.production", 1, T0, "Compra de R$ 10,00"));
+
+        NotificationQueue.OfferResult result =
+            queue.offer(notification("com.nu.production", 1, T0 + 5000, "Compra de R$ 10,00"));
+
+        assertEquals("Re-post com o mesmo texto deve coalescer", NotificationQueue.OfferResult.COALESCED, result);
+        assertEquals("Uma entrada", 1, queue.size());
+    }
+
+    @Test
+    public void testReusedIdWithNewPurchaseIsNotCoalesced() {
+        NotificationQueue queue = new NotificationQueue(4);
+        queue.offer(notification("com.android.messaging", 1, T0, "Compra de R$ 10,00"));
+
+        NotificationQueue.OfferResult result =
+            queue.offer(notification("com.android.messaging", 1, T0 + 5000, "Compra de R$ 25,00"));
+
+        assertEquals("Outra compra com o mesmo id entra na fila", NotificationQueue.OfferResult.ENQUEUED, result);
+        assertEquals("Duas entradas separadas", 2, queue.size());
+        assertEquals("Primeira compra preservada", "Compra de R$ 10,00", queue.poll().getText());
+        assertEquals("Segunda compra na sequência", "Compra de R$ 25,00", queue.poll().getText());
+        assertEquals("Nada coalescido", 0, queue.getCoalescedCount());
+    }
+
+    @Test
+    public void testFullQueueDropsOldest() {
+        NotificationQueue queue = new NotificationQueue(2);
+        queue.offer(notification("com.nu.production", 1, "1"));
+        queue.offer(notification("com.nu.production", 2, "2"));
+
+        NotificationQueue.OfferResult result = queue.offer(notification("com.nu.production", 3, "3"));
+
+        assertEquals("Deve descartar a mais antiga", NotificationQueue.OfferResult.DROPPED_OLDEST, result);
+        assertEquals("Tamanho limitado", 2, queue.size());
+        assertEquals("A mais antiga foi descartada", "2", queue.poll().getText());
+        assertEquals("A nova foi mantida", "3", queue.poll().getText());
+        assertEquals("Contador de descartes", 1, queue.getDroppedCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new NotificationQueue(0);
+    }
+}
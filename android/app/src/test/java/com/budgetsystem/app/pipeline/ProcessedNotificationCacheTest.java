@@ -0,0 +1,93 @@
+package com.budgetsystem.app.pipeline;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para ProcessedNotificationCache
+ *
+ * Verifica:
+ * - Limite por tamanho com descarte LRU (sem limpar tudo de uma vez)
+ * - Expiração pela janela de tempo
+ * - Persistência em arquivo
+ */
+public class ProcessedNotificationCacheTest {
+
+    private static final long WINDOW = 60000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testKeyDependsOnAllFields() {
+        long key = ProcessedNotificationCache.key("com.nu.production", 1, 1000L);
+        assertEquals("Determinística", key, ProcessedNotificationCache.key("com.nu.production", 1, 1000L));
+        assertNotEquals("Outro package", key, ProcessedNotificationCache.key("com.itau", 1, 1000L));
+        assertNotEquals("Outro id", key, ProcessedNotificationCache.key("com.nu.production", 2, 1000L));
+        assertNotEquals("Outro postTime", key, ProcessedNotificationCache.key("com.nu.production", 1, 1001L));
+    }
+
+    @Test
+    public void testFullCacheEvictsLeastRecentlyUsed() {
+        ProcessedNotificationCache cache = new ProcessedNotificationCache(3, WINDOW);
+        cache.add(1L, 0);
+        cache.add(2L, 1);
+        cache.add(3L, 2);
+        cache.add(1L, 3); // 1 volta a ser a mais recente
+
+        cache.add(4L, 4);
+
+        assertEquals("Tamanho limitado", 3, cache.size());
+        assertFalse("2 era a menos usada", cache.contains(2L, 5));
+        assertTrue("1 continua", cache.contains(1L, 5));
+        assertTrue("3 continua", cache.contains(3L, 5));
+        assertTrue("4 foi adicionada", cache.contains(4L, 5));
+    }
+
+    @Test
+    public void testEntriesExpireAfterWindow() {
+        ProcessedNotificationCache cache = new ProcessedNotificationCache(10, WINDOW);
+        assertFalse("Primeira vez", cache.add(1L, 0));
+        assertTrue("Repetida dentro da janela", cache.add(1L, WINDOW - 1));
+        assertTrue("Janela conta a partir da última vez vista", cache.contains(1L, 2 * WINDOW - 2));
+        assertFalse("Fora da janela", cache.contains(1L, 2 * WINDOW));
+
+        cache.add(2L, 3 * WINDOW);
+        assertEquals("Expiradas são removidas", 1, cache.size());
+    }
+
+    @Test
+    public void testManyKeysSurviveRemovals() {
+        ProcessedNotificationCache cache = new ProcessedNotificationCache(64, WINDOW);
+        for (long i = 1; i <= 1000; i++) {
+            cache.add(ProcessedNotificationCache.key("pkg", (int) i, i), i);
+        }
+        assertEquals("Tamanho limitado", 64, cache.size());
+        for (long i = 937; i <= 1000; i++) {
+            assertTrue("Últimas 64 presentes: " + i,
+                cache.contains(ProcessedNotificationCache.key("pkg", (int) i, i), 1000));
+        }
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        File file = new File(folder.getRoot(), "processed.bin");
+        ProcessedNotificationCache cache = new ProcessedNotificationCache(10, WINDOW);
+        cache.add(1L, 0);
+        cache.add(2L, WINDOW / 2);
+        cache.save(file);
+
+        ProcessedNotificationCache restored = new ProcessedNotificationCache(10, WINDOW);
+        int loaded = restored.load(file, WINDOW + 1);
+
+        assertEquals("Só a que ainda está na janela", 1, loaded);
+        assertTrue("Restaurada", restored.contains(2L, WINDOW + 1));
+        assertFalse("Expirada não volta", restored.contains(1L, WINDOW + 1));
+    }
+}
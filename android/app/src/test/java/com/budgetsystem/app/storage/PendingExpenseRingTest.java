@@ -0,0 +1,293 @@
+package com.budgetsystem.app.storage;
+
+import com.budgetsystem.app.utils.ExpenseIdGenerator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para PendingExpenseRing
+ *
+ * Verifica:
+ * - Sobrescrita da mais antiga com o buffer cheio
+ * - Slots confirmados no meio reaproveitados antes de sobrescrever, sem mudar as sequências
+ * - Persistência entre aberturas
+ * - Slot corrompido ignorado
+ * - Truncamento de texto em fronteira de caractere
+ * - Paginação por cursor e remoção só das despesas confirmadas
+ */
+public class PendingExpenseRingTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<String> descriptions(PendingExpenseRing ring) {
+        final List<String> result = new ArrayList<>();
+        ring.forEach(new PendingExpenseRing.Visitor() {
+            @Override
+            public void onRecord(PendingExpenseRing.RecordView record) {
+                result.add(record.getDescription());
+            }
+        });
+        return result;
+    }
+
+    private static void append(PendingExpenseRing ring, String description, long cents) {
+        ring.append(ExpenseIdGenerator.next(), 1000L, "Nubank", cents, description, "Alimentação", null, 0, 0);
+    }
+
+    @Test
+    public void testFieldsRoundTrip() throws IOException {
+        PendingExpenseRing ring = new PendingExpenseRing(folder.newFile(), 4);
+        ring.append(42L, 1234L, "Itaú", 15090, "Padaria São João", "Alimentação", "Padaria", 2, 10);
+
+        final List<PendingExpenseRing.RecordView> seen = new ArrayList<>();
+        ring.forEach(new PendingExpenseRing.Visitor() {
+            @Override
+            public void onRecord(PendingExpenseRing.RecordView record) {
+                assertEquals("Banco", "Itaú", record.getBank());
+                assertEquals("Centavos", 15090, record.getAmountCents());
+                assertEquals("Descrição", "Padaria São João", record.getDescription());
+                assertEquals("Categoria", "Alimentação", record.getCategory());
+                assertEquals("Estabelecimento", "Padaria", record.getMerchantName());
+                assertEquals("Parcela", 2, record.getInstallmentNumber());
+                assertEquals("Total de parcelas", 10, record.getInstallmentTotal());
+                assertEquals("Timestamp", 1234L, record.getTimestamp());
+                assertEquals("Id da despesa", 42L, record.getExpenseId());
+                seen.add(record);
+            }
+        });
+        assertEquals("Uma despesa", 1, seen.size());
+        ring.close();
+    }
+
+    @Test
+    public void testFullRingOverwritesOldest() throws IOException {
+        PendingExpenseRing ring = new PendingExpenseRing(folder.newFile(), 3);
+        assertFalse("Ainda cabe", ring.append(1L, 1L, "Nubank", 100, "a", "Outros", null, 0, 0));
+        append(ring, "b", 200);
+        append(ring, "c", 300);
+
+        boolean overwrote = ring.append(4L, 1L, "Nubank", 400, "d", "Outros", null, 0, 0);
+
+        assertTrue("Deve sobrescrever a mais antiga", overwrote);
+        assertEquals("Tamanho limitado", 3, ring.size());
+        assertEquals("Ordem da mais antiga para a mais nova", "[b, c, d]", descriptions(ring).toString());
+        assertEquals("Contador de sobrescritas", 1, ring.getOverwrittenCount());
+        ring.close();
+    }
+
+    @Test
+    public void testPersistsAcrossReopen() throws IOException {
+        File file = folder.newFile();
+        PendingExpenseRing ring = new PendingExpenseRing(file, 4);
+        append(ring, "a", 100);
+        append(ring, "b", 200);
+        ring.close();
+
+        PendingExpenseRing reopened = new PendingExpenseRing(file, 4);
+        assertEquals("Despesas mantidas", "[a, b]", descriptions(reopened).toString());
+
+        reopened.clear();
+        assertEquals("Vazio após clear", 0, reopened.size());
+        reopened.close();
+    }
+
+    @Test
+    public void testCorruptedSlotIsSkipped() throws IOException {
+        File file = folder.newFile();
+        PendingExpenseRing ring = new PendingExpenseRing(file, 4);
+        append(ring, "a", 100);
+        append(ring, "b", 200);
+        ring.close();
+
+        // Corrompe um byte da descrição do primeiro slot (cabeçalho de 64 bytes)
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.seek(64 + 170);
+        raw.write(0x7F);
+        raw.close();
+
+        PendingExpenseRing reopened = new PendingExpenseRing(file, 4);
+        assertEquals("Só a despesa íntegra", "[b]", descriptions(reopened).toString());
+        reopened.close();
+    }
+
+    @Test
+    public void testLongTextIsTruncatedOnCharBoundary() throws IOException {
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            longText.append('ç');
+        }
+
+        PendingExpenseRing ring = new PendingExpenseRing(folder.newFile(), 2);
+        append(ring, longText.toString(), 100);
+
+        String stored = descriptions(ring).get(0);
+        assertTrue("Deve truncar", stored.length() < longText.length());
+        assertTrue("Sem caractere quebrado", longText.toString().startsWith(stored));
+        ring.close();
+    }
+
+    @Test
+    public void testPagesByCursor() throws IOException {
+        PendingExpenseRing ring = new PendingExpenseRing(folder.newFile(), 8);
+        for (String description : new String[] { "a", "b", "c", "d", "e" }) {
+            append(ring, description, 100);
+        }
+
+        final List<String> page = new ArrayList<>();
+        final long[] last = { -1 };
+        PendingExpenseRing.Visitor collect = new PendingExpenseRing.Visitor() {
+            @Override
+            public void onRecord(PendingExpenseRing.RecordView record) {
+                page.add(record.getDescription());
+                last[0] = record.getSequence();
+            }
+        };
+
+        assertEquals("Primeira página", 2, ring.forEach(-1, 2, collect));
+        assertTrue("Há mais", ring.hasAfter(last[0]));
+        ring.forEach(last[0], 2, collect);
+        ring.forEach(last[0], 2, collect);
+        assertEquals("Todas as páginas, em ordem", "[a, b, c, d, e]", page.toString());
+        assertFalse("Última página", ring.hasAfter(last[0]));
+        ring.close();
+    }
+
+    @Test
+    public void testAcknowledgeKeepsUnreadExpenses() throws IOException {
+        File file = folder.newFile();
+        PendingExpenseRing ring = new PendingExpenseRing(file, 4);
+        append(ring, "a", 100);
+        append(ring, "b", 200);
+
+        final List<Long> read = new ArrayList<>();
+        ring.forEach(new PendingExpenseRing.Visitor() {
+            @Override
+            public void onRecord(PendingExpenseRing.RecordView record) {
+                read.add(record.getSequence());
+            }
+        });
+
+        // Chega uma despesa entre a leitura e a confirmação
+        append(ring, "c", 300);
+        long[] ids = { read.get(0), read.get(1), 99L };
+
+        assertEquals("Só as confirmadas", 2, ring.acknowledge(ids));
+        assertEquals("Confirmar de novo não remove nada", 0, ring.acknowledge(ids));
+        assertEquals("Despesa nova mantida", "[c]", descriptions(ring).toString());
+        ring.close();
+
+        PendingExpenseRing reopened = new PendingExpenseRing(file, 4);
+        assertEquals("Confirmação persistida", "[c]", descriptions(reopened).toString());
+        reopened.close();
+    }
+
+    @Test
+    public void testAcknowledgedSlotIsNotCountedAsOverwritten() throws IOException {
+        PendingExpenseRing ring = new PendingExpenseRing(folder.newFile(), 2);
+        append(ring, "a", 100);
+        append(ring, "b", 200);
+
+        // Confirma só a segunda: o início não avança, mas o slot já não vale
+        final long[] second = new long[1];
+        ring.forEach(0, 1, new PendingExpenseRing.Visitor() {
+            @Override
+            public void onRecord(PendingExpenseRing.RecordView record) {
+                second[0] = record.getSequence();
+            }
+        });
+        ring.acknowledge(second);
+
+        append(ring, "c", 300);
+        assertEquals("Slot confirmado reaproveitado, nada perdido", 0, ring.getOverwrittenCount());
+        assertEquals("Todas as não confirmadas", "[a, c]", descriptions(ring).toString());
+        append(ring, "d", 400);
+        assertEquals("Cheio de não confirmadas: sobrescreve a mais antiga", 1, ring.getOverwrittenCount());
+        assertEquals("Restantes", "[c, d]", descriptions(ring).toString());
+        ring.close();
+    }
+
+    @Test
+    public void testAcknowledgedMiddleSlotsAreReusedBeforeOverwriting() throws IOException {
+        File file = folder.newFile();
+        PendingExpenseRing ring = new PendingExpenseRing(file, 4);
+        append(ring, "a", 100);
+        append(ring, "b", 200);
+        append(ring, "c", 300);
+        append(ring, "d", 400);
+
+        // Confirma as do meio; a mais antiga (a) continua pendente
+        final List<Long> seqs = new ArrayList<>();
+        ring.forEach(new PendingExpenseRing.Visitor() {
+            @Override
+            public void onRecord(PendingExpenseRing.RecordView record) {
+                seqs.add(record.getSequence());
+            }
+        });
+        assertEquals("Confirmadas", 2, ring.acknowledge(new long[] { seqs.get(1), seqs.get(2) }));
+
+        // Enche o buffer de novo: cabem duas sem perder nada
+        assertFalse("Primeira cabe num slot confirmado", ring.append(5L, 1L, "Nubank", 500, "e", "Outros", null, 0, 0));
+        assertFalse("Segunda cabe no outro", ring.append(6L, 1L, "Nubank", 600, "f", "Outros", null, 0, 0));
+        assertEquals("Nenhuma perda", 0, ring.getOverwrittenCount());
+        assertEquals("Buffer cheio", 4, ring.size());
+        assertEquals("Em ordem de chegada", "[a, d, e, f]", descriptions(ring).toString());
+        ring.close();
+
+        PendingExpenseRing reopened = new PendingExpenseRing(file, 4);
+        assertEquals("Índice remontado na abertura", "[a, d, e, f]", descriptions(reopened).toString());
+
+        // Só agora, cheio de não confirmadas, uma é sobrescrita
+        assertTrue("Sem slot livre", reopened.append(7L, 1L, "Nubank", 700, "g", "Outros", null, 0, 0));
+        assertEquals("Uma perda", 1, reopened.getOverwrittenCount());
+        reopened.close();
+    }
+
+    @Test
+    public void testSequencesStayStableWhenSlotsAreReused() throws IOException {
+        PendingExpenseRing ring = new PendingExpenseRing(folder.newFile(), 3);
+        append(ring, "a", 100);
+        append(ring, "b", 200);
+        append(ring, "c", 300);
+
+        final List<Long> seqs = new ArrayList<>();
+        final List<String> page = new ArrayList<>();
+        PendingExpenseRing.Visitor collect = new PendingExpenseRing.Visitor() {
+            @Override
+            public void onRecord(PendingExpenseRing.RecordView record) {
+                seqs.add(record.getSequence());
+                page.add(record.getDescription());
+            }
+        };
+        // O app lê a primeira página (a) e confirma b por outro caminho
+        ring.forEach(-1, 1, collect);
+        ring.forEach(seqs.get(0), 3, new PendingExpenseRing.Visitor() {
+            @Override
+            public void onRecord(PendingExpenseRing.RecordView record) {
+                if ("b".equals(record.getDescription())) {
+                    seqs.add(record.getSequence());
+                }
+            }
+        });
+        assertEquals("b confirmada", 1, ring.acknowledge(new long[] { seqs.get(1) }));
+
+        // d ocupa o slot de b: a e c mantêm as sequências lidas antes
+        assertFalse("Cabe no slot livre", ring.append(4L, 1L, "Nubank", 400, "d", "Outros", null, 0, 0));
+
+        ring.forEach(seqs.get(0), 3, collect);
+        assertEquals("Cursor antigo não pula despesas", "[a, c, d]", page.toString());
+        assertEquals("Confirmação pela sequência lida antes ainda vale", 1,
+            ring.acknowledge(new long[] { seqs.get(0) }));
+        assertEquals("Restantes", "[c, d]", descriptions(ring).toString());
+        ring.close();
+    }
+}
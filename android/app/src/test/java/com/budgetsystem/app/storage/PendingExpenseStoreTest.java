@@ -0,0 +1,211 @@
+package com.budgetsystem.app.storage;
+
+import com.budgetsystem.app.utils.ExpenseIdGenerator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para PendingExpenseStore
+ *
+ * Verifica, sobre a thread escritora única:
+ * - append → drain → ack em ordem de chegada
+ * - Group commit: appends enfileirados juntos viram um único commit antes do afterCommit
+ * - clear() remove os appends enfileirados antes dele, não os de depois
+ *
+ * O store é um singleton do processo: cada teste começa limpando-o.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class PendingExpenseStoreTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private PendingExpenseStore store;
+
+    @Before
+    public void setUp() throws InterruptedException {
+        store = PendingExpenseStore.getInstance(RuntimeEnvironment.getApplication());
+        store.clear();
+        awaitCommit();
+    }
+
+    @Test
+    public void testAppendDrainAckInOrder() throws InterruptedException {
+        append("a");
+        append("b");
+        append("c");
+
+        PendingExpenseStore.Page page = drain(-1, 10);
+        assertEquals("Ordem de chegada", "[a, b, c]", descriptions(page).toString());
+        assertFalse("Página única", page.hasMore);
+
+        long[] read = { page.expenses.optJSONObject(0).optLong("id"), page.expenses.optJSONObject(1).optLong("id") };
+        assertEquals("Só as confirmadas são removidas", 2, ack(read));
+        assertEquals("A não confirmada continua", "[c]", descriptions(drain(-1, 10)).toString());
+    }
+
+    @Test
+    public void testDrainPagesByCursor() throws InterruptedException {
+        append("a");
+        append("b");
+        append("c");
+
+        PendingExpenseStore.Page first = drain(-1, 2);
+        assertEquals("Primeira página", "[a, b]", descriptions(first).toString());
+        assertTrue("Há mais", first.hasMore);
+        assertEquals("Segunda página pelo cursor", "[c]", descriptions(drain(first.nextCursor, 2)).toString());
+    }
+
+    @Test
+    public void testAfterCommitRunsAfterGroupCommit() throws InterruptedException {
+        // Segura a thread escritora para os appends se acumularem num único grupo
+        final CountDownLatch release = new CountDownLatch(1);
+        store.afterCommit(new Runnable() {
+            @Override
+            public void run() {
+                awaitQuietly(release);
+            }
+        });
+        long commitsBefore = store.getCommitCount();
+
+        append("a");
+        append("b");
+        append("c");
+        final long[] commitsSeen = { -1 };
+        final CountDownLatch done = new CountDownLatch(1);
+        store.afterCommit(new Runnable() {
+            @Override
+            public void run() {
+                commitsSeen[0] = store.getCommitCount();
+                done.countDown();
+            }
+        });
+        release.countDown();
+
+        assertTrue("afterCommit executado", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals("Três appends, um commit antes da ação", commitsBefore + 1, commitsSeen[0]);
+        assertEquals("Todas gravadas", 3, count());
+    }
+
+    @Test
+    public void testClearAppliesAfterQueuedAppends() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        store.afterCommit(new Runnable() {
+            @Override
+            public void run() {
+                awaitQuietly(release);
+            }
+        });
+
+        append("a");
+        append("b");
+        store.clear();
+        append("c");
+        release.countDown();
+
+        assertEquals("Só a enfileirada depois do clear", "[c]", descriptions(drain(-1, 10)).toString());
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private void append(String description) {
+        store.append(ExpenseIdGenerator.next(), 1000L, "Nubank", 100, description, "Outros", null, 0, 0);
+    }
+
+    private void awaitCommit() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        store.afterCommit(new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        });
+        assertTrue("Thread escritora respondeu", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private PendingExpenseStore.Page drain(long afterSeq, int limit) throws InterruptedException {
+        final PendingExpenseStore.Page[] result = new PendingExpenseStore.Page[1];
+        final CountDownLatch done = new CountDownLatch(1);
+        store.drain(afterSeq, limit, new PendingExpenseStore.PageCallback() {
+            @Override
+            public void onPage(PendingExpenseStore.Page page) {
+                result[0] = page;
+                done.countDown();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                done.countDown();
+            }
+        });
+        assertTrue("drain respondeu", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertNotNull("drain sem erro", result[0]);
+        return result[0];
+    }
+
+    private int ack(long[] seqs) throws InterruptedException {
+        final int[] result = { -1 };
+        final CountDownLatch done = new CountDownLatch(1);
+        store.ack(seqs, new PendingExpenseStore.AckCallback() {
+            @Override
+            public void onAcknowledged(int removed) {
+                result[0] = removed;
+                done.countDown();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                done.countDown();
+            }
+        });
+        assertTrue("ack respondeu", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return result[0];
+    }
+
+    private int count() throws InterruptedException {
+        final int[] result = { -1 };
+        final CountDownLatch done = new CountDownLatch(1);
+        store.count(new PendingExpenseStore.CountCallback() {
+            @Override
+            public void onCount(int count) {
+                result[0] = count;
+                done.countDown();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                done.countDown();
+            }
+        });
+        assertTrue("count respondeu", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return result[0];
+    }
+
+    private static List<String> descriptions(PendingExpenseStore.Page page) {
+        List<String> result = new ArrayList<>();
+        JSONArray expenses = page.expenses;
+        for (int i = 0; i < expenses.length(); i++) {
+            result.add(expenses.optJSONObject(i).optString("description"));
+        }
+        return result;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
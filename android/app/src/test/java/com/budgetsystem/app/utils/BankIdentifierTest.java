@@ -0,0 +1,58 @@
+package com.budgetsystem.app.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para BankIdentifier / BankResolver
+ *
+ * Verifica:
+ * - Match mais longo na trie de packages
+ * - Chaves curtas só como segmento inteiro
+ * - Packages desconhecidos
+ */
+public class BankIdentifierTest {
+
+    @Test
+    public void testKnownPackages() {
+        assertEquals("Nubank", "Nubank", BankIdentifier.identifyBank("com.nu.production"));
+        assertEquals("Banco do Brasil", "Banco do Brasil", BankIdentifier.identifyBank("br.com.bb.android"));
+        assertEquals("Inter", "Banco Inter", BankIdentifier.identifyBank("br.com.intermedium"));
+        assertEquals("Caixa", "Caixa", BankIdentifier.identifyBank("br.com.gabba.Caixa"));
+    }
+
+    @Test
+    public void testLongestPrefixWins() {
+        assertEquals("Next é do Bradesco, mas é Next", "Next", BankIdentifier.identifyBank("br.com.bradesco.next"));
+        assertEquals("Outro app do Bradesco", "Bradesco", BankIdentifier.identifyBank("br.com.bradesco.app"));
+        assertEquals("Iti é do Itaú, mas é Iti", "Iti", BankIdentifier.identifyBank("com.itau.iti"));
+        assertEquals("Itaú", "Itaú", BankIdentifier.identifyBank("com.itau"));
+    }
+
+    @Test
+    public void testShortKeysOnlyMatchWholeSegments() {
+        assertNull("bbc não é bb", BankIdentifier.identifyBank("bbc.mobile.news.ww"));
+        assertNull("nextdoor não é next", BankIdentifier.identifyBank("com.nextdoor"));
+        assertNull("interactive não é inter", BankIdentifier.identifyBank("com.interactive.game"));
+        assertNull("game não é ame", BankIdentifier.identifyBank("com.supercell.game"));
+        assertEquals("Segmento inteiro", "Will Bank", BankIdentifier.identifyBank("br.com.will"));
+    }
+
+    @Test
+    public void testSegmentKeywordFallback() {
+        assertEquals("Palavra longa dentro do segmento", "Sicredi",
+            BankIdentifier.identifyBank("br.com.sicredi.mobi"));
+        assertEquals("Segmento mais à direita primeiro", "Iti",
+            BankIdentifier.identifyBank("com.example.itau.iti"));
+    }
+
+    @Test
+    public void testUnknownPackages() {
+        assertNull("Instagram", BankIdentifier.identifyBank("com.instagram.android"));
+        assertNull("Nulo", BankIdentifier.identifyBank(null));
+        assertEquals("Fallback", BankIdentifier.UNKNOWN_BANK,
+            BankIdentifier.identifyBankOrUnknown("com.instagram.android"));
+        assertFalse("Não é banco", BankIdentifier.isBankPackage("com.spotify.music"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.budgetsystem.app.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para BudgetLog / LogRingBuffer
+ *
+ * Verifica:
+ * - Formatação com "{}" (argumentos a menos, a mais, nulos)
+ * - Ring buffer de tamanho fixo sobrescrevendo as linhas mais antigas
+ */
+public class BudgetLogTest {
+
+    @Test
+    public void testFormat() {
+        assertEquals("Sem argumentos", "Sem argumentos", BudgetLog.format("Sem argumentos"));
+        assertEquals("Um argumento", "Lote de 3 despesa(s)", BudgetLog.format("Lote de {} despesa(s)", 3));
+        assertEquals("Vários argumentos", "a=1 b=2 c=3",
+            BudgetLog.format("a={} b={} c={}", 1, 2L, "3"));
+        assertEquals("Nulo vira \"null\"", "Comércio: null", BudgetLog.format("Comércio: {}", (Object) null));
+    }
+
+    @Test
+    public void testFormatArgumentCountMismatch() {
+        assertEquals("Placeholder sem argumento fica", "1 e {}", BudgetLog.format("{} e {}", 1));
+        assertEquals("Argumento a mais é ignorado", "só 1", BudgetLog.format("só {}", 1, 2));
+        assertEquals("Chave solta não é placeholder", "{x} 1", BudgetLog.format("{x} {}", 1));
+    }
+
+    @Test
+    public void testRingBufferOverwritesOldest() {
+        LogRingBuffer ring = new LogRingBuffer(3);
+        for (int i = 0; i < 5; i++) {
+            ring.add(i, 4, "Tag", "linha " + i);
+        }
+        assertEquals("Tamanho limitado à capacidade", 3, ring.size());
+        assertEquals("Duas linhas sobrescritas", 2, ring.getDroppedCount());
+
+        ring.clear();
+        assertEquals("Clear esvazia", 0, ring.size());
+        assertEquals("Clear zera as sobrescritas", 0, ring.getDroppedCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRingBufferRejectsZeroCapacity() {
+        new LogRingBuffer(0);
+    }
+
+    @Test
+    public void testLevelNames() {
+        assertEquals("Info", "I", BudgetLog.levelName(4));
+        assertEquals("Aviso", "W", BudgetLog.levelName(5));
+        assertEquals("Erro", "E", BudgetLog.levelName(6));
+    }
+}
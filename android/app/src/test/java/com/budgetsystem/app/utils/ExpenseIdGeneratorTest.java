@@ -0,0 +1,59 @@
+package com.budgetsystem.app.utils;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para ExpenseIdGenerator
+ *
+ * Verifica:
+ * - Ids únicos e crescentes, inclusive no mesmo ms e com relógio voltando
+ * - Horário embutido no id
+ * - Formato String de largura fixa (ordem igual à numérica)
+ */
+public class ExpenseIdGeneratorTest {
+
+    @Test
+    public void testIdsAreUniqueAndIncreasing() {
+        long time = 1760000000000L;
+        Set<Long> seen = new HashSet<>();
+        long previous = 0;
+        for (int i = 0; i < 10000; i++) {
+            // Mesmo ms para todos: passa de 4096 e empresta os ms seguintes
+            long id = ExpenseIdGenerator.next(time);
+            assertTrue("Crescente", id > previous);
+            assertTrue("Único", seen.add(id));
+            previous = id;
+        }
+
+        long afterClockRewind = ExpenseIdGenerator.next(time - 60000);
+        assertTrue("Relógio voltando não gera id menor", afterClockRewind > previous);
+    }
+
+    @Test
+    public void testTimestampIsEmbedded() {
+        long time = System.currentTimeMillis() + 3600000;
+        long id = ExpenseIdGenerator.next(time);
+
+        assertTrue("Positivo", id > 0);
+        assertEquals("Horário do id", time, ExpenseIdGenerator.timestampOf(id));
+    }
+
+    @Test
+    public void testFormatRoundTripAndOrder() {
+        long first = ExpenseIdGenerator.next();
+        long second = ExpenseIdGenerator.next();
+        String a = ExpenseIdGenerator.format(first);
+        String b = ExpenseIdGenerator.format(second);
+
+        assertEquals("Largura fixa", 13, a.length());
+        assertEquals("Volta ao número", first, ExpenseIdGenerator.parse(a));
+        assertTrue("Ordem das strings", a.compareTo(b) < 0);
+        assertEquals("Id pequeno com zeros", "000000000000z", ExpenseIdGenerator.format(35));
+        assertEquals("Inválido", 0, ExpenseIdGenerator.parse("não é id"));
+        assertEquals("Nulo", 0, ExpenseIdGenerator.parse(null));
+    }
+}
@@ -0,0 +1,94 @@
+package com.budgetsystem.app.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para LatencyHistogram
+ *
+ * Verifica:
+ * - Valores pequenos exatos
+ * - Percentis com erro relativo de no máximo 1/16
+ * - Percentil nunca acima do máximo registrado
+ * - Histograma vazio e reset
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        for (long micros = 0; micros < 32; micros++) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.recordMicros(micros);
+            assertEquals("Valor " + micros + "µs deve ser exato", micros, histogram.valueAtPercentile(50));
+        }
+    }
+
+    @Test
+    public void testBucketsCoverEveryValue() {
+        long[] values = { 32, 33, 47, 48, 1000, 65535, 65536, 123456789L, 1L << 40, (1L << 41) - 1 };
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue("Bucket dentro do array para " + value, bucket < LatencyHistogram.BUCKET_COUNT);
+            long highest = LatencyHistogram.highestValueIn(bucket);
+            assertTrue("Limite superior do bucket >= valor para " + value, highest >= value);
+            assertTrue("Erro relativo <= 1/16 para " + value, highest - value <= value / 16);
+        }
+    }
+
+    @Test
+    public void testHugeValuesFallInLastBucket() {
+        assertEquals("Acima de 2^41µs vai para o último bucket",
+            LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.recordMicros(micros);
+        }
+        assertEquals("Contagem", 1000, histogram.getCount());
+        assertEquals("Máximo", 1000, histogram.getMaxMicros());
+        assertEquals("Média", 500, histogram.getMeanMicros());
+
+        assertWithinBucket("p50", 500, histogram.valueAtPercentile(50));
+        assertWithinBucket("p90", 900, histogram.valueAtPercentile(90));
+        assertWithinBucket("p99", 990, histogram.valueAtPercentile(99));
+        assertEquals("p100 é o máximo", 1000, histogram.valueAtPercentile(100));
+    }
+
+    @Test
+    public void testPercentileNeverAboveMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordMicros(1000);
+        assertEquals("Uma amostra: percentil = valor registrado", 1000, histogram.valueAtPercentile(99));
+    }
+
+    @Test
+    public void testNanosAndNegative() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(25_999);
+        histogram.recordMicros(-5);
+        assertEquals("Nanos truncados para µs", 25, histogram.getMaxMicros());
+        assertEquals("Negativo conta como 0", 0, histogram.valueAtPercentile(50));
+    }
+
+    @Test
+    public void testEmptyAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals("Vazio: percentil 0", 0, histogram.valueAtPercentile(99));
+        assertEquals("Vazio: média 0", 0, histogram.getMeanMicros());
+
+        histogram.recordMicros(5000);
+        histogram.reset();
+        assertEquals("Reset zera a contagem", 0, histogram.getCount());
+        assertEquals("Reset zera o máximo", 0, histogram.getMaxMicros());
+        assertEquals("Reset zera os buckets", 0, histogram.valueAtPercentile(50));
+    }
+
+    private static void assertWithinBucket(String label, long expected, long actual) {
+        assertTrue(label + ": " + actual + " >= " + expected, actual >= expected);
+        assertTrue(label + ": " + actual + " dentro de 1/16 de " + expected, actual - expected <= expected / 16);
+    }
+}
@@ -0,0 +1,111 @@
+package com.budgetsystem.app.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para PreferencesWriteBehind
+ *
+ * Verifica:
+ * - Leitura enxerga a escrita ainda não gravada (read-your-writes) e, depois do flush, o disco
+ * - remove e clear escondem valores pendentes e já gravados
+ * - Várias escritas na mesma janela viram um único commit (contador de coalescência)
+ *
+ * A camada é um singleton do processo: cada teste usa um arquivo de preferências próprio e
+ * compara os contadores antes e depois.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class PreferencesWriteBehindTest {
+
+    private Context context;
+    private PreferencesWriteBehind writeBehind;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        writeBehind = PreferencesWriteBehind.getInstance(context);
+        writeBehind.flush();
+    }
+
+    @Test
+    public void testReadsPendingWriteBeforeFlush() {
+        String prefs = "test_read_your_writes";
+        writeBehind.putString(prefs, "userId", "abc");
+        writeBehind.putLong(prefs, "lastExpense", 42L);
+
+        assertEquals("String pendente visível", "abc", writeBehind.getString(prefs, "userId", null));
+        assertEquals("Long pendente visível", 42L, writeBehind.getLong(prefs, "lastExpense", 0L));
+        assertEquals("Tipo diferente cai no padrão", 7L, writeBehind.getLong(prefs, "userId", 7L));
+
+        writeBehind.flush();
+        assertEquals("Gravado no disco", "abc", disk(prefs).getString("userId", null));
+        assertEquals("Lido do disco depois do flush", "abc", writeBehind.getString(prefs, "userId", null));
+    }
+
+    @Test
+    public void testRemoveHidesValue() {
+        String prefs = "test_remove";
+        writeBehind.putString(prefs, "saved", "no disco");
+        writeBehind.flush();
+
+        writeBehind.putString(prefs, "pending", "pendente");
+        writeBehind.remove(prefs, "saved");
+        writeBehind.remove(prefs, "pending");
+        assertNull("Removido (já gravado) some antes do flush", writeBehind.getString(prefs, "saved", null));
+        assertNull("Removido (pendente) some antes do flush", writeBehind.getString(prefs, "pending", null));
+
+        writeBehind.flush();
+        assertFalse("Removido do disco", disk(prefs).contains("saved"));
+        assertFalse("Nunca chegou ao disco", disk(prefs).contains("pending"));
+    }
+
+    @Test
+    public void testClearOverridesEarlierPuts() {
+        String prefs = "test_clear";
+        writeBehind.putString(prefs, "saved", "no disco");
+        writeBehind.flush();
+
+        writeBehind.putString(prefs, "before", "antes do clear");
+        writeBehind.clear(prefs);
+        writeBehind.putString(prefs, "after", "depois do clear");
+
+        assertNull("Valor gravado escondido pelo clear", writeBehind.getString(prefs, "saved", null));
+        assertNull("Put anterior ao clear descartado", writeBehind.getString(prefs, "before", null));
+        assertEquals("Put posterior ao clear mantido", "depois do clear", writeBehind.getString(prefs, "after", null));
+
+        writeBehind.flush();
+        assertEquals("Disco só com o put posterior", 1, disk(prefs).getAll().size());
+        assertEquals("Put posterior gravado", "depois do clear", disk(prefs).getString("after", null));
+    }
+
+    @Test
+    public void testWritesInOneWindowAreCoalesced() {
+        String prefs = "test_coalesce";
+        long requestedBefore = writeBehind.getRequestedWriteCount();
+        long commitsBefore = writeBehind.getCommitCount();
+        long coalescedBefore = writeBehind.getCoalescedWriteCount();
+
+        for (int i = 0; i < 5; i++) {
+            writeBehind.putLong(prefs, "counter", i);
+        }
+        writeBehind.flush();
+
+        assertEquals("Cinco escritas pedidas", 5, writeBehind.getRequestedWriteCount() - requestedBefore);
+        assertEquals("Um commit", 1, writeBehind.getCommitCount() - commitsBefore);
+        assertEquals("Quatro juntadas", 4, writeBehind.getCoalescedWriteCount() - coalescedBefore);
+        assertEquals("Último valor gravado", 4L, disk(prefs).getLong("counter", -1L));
+    }
+
+    private SharedPreferences disk(String prefs) {
+        return context.getSharedPreferences(prefs, Context.MODE_PRIVATE);
+    }
+}
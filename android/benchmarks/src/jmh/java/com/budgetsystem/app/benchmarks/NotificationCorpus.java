@@ -0,0 +1,61 @@
+package com.budgetsystem.app.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Corpus de notificações anonimizadas (Nubank, Itaú, Inter, PicPay, C6, mensageiros e email)
+ * lido de notifications.tsv. Mistura despesas, notificações bancárias sem valor e ruído,
+ * na proporção em que chegam ao listener.
+ */
+public final class NotificationCorpus {
+    private static final String RESOURCE = "/notifications.tsv";
+
+    public static final class Sample {
+        public final String packageName;
+        public final String title;
+        public final String text;
+        public final String bigText;
+
+        Sample(String packageName, String title, String text, String bigText) {
+            this.packageName = packageName;
+            this.title = title;
+            this.text = text;
+            this.bigText = bigText;
+        }
+    }
+
+    private NotificationCorpus() {
+        // Classe utilitária - não instanciar
+    }
+
+    public static List<Sample> load() {
+        InputStream input = NotificationCorpus.class.getResourceAsStream(RESOURCE);
+        if (input == null) {
+            throw new IllegalStateException("Corpus não encontrado: " + RESOURCE);
+        }
+        List<Sample> samples = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t", -1);
+                if (fields.length < 3) {
+                    throw new IllegalStateException("Linha inválida no corpus: " + line);
+                }
+                samples.add(new Sample(fields[0], fields[1], fields[2], fields.length > 3 ? fields[3] : ""));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Erro ao ler o corpus", e);
+        }
+        return Collections.unmodifiableList(samples);
+    }
+}
@@ -0,0 +1,68 @@
+package com.budgetsystem.app.benchmarks;
+
+import com.budgetsystem.app.parsing.MerchantNameCache;
+import com.budgetsystem.app.parsing.NotificationParser;
+import com.budgetsystem.app.parsing.ParsedNotification;
+import com.budgetsystem.app.pipeline.NotificationPrefilter;
+import com.budgetsystem.app.utils.BankIdentifier;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Caminho de uma notificação como no NotificationProcessor.process, sem o Android
+ * (logs, dedup em disco, plugin, pendentes e upload):
+ * prefiltro → banco pelo package → parse completo.
+ *
+ * Cada operação é uma notificação do corpus, em rodízio.
+ */
+@State(Scope.Thread)
+public class NotificationPathBenchmark {
+
+    private List<NotificationCorpus.Sample> corpus;
+    private NotificationParser parser;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        corpus = NotificationCorpus.load();
+        parser = new NotificationParser(new MerchantNameCache(128), null);
+        // Cache de comércios aquecido, como depois de algumas horas de uso
+        for (NotificationCorpus.Sample sample : corpus) {
+            parser.parse(BankIdentifier.identifyBankOrUnknown(sample.packageName),
+                sample.title, sample.text, sample.bigText);
+        }
+    }
+
+    /**
+     * Notificação inteira: o que o listener e a thread do pipeline gastam por notificação.
+     */
+    @Benchmark
+    public ParsedNotification processNotification() {
+        NotificationCorpus.Sample sample = nextSample();
+        if (!NotificationPrefilter.acceptsPackage(sample.packageName)
+                || !NotificationPrefilter.acceptsContent(sample.packageName, sample.text, sample.bigText)) {
+            return null;
+        }
+        String bank = BankIdentifier.identifyBankOrUnknown(sample.packageName);
+        return parser.parse(bank, sample.title, sample.text, sample.bigText);
+    }
+
+    /**
+     * Só o parse, sem o prefiltro (toda notificação chega ao parser).
+     */
+    @Benchmark
+    public ParsedNotification parseUnfiltered() {
+        NotificationCorpus.Sample sample = nextSample();
+        return parser.parse(BankIdentifier.identifyBankOrUnknown(sample.packageName),
+            sample.title, sample.text, sample.bigText);
+    }
+
+    private NotificationCorpus.Sample nextSample() {
+        NotificationCorpus.Sample sample = corpus.get(next);
+        next = next + 1 == corpus.size() ? 0 : next + 1;
+        return sample;
+    }
+}
@@ -0,0 +1,119 @@
+package com.budgetsystem.app.parsing;
+
+import com.budgetsystem.app.benchmarks.NotificationCorpus;
+import com.budgetsystem.app.utils.BankIdentifier;
+import com.budgetsystem.app.utils.ExpenseCategorizer;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cada etapa do parse isolada, com as mesmas entradas que ela recebe dentro de
+ * {@link NotificationParser#parse(String, String, String, String)}.
+ *
+ * Fica no pacote parsing para chamar as etapas internas (extractMerchantName,
+ * extractInstallmentInfo, extractSmartDescription). Cada operação é uma notificação
+ * do corpus, em rodízio.
+ */
+@State(Scope.Thread)
+public class ParserStagesBenchmark {
+
+    // Entradas de cada etapa já prontas, para medir só a etapa
+    private static final class Input {
+        final String packageName;
+        final String bank;
+        final String title;
+        final String text;
+        final String bigText;
+        final String fullText;
+
+        Input(NotificationCorpus.Sample sample) {
+            this.packageName = sample.packageName;
+            this.bank = BankIdentifier.identifyBankOrUnknown(sample.packageName);
+            this.title = sample.title;
+            this.text = sample.text;
+            this.bigText = sample.bigText;
+            this.fullText = (sample.text + " " + sample.bigText).toLowerCase();
+        }
+    }
+
+    private Input[] inputs;
+    private NotificationParser parser;
+    private RuleSet rules;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<NotificationCorpus.Sample> corpus = NotificationCorpus.load();
+        inputs = new Input[corpus.size()];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = new Input(corpus.get(i));
+        }
+        rules = ParsingRules.current();
+        parser = new NotificationParser(new MerchantNameCache(128), null);
+        for (Input input : inputs) {
+            parser.parse(input.bank, input.title, input.text, input.bigText);
+        }
+    }
+
+    @Benchmark
+    public String identifyBank() {
+        return BankIdentifier.identifyBank(nextInput().packageName);
+    }
+
+    @Benchmark
+    public boolean mightBeExpense() {
+        Input input = nextInput();
+        return NotificationParser.mightBeExpense(input.text, input.bigText);
+    }
+
+    @Benchmark
+    public long keywordGroups() {
+        Input input = nextInput();
+        return rules.getKeywords().matchGroups(input.text, input.bigText);
+    }
+
+    @Benchmark
+    public long amount() {
+        return BrlAmountParser.parseCents(nextInput().fullText);
+    }
+
+    @Benchmark
+    public String extractMerchantName() {
+        Input input = nextInput();
+        return parser.extractMerchantName(input.fullText, input.text);
+    }
+
+    @Benchmark
+    public boolean extractInstallmentInfo() {
+        return parser.extractInstallmentInfo(nextInput().fullText);
+    }
+
+    @Benchmark
+    public String extractSmartDescription() {
+        Input input = nextInput();
+        return parser.extractSmartDescription(input.title, input.text, input.bigText, input.fullText);
+    }
+
+    @Benchmark
+    public String categorize() {
+        return ExpenseCategorizer.categorize(nextInput().fullText);
+    }
+
+    /**
+     * Parse completo, com o cache de comércios aquecido.
+     */
+    @Benchmark
+    public ParsedNotification parse() {
+        Input input = nextInput();
+        return parser.parse(input.bank, input.title, input.text, input.bigText);
+    }
+
+    private Input nextInput() {
+        Input input = inputs[next];
+        next = next + 1 == inputs.length ? 0 : next + 1;
+        return input;
+    }
+}
@@ -32,6 +32,9 @@ setGlobalOptions({ maxInstances: 10 });
  * Cloud Function que recebe notificações bancárias e envia via FCM
  * POST /sendExpenseNotification
  * Body: { userId, amount, bank, description, category }
+ * Lote (app Android agrupa despesas em rajadas):
+ * Body: { userId, expenses: [{ expenseId, amount, amountCents, bank, description, category }, ...] }
+ * Idempotente por expenseId: despesa já entregue (retry do app) não gera nova notificação.
  */
 export const sendExpenseNotification = onRequest(async (req, res) => {
     // CORS headers
@@ -51,17 +54,19 @@ export const sendExpenseNotification = onRequest(async (req, res) => {
     }
 
     try {
-        const { userId, amount, bank, description, category } = req.body;
+        const { userId } = req.body;
+        const expenses: ExpensePayload[] = Array.isArray(req.body.expenses) ?
+            req.body.expenses :
+            [req.body];
 
         logger.info("Received expense notification", {
             userId,
-            amount,
-            bank,
-            description,
-            category,
+            count: expenses.length,
         });
 
-        if (!userId || !amount) {
+        const validExpenses = expenses.filter((expense) => expense && expense.amount);
+
+        if (!userId || validExpenses.length === 0) {
             res.status(400).send("Missing required fields: userId, amount");
             return;
         }
@@ -80,8 +85,154 @@ export const sendExpenseNotification = onRequest(async (req, res) => {
             return;
         }
 
-        // Send notification via FCM
-        const message = {
+        // Reserva os expenseIds: só as despesas ainda não entregues seguem
+        const { fresh, claimed } = await claimExpenses(userId, validExpenses);
+        const duplicates = validExpenses.length - fresh.length;
+
+        if (fresh.length === 0) {
+            logger.info("Expenses already delivered", { userId, duplicates });
+            res.status(200).json({
+                success: true,
+                message: "Already delivered",
+                count: 0,
+                duplicates,
+            });
+            return;
+        }
+
+        // Uma única mensagem FCM por requisição, mesmo para lotes
+        try {
+            await admin.messaging().send(buildExpenseMessage(fcmToken, fresh));
+        } catch (error) {
+            // Libera as reservas para o retry do app poder entregar
+            await releaseExpenses(userId, claimed);
+            throw error;
+        }
+
+        logger.info("Notification sent successfully", {
+            userId,
+            count: fresh.length,
+            duplicates,
+        });
+        res.status(200).json({
+            success: true,
+            message: "Notification sent successfully",
+            count: fresh.length,
+            duplicates,
+        });
+    } catch (error) {
+        logger.error("Error sending notification", error);
+        res.status(500).send(`Error sending notification: ${error}`);
+    }
+});
+
+interface ExpensePayload {
+    // Id gerado no app na detecção (13 caracteres, base 36, ordenado pelo tempo)
+    expenseId?: string;
+    amount: number;
+    amountCents?: number;
+    bank?: string;
+    description?: string;
+    category?: string;
+}
+
+// Reservas de expenseId expiram (política de TTL do Firestore no campo expireAt)
+const DELIVERED_EXPENSE_TTL_MS = 7 * 24 * 60 * 60 * 1000;
+const EXPENSE_ID_PATTERN = /^[0-9a-z]{1,13}$/;
+
+/**
+ * Reserva os expenseIds do lote em users/{userId}/deliveredExpenses/{expenseId}, numa única
+ * transação: ou o lote inteiro fica reservado, ou nada (uma falha no meio não deixa ids
+ * reservados sem push, que o retry do app veria como "já entregues"). A transação lê os
+ * ids e só cria os que ainda não existem, então retries concorrentes não entregam duas vezes.
+ * Despesas sem expenseId (apps antigos) passam.
+ */
+async function claimExpenses(userId: string, expenses: ExpensePayload[]) {
+    const deliveredRef = admin.firestore()
+        .collection("users")
+        .doc(userId)
+        .collection("deliveredExpenses");
+    const expireAt = admin.firestore.Timestamp.fromMillis(Date.now() + DELIVERED_EXPENSE_TTL_MS);
+
+    // Ids válidos e sem repetição dentro do lote (a primeira ocorrência vale)
+    const ids: string[] = [];
+    const firstIndex = new Map<string, number>();
+    expenses.forEach((expense, index) => {
+        const expenseId = expense.expenseId;
+        if (typeof expenseId === "string" && EXPENSE_ID_PATTERN.test(expenseId) &&
+                !firstIndex.has(expenseId)) {
+            firstIndex.set(expenseId, index);
+            ids.push(expenseId);
+        }
+    });
+
+    const delivered = ids.length === 0 ? new Set<string>() :
+        await admin.firestore().runTransaction(async (transaction) => {
+            const refs = ids.map((expenseId) => deliveredRef.doc(expenseId));
+            const snapshots = await transaction.getAll(...refs);
+            const existing = new Set<string>();
+            snapshots.forEach((snapshot, index) => {
+                if (snapshot.exists) {
+                    existing.add(ids[index]);
+                } else {
+                    transaction.create(refs[index], {
+                        createdAt: admin.firestore.FieldValue.serverTimestamp(),
+                        expireAt,
+                    });
+                }
+            });
+            return existing;
+        });
+
+    const fresh = expenses.filter((expense, index) => {
+        const expenseId = expense.expenseId;
+        if (typeof expenseId !== "string" || !firstIndex.has(expenseId)) {
+            return true;
+        }
+        return firstIndex.get(expenseId) === index && !delivered.has(expenseId);
+    });
+    const claimed = ids.filter((expenseId) => !delivered.has(expenseId));
+    return { fresh, claimed };
+}
+
+/**
+ * Desfaz as reservas quando o envio falha
+ */
+async function releaseExpenses(userId: string, expenseIds: string[]) {
+    if (expenseIds.length === 0) {
+        return;
+    }
+    const deliveredRef = admin.firestore()
+        .collection("users")
+        .doc(userId)
+        .collection("deliveredExpenses");
+    const batch = admin.firestore().batch();
+    expenseIds.forEach((expenseId) => batch.delete(deliveredRef.doc(expenseId)));
+    try {
+        await batch.commit();
+    } catch (error) {
+        logger.error("Error releasing delivered expenses", { userId, error });
+    }
+}
+
+/**
+ * Valor em centavos (apps antigos enviam só amount em reais)
+ */
+function expenseCents(expense: ExpensePayload): number {
+    if (Number.isInteger(expense.amountCents)) {
+        return expense.amountCents as number;
+    }
+    return Math.round(Number(expense.amount) * 100);
+}
+
+/**
+ * Monta a mensagem FCM para uma despesa ou um resumo para várias
+ */
+function buildExpenseMessage(fcmToken: string, expenses: ExpensePayload[]) {
+    if (expenses.length === 1) {
+        const { bank, description, category } = expenses[0];
+        const amount = (expenseCents(expenses[0]) / 100).toFixed(2);
+        return {
             token: fcmToken,
             notification: {
                 title: `Nova despesa: R$ ${amount}`,
@@ -89,25 +240,32 @@ export const sendExpenseNotification = onRequest(async (req, res) => {
             },
             data: {
                 type: "expense",
-                amount: amount.toString(),
+                amount,
                 bank: bank || "",
                 description: description || "",
                 category: category || "",
             },
         };
-
-        await admin.messaging().send(message);
-
-        logger.info("Notification sent successfully", { userId, amount });
-        res.status(200).json({
-            success: true,
-            message: "Notification sent successfully",
-        });
-    } catch (error) {
-        logger.error("Error sending notification", error);
-        res.status(500).send(`Error sending notification: ${error}`);
     }
-});
+
+    // Soma em centavos inteiros para não acumular erro de ponto flutuante
+    const totalCents = expenses.reduce((sum, expense) => sum + expenseCents(expense), 0);
+    const total = totalCents / 100;
+    return {
+        token: fcmToken,
+        notification: {
+            title: `${expenses.length} novas despesas: R$ ${total.toFixed(2)}`,
+            body: expenses
+                .map((expense) => `${expense.bank} - ${expense.description || "Sem descrição"}`)
+                .join("\n"),
+        },
+        data: {
+            type: "expense_batch",
+            count: expenses.length.toString(),
+            total: total.toFixed(2),
+        },
+    };
+}
 
 /**
  * Cloud Function para enviar notificações de convites
@@ -0,0 +1,100 @@
+# Script para reproduzir um fluxo gravado de notificações no app via ADB
+# As notificações passam pelo caminho real do NotificationListenerService
+# (prefiltro, fila, dedup, parse, plugin e despesas pendentes)
+#
+# Uso:
+#   .\replay-notifications.ps1 -Stream docs\replay\payday-burst.jsonl -Speed 10
+#   .\replay-notifications.ps1 -Stream gravacao.jsonl -Speed max
+#   .\replay-notifications.ps1 -Stream gravacao.jsonl -Speed 1 -Upload
+#
+# Só funciona em builds de debug. Use um aparelho de teste: as despesas geradas
+# aparecem no app como as reais.
+
+param(
+    [Parameter(Mandatory = $true)]
+    [string]$Stream,
+    [string]$Speed = "1",
+    [switch]$Upload,
+    [int]$TimeoutSeconds = 600
+)
+
+Write-Host "=== Replay de Notificações Gravadas ===" -ForegroundColor Cyan
+Write-Host ""
+
+# Verificar se ADB está disponível
+$adbPath = "adb"
+try {
+    $null = & $adbPath version 2>&1
+} catch {
+    Write-Host "Erro: ADB não encontrado. Instale o Android SDK Platform Tools." -ForegroundColor Red
+    exit 1
+}
+
+# Verificar se há dispositivo conectado
+$devices = & $adbPath devices | Select-String "device$"
+if ($devices.Count -eq 0) {
+    Write-Host "Erro: Nenhum dispositivo Android conectado." -ForegroundColor Red
+    Write-Host "Conecte um dispositivo via USB ou inicie um emulador." -ForegroundColor Yellow
+    exit 1
+}
+
+if (-not (Test-Path $Stream)) {
+    Write-Host "Erro: arquivo '$Stream' não encontrado." -ForegroundColor Red
+    exit 1
+}
+
+$packageName = "com.budgetsystem.app"
+$replayDir = "/sdcard/Android/data/$packageName/files/replay"
+$fileName = Split-Path $Stream -Leaf
+$uploadValue = if ($Upload) { "true" } else { "false" }
+
+# Envia o fluxo e apaga o relatório anterior
+Write-Host "Enviando $fileName para o dispositivo..." -ForegroundColor Yellow
+& $adbPath shell "mkdir -p $replayDir" | Out-Null
+& $adbPath push $Stream "$replayDir/$fileName" | Out-Null
+& $adbPath shell "rm -f $replayDir/report.json" | Out-Null
+
+# Broadcast explícito (receivers do manifest não recebem broadcasts implícitos no Android 8+)
+Write-Host "Iniciando replay (velocidade: $Speed, upload: $uploadValue)..." -ForegroundColor Yellow
+$command = "am broadcast -n $packageName/.NotificationReplayReceiver -a com.budgetsystem.REPLAY_NOTIFICATIONS --es file `"$fileName`" --es speed `"$Speed`" --ez upload $uploadValue"
+& $adbPath shell $command | Out-Null
+
+# Aguarda o relatório
+$elapsed = 0
+while ($elapsed -lt $TimeoutSeconds) {
+    Start-Sleep -Seconds 2
+    $elapsed += 2
+    $exists = & $adbPath shell "ls $replayDir/report.json 2>/dev/null"
+    if ($exists) {
+        break
+    }
+    Write-Host "." -NoNewline
+}
+Write-Host ""
+
+if ($elapsed -ge $TimeoutSeconds) {
+    Write-Host "Erro: replay não terminou em $TimeoutSeconds s." -ForegroundColor Red
+    Write-Host "Veja os logs: adb logcat -s NotificationReplayer" -ForegroundColor Yellow
+    exit 1
+}
+
+$reportPath = Join-Path (Get-Location) "replay-report.json"
+& $adbPath pull "$replayDir/report.json" $reportPath | Out-Null
+$report = Get-Content $reportPath -Raw | ConvertFrom-Json
+
+Write-Host ""
+Write-Host "Relatório do replay ($($report.stream), $($report.speed)):" -ForegroundColor Green
+Write-Host "  Notificações:        $($report.notifications) (filtradas: $($report.filtered), processadas: $($report.processed))"
+Write-Host "  Fila:                $($report.coalesced) agrupadas, $($report.queueDropped) descartadas"
+Write-Host "  Latência (ms):       p50 $($report.latencyMs.p50) | p90 $($report.latencyMs.p90) | p99 $($report.latencyMs.p99) | max $($report.latencyMs.max)"
+Write-Host "  Vazão:               $($report.notificationsPerSecond) notificações/s"
+Write-Host "  Despesas esperadas:  $($report.expenses.expected)"
+
+$lostColor = if ($report.expenses.lost -gt 0) { "Red" } else { "White" }
+$dupColor = if ($report.expenses.duplicated -gt 0) { "Red" } else { "White" }
+Write-Host "  Despesas perdidas:   $($report.expenses.lost)" -ForegroundColor $lostColor
+Write-Host "  Despesas duplicadas: $($report.expenses.duplicated)" -ForegroundColor $dupColor
+Write-Host "  Escritas em disco:   $($report.diskWrites.total) (processor $($report.diskWrites.processor), pendentes $($report.diskWrites.pendingCommits), preferências $($report.diskWrites.preferenceCommits))"
+Write-Host ""
+Write-Host "Relatório completo salvo em $reportPath" -ForegroundColor Cyan
+Write-Host ""
@@ -19,16 +19,35 @@ export interface NotificationPluginPlugin {
     // Abre configurações de notificação do app
     openNotificationSettings(): Promise<void>
 
-    // Carrega despesas pendentes que foram salvas enquanto o app estava fechado
-    loadPendingExpenses(): Promise<{ expenses: BankExpenseEvent[], count: number }>
+    // Carrega despesas pendentes que foram salvas enquanto o app estava fechado, em páginas
+    // (after: nextCursor da página anterior; -1 ou omitido = do início)
+    loadPendingExpenses(options?: { after?: number, limit?: number }): Promise<PendingExpensesPage>
 
-    // Limpa as despesas pendentes após serem processadas
+    // Remove só as despesas pendentes confirmadas (ids recebidos em loadPendingExpenses)
+    ackPendingExpenses(options: { ids: number[] }): Promise<{ removed: number }>
+
+    // Limpa todas as despesas pendentes (prefira ackPendingExpenses)
     clearPendingExpenses(): Promise<void>
 
-    // Listener para receber notificações de gastos
+    // Recarrega as regras de parsing (data: arquivo de regras baixado, em base64)
+    reloadParsingRules(options?: { data?: string }): Promise<{ version: number }>
+
+    // Ensina ao classificador de categorias a escolha do usuário (comércio/descrição → categoria)
+    learnCategory(options: { text: string, category: string }): Promise<{ learned: boolean, examples: number }>
+
+    // Esquece uma categoria do classificador (budget apagado ou renomeado)
+    forgetCategory(options: { category: string }): Promise<{ forgotten: boolean, examples: number }>
+
+    // Métricas do pipeline nativo (latência por etapa, resultados, fila e gravações em disco)
+    getPipelineStats(): Promise<PipelineStats>
+
+    // Log estruturado do nativo para casos de suporte (sem dados pessoais; clear: esvazia depois)
+    exportDiagnosticLog(options?: { clear?: boolean }): Promise<DiagnosticLog>
+
+    // Listener para receber notificações de gastos (em lote: várias despesas por evento)
     addListener(
-        eventName: 'bankExpense',
-        listenerFunc: (expense: BankExpenseEvent) => void
+        eventName: 'bankExpenses',
+        listenerFunc: (batch: BankExpensesEvent) => void
     ): Promise<void>
 
     // Listener para verificação de email
@@ -39,7 +58,13 @@ export interface NotificationPluginPlugin {
 }
 
 export interface BankExpenseEvent {
+    // Id da despesa pendente no nativo (só em loadPendingExpenses)
+    id?: number
+    // Id único gerado na detecção (o mesmo no evento, nas pendentes e na Cloud Function)
+    expenseId?: string
     amount: number
+    // Valor exato em centavos (amount é derivado dele)
+    amountCents?: number
     bank: string
     description: string
     category: string
@@ -49,6 +74,49 @@ export interface BankExpenseEvent {
     installmentTotal?: number
 }
 
+export interface BankExpensesEvent {
+    // Número do lote, crescente enquanto o processo nativo estiver vivo
+    seq: number
+    count: number
+    expenses: BankExpenseEvent[]
+}
+
+export interface PendingExpensesPage {
+    expenses: BankExpenseEvent[]
+    count: number
+    // Cursor para a próxima página
+    nextCursor: number
+    hasMore: boolean
+}
+
+export interface StageLatency {
+    count: number
+    // Em microssegundos
+    p50Us: number
+    p90Us: number
+    p99Us: number
+    maxUs: number
+    meanUs: number
+}
+
+export interface PipelineStats {
+    device: { manufacturer: string, model: string, sdk: number }
+    stages: Record<'filter' | 'parse' | 'categorize' | 'persist' | 'plugin' | 'upload', StageLatency>
+    // Notificações por resultado (EXPENSE, NOT_BANK, DUPLICATE_EXPENSE, ...)
+    outcomes: Record<string, number>
+    queue: { size: number, capacity: number, enqueued: number, coalesced: number, dropped: number }
+    disk: { processorWrites: number, pendingCommits: number, preferenceCommits: number, coalescedPreferenceWrites: number }
+}
+
+export interface DiagnosticLog {
+    // Da mais antiga para a mais nova; level: I, W ou E
+    entries: { t: number, level: string, tag: string, msg: string }[]
+    count: number
+    // Linhas sobrescritas por falta de espaço
+    dropped: number
+    debugBuild: boolean
+}
+
 export interface EmailVerificationEvent {
     title: string
     text: string
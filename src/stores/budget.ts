@@ -22,11 +22,14 @@ import {
 import { useAuthStore } from './auth'
 import FCM from '@/plugins/FCMPlugin'
 import Badge from '@/plugins/BadgePlugin'
+import NotificationPlugin from '@/plugins/NotificationPlugin'
 import { Capacitor } from '@capacitor/core'
 import { logger } from '@/services/LoggerService'
 
 interface PendingExpense {
     id: string
+    // Id gerado no nativo na detecção (evento ao vivo e pendentes trazem o mesmo)
+    expenseId?: string
     amount: number
     bank: string
     description: string
@@ -274,6 +277,11 @@ export const useBudgetStore = defineStore('budget', () => {
         const authStore = useAuthStore()
         logger.debug('Updating budget', 'budgetStore.updateBudget', { budgetId: id, updates })
 
+        const previousName = budgets.value.find(b => b.id === id)?.name
+        if (updates.name !== undefined && updates.name !== previousName) {
+            forgetBudgetCategory(previousName)
+        }
+
         if (authStore.userId) {
             try {
                 const budgetRef = doc(db, 'users', authStore.userId, 'budgets', id)
@@ -343,6 +351,7 @@ export const useBudgetStore = defineStore('budget', () => {
     const deleteBudget = async (id: string) => {
         const authStore = useAuthStore()
         logger.info('Deleting budget', 'budgetStore.deleteBudget', { budgetId: id })
+        forgetBudgetCategory(budgets.value.find(b => b.id === id)?.name)
 
         if (authStore.userId) {
             try {
@@ -1143,14 +1152,77 @@ export const useBudgetStore = defineStore('budget', () => {
         return incomeDescriptionPatterns.some(pattern => pattern.test(description))
     }
 
+    // expenseIds já recebidos, inclusive os já aprovados/rejeitados: a mesma despesa chega
+    // pelo evento ao vivo e de novo pelas pendentes do nativo. Limitado aos mais recentes.
+    const SEEN_EXPENSE_IDS_LIMIT = 1000
+    const loadSeenExpenseIds = (): string[] => {
+        try {
+            const stored = localStorage.getItem('seenExpenseIds')
+            return stored ? JSON.parse(stored) : []
+        } catch (error) {
+            console.error('Error loading seen expense ids from localStorage:', error)
+            return []
+        }
+    }
+    const seenExpenseIds = loadSeenExpenseIds()
+    const seenExpenseIdSet = new Set<string>(seenExpenseIds)
+
+    const rememberExpenseId = (expenseId: string) => {
+        seenExpenseIdSet.add(expenseId)
+        seenExpenseIds.push(expenseId)
+        while (seenExpenseIds.length > SEEN_EXPENSE_IDS_LIMIT) {
+            seenExpenseIdSet.delete(seenExpenseIds.shift()!)
+        }
+    }
+
+    const savePendingExpenses = () => {
+        localStorage.setItem('pendingExpenses', JSON.stringify(pendingExpenses.value))
+        localStorage.setItem('seenExpenseIds', JSON.stringify(seenExpenseIds))
+    }
+
     const addPendingExpense = (expense: Omit<PendingExpense, 'id'>) => {
+        if (!insertPendingExpense(expense)) return
+
+        // Save to localStorage as backup
+        savePendingExpenses()
+
+        // Atualiza o badge do ícone do app
+        updateBadgeCount()
+    }
+
+    // Adiciona um lote de despesas (evento 'bankExpenses') com uma única gravação e atualização de badge
+    const addPendingExpenses = (expenses: Omit<PendingExpense, 'id'>[]): number => {
+        let added = 0
+        for (const expense of expenses) {
+            if (insertPendingExpense(expense)) added++
+        }
+        if (added === 0) return 0
+
+        savePendingExpenses()
+        updateBadgeCount()
+        return added
+    }
+
+    // Insere na lista (sem persistir); false se for falha/erro ou duplicata
+    const insertPendingExpense = (expense: Omit<PendingExpense, 'id'>): boolean => {
         // Ignorar notificações de falha/erro
         if (shouldIgnoreExpense(expense.description)) {
             console.log('⚠️ Ignoring failed/error notification:', expense.description)
-            return
+            return false
         }
 
-        // Check for duplicates based on amount and bank within a time window
+        // Com expenseId, a duplicata é o mesmo id (O(1)); a mesma compra vinda de outra
+        // notificação já é descartada no nativo
+        if (expense.expenseId) {
+            if (seenExpenseIdSet.has(expense.expenseId)) {
+                console.log('⚠️ Duplicate expense id, skipping:', expense.expenseId)
+                return false
+            }
+            rememberExpenseId(expense.expenseId)
+            return pushPendingExpense(expense, expense.expenseId)
+        }
+
+        // Sem expenseId (versões antigas): duplicata por valor e banco numa janela de tempo
         // Samsung Pay e outros apps podem enviar múltiplas notificações da mesma compra
         const isDuplicate = pendingExpenses.value.some(existing => {
             const timeDiff = Math.abs(existing.timestamp - expense.timestamp)
@@ -1179,26 +1251,25 @@ export const useBudgetStore = defineStore('budget', () => {
 
         if (isDuplicate) {
             console.log('⚠️ Duplicate expense detected, skipping:', expense)
-            return
+            return false
         }
 
+        return pushPendingExpense(expense, `${Date.now()}-${Math.random().toString(36).substr(2, 9)}`)
+    }
+
+    const pushPendingExpense = (expense: Omit<PendingExpense, 'id'>, id: string): boolean => {
         // Detecta se é um valor recebido/estornado
         const isIncome = isIncomeExpense(expense.description)
 
         const newExpense: PendingExpense = {
-            id: `${Date.now()}-${Math.random().toString(36).substr(2, 9)}`,
+            id,
             ...expense,
             isIncome
         }
         pendingExpenses.value.unshift(newExpense)
 
-        // Save to localStorage as backup
-        localStorage.setItem('pendingExpenses', JSON.stringify(pendingExpenses.value))
-
-        // Atualiza o badge do ícone do app
-        updateBadgeCount()
-
         console.log('✅ Pending expense added:', newExpense)
+        return true
     }
 
     const updatePendingExpense = (expenseId: string, updates: Partial<Omit<PendingExpense, 'id'>>) => {
@@ -2490,6 +2561,30 @@ export const useBudgetStore = defineStore('budget', () => {
         }
     }
 
+    // Tira do classificador nativo um budget apagado ou renomeado (não é mais sugerido)
+    const forgetBudgetCategory = (name?: string) => {
+        if (!Capacitor.isNativePlatform() || !name) return
+
+        NotificationPlugin.forgetCategory({ category: name }).catch(error => {
+            console.error('Erro ao esquecer categoria:', error)
+        })
+    }
+
+    // Ensina ao classificador nativo o budget escolhido para o comércio (melhora a categoria das próximas)
+    const learnExpenseCategory = (expense: PendingExpense, budgetId: string) => {
+        if (!Capacitor.isNativePlatform()) return
+
+        const budget = budgets.value.find(b => b.id === budgetId)
+        const text = expense.merchantName && expense.merchantName !== 'Desconhecido'
+            ? expense.merchantName
+            : expense.description
+        if (!budget || !text) return
+
+        NotificationPlugin.learnCategory({ text, category: budget.name }).catch(error => {
+            console.error('Erro ao ensinar categoria:', error)
+        })
+    }
+
     // Atualiza approvePendingExpense para salvar transação
     const approvePendingExpenseWithTransaction = async (expenseId: string, budgetId: string) => {
         console.log('[APPROVE] Iniciando aprovacao de despesa:', expenseId, 'para budget:', budgetId)
@@ -2506,6 +2601,7 @@ export const useBudgetStore = defineStore('budget', () => {
         console.log('[APPROVE] saveTransaction concluido')
 
         expense.approved = true
+        learnExpenseCategory(expense, budgetId)
 
         setTimeout(() => {
             pendingExpenses.value = pendingExpenses.value.filter(e => e.id !== expenseId)
@@ -2768,6 +2864,7 @@ export const useBudgetStore = defineStore('budget', () => {
         checkAndResetBudgets,
         // Pending Expenses
         addPendingExpense,
+        addPendingExpenses,
         updatePendingExpense,
         approvePendingExpense,
         approvePendingExpenseWithTransaction,